@@ -0,0 +1,89 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.BatchInterleavers;
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per record cost of {@link BatchInterleavers} against a loop calling
+ * {@link Interleaver#interleave(int[], int, int, Shuffle)} for each record,
+ * over {@link #RECORDS} records of random lengths between {@code minLength}
+ * and {@code maxLength} in one flat array.
+ */
+@State(Scope.Benchmark)
+public class BatchInterleaverBench {
+
+  static final int RECORDS = 10_000;
+
+  @Param({"32", "512"})
+  public int minLength;
+
+  @Param({"64", "4096"})
+  public int maxLength;
+
+  @Param({"SIMPLE", "SHUFFLE", "PERMUTATION"})
+  public String interleaverName;
+
+  int[] ints;
+  int[] offsets;
+  Interleaver interleaver;
+  ForkJoinPool pool;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    Random random = new Random(15);
+    int max = Math.max(minLength, maxLength);
+    offsets = new int[RECORDS + 1];
+    for (int r = 0; r < RECORDS; r++) {
+      offsets[r + 1] = offsets[r] + minLength
+                       + random.nextInt(max - minLength + 1);
+    }
+    ints = new int[offsets[RECORDS]];
+    Arrays.setAll(ints, i -> i);
+    interleaver = (Interleaver) Interleavers.class.getField(interleaverName)
+                                                  .get(null);
+    pool = new ForkJoinPool();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public int[] loop() {
+    for (int r = 0; r < RECORDS; r++) {
+      interleaver.interleave(ints, offsets[r], offsets[r + 1], Shuffle.OUT);
+    }
+    return ints;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public int[] batch() {
+    BatchInterleavers.interleave(ints, offsets, Shuffle.OUT);
+    return ints;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public int[] parallelBatch() {
+    BatchInterleavers.interleave(ints, offsets, Shuffle.OUT, pool,
+                                 BatchInterleavers.PARALLEL_THRESHOLD);
+    return ints;
+  }
+}
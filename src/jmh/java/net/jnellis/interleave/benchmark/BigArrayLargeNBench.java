@@ -0,0 +1,39 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.BigArray;
+import net.jnellis.interleave.BigArrayInterleavers;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Segmented version of {@link InterleaverLargeNBench}, a billion elements
+ * without one huge contiguous allocation.
+ */
+@State(Scope.Benchmark)
+public class BigArrayLargeNBench {
+
+  @Param({"16", "20"})
+  public int segmentShift;
+
+  BigArray<Integer> arr;
+  Integer[] ints = {1, 2, 3, 4};
+
+  @Setup(Level.Trial)
+  public void setup() {
+    arr = new BigArray<>(1_000_000_000L, segmentShift);
+    arr.setAll(i -> ints[(int) (i % ints.length)]);
+    System.out.println("<setup complete!>");
+  }
+
+  @Benchmark
+  public BigArray<Integer> LargeMarge() {
+    BigArrayInterleavers.interleave(arr, Interleavers.SHUFFLE, Shuffle.IN);
+    return arr;
+  }
+}
@@ -1,7 +1,10 @@
 package net.jnellis.interleave.benchmark;
 
+import net.jnellis.interleave.PrimitiveArrayInShuffleInterleavers;
+import net.jnellis.interleave.Rotation;
 import net.jnellis.interleave.Util;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -12,30 +15,59 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+/**
+ * Compares the {@link Rotation} strategies across sizes that fit in cache
+ * and sizes that don't. The shift is {@code arrLen / shiftDivisor}, so a
+ * divisor of -2 rotates left by half and 1000 leaves a short side small
+ * enough to buffer. {@code collectionsRotate} is the baseline and doesn't
+ * depend on the strategy.
+ */
 @State(Scope.Benchmark)
 public class CyclicShiftBench {
 
-  public int arrLen = 100000;
+  @Param({"1000", "100000", "10000000"})
+  public int arrLen;
 
-  public int shiftAmt = -arrLen/2;
+  @Param({"-2", "3", "1000"})
+  public int shiftDivisor;
+
+  @Param({"JUGGLING", "REVERSAL", "BLOCK_SWAP", "BUFFERED", "PARALLEL", "AUTO"})
+  public Rotation rotation;
+
+  public int shiftAmt;
 
   List<Object> list;
   Object[] array;
+  int[] ints;
 
   @Setup
   public void setup() {
+    shiftAmt = arrLen / shiftDivisor;
     list = IntStream.range(0, arrLen)
                     .boxed()
                     .collect(Collectors.toCollection(ArrayList::new));
     array = list.toArray();
+    ints = IntStream.range(0, arrLen).toArray();
   }
 
   @Benchmark
   public Object[] utilRotateArray() {
-    Util.rotate(array, shiftAmt);
+    Util.rotate(array, 0, arrLen, shiftAmt, rotation);
     return array;
   }
 
+  @Benchmark
+  public int[] primitiveRotateArray() {
+    PrimitiveArrayInShuffleInterleavers.rotate(ints, 0, arrLen, shiftAmt, rotation);
+    return ints;
+  }
+
+  @Benchmark
+  public List<Object> utilRotateList() {
+    Util.rotate(list, shiftAmt, rotation);
+    return list;
+  }
+
   @Benchmark
   public List<Object> collectionsRotate() {
     Collections.rotate(list, shiftAmt);
@@ -0,0 +1,49 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * {@link Interleavers#hybrid(long)} with a budget of {@code percent} of the
+ * array's size, against {@link Interleavers#SIMPLE} (100% extra) and
+ * {@link Interleavers#PERMUTATION} (none).
+ */
+@State(Scope.Benchmark)
+public class HybridInterleaverBench {
+
+  @Param({"1000000", "10000000", "100000000"})
+  public int max;
+
+  @Param({"0", "1", "10", "50", "simple"})
+  public String percent;
+
+  int[] ints;
+  Interleaver interleaver;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ints = new int[max];
+    Arrays.setAll(ints, i -> i);
+    interleaver = switch (percent) {
+      case "simple" -> Interleavers.SIMPLE;
+      case "0" -> Interleavers.PERMUTATION;
+      default -> Interleavers.hybrid(
+          (long) max * Integer.BYTES * Integer.parseInt(percent) / 100);
+    };
+  }
+
+  @Benchmark
+  public int[] intArray() {
+    interleaver.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+}
@@ -10,6 +10,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
+import java.nio.Buffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -22,12 +23,13 @@ import java.util.stream.IntStream;
 @State(Scope.Benchmark)
 public class InPlaceInterleaverBench {
 
-  @Param({"baseline","simple","sequence","permutation","recursive","josephus","shuffle"})
+  @Param({"baseline","simple","sequence","permutation","recursive","josephus","shuffle","blocked","direct"})
   public String interleaverName;
 
   @Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
 //    @Param({"64", "256", "1024", "4096", "16384", "65536", "262144", "1048576", })
 //        "16777216", "268435456"}) // powers of 2
+//  @Param({"10000000", "100000000", "1000000000"}) // past LLC, -Xmx16g for 1e9
   public int max;
 
   @Param({"Nulls", "Single","Cached","Unique"})
@@ -42,6 +44,8 @@ public class InPlaceInterleaverBench {
     josephus(Interleavers.JOSEPHUS),
     shuffle(Interleavers.SHUFFLE),
     simple(Interleavers.SIMPLE),
+    blocked(Interleavers.blocked()),
+    direct(Interleavers.DIRECT),
     baseline(new Interleaver() {  // does absolutely nothing
       @Override
       public void interleave(List<?> list, Shuffle shuffle) {}
@@ -54,6 +58,60 @@ public class InPlaceInterleaverBench {
 
       @Override
       public <T> void interleave(T[] a, int fromA, int toA, T[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(boolean[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(byte[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(char[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(short[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(int[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(long[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(float[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(double[] array, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(boolean[] a, int fromA, int toA, boolean[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(byte[] a, int fromA, int toA, byte[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(char[] a, int fromA, int toA, char[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(short[] a, int fromA, int toA, short[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(int[] a, int fromA, int toA, int[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(long[] a, int fromA, int toA, long[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(float[] a, int fromA, int toA, float[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(double[] a, int fromA, int toA, double[] b, int fromB, int toB, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(Buffer buffer, int from, int to, Shuffle shuffle) {}
+
+      @Override
+      public void interleave(Buffer a, int fromA, int toA, Buffer b, int fromB, int toB, Shuffle shuffle) {}
     });
     public final Interleaver interleaver;
 
@@ -0,0 +1,151 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.InterleavingQueue;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two producer threads and one consumer through {@link InterleavingQueue},
+ * against the same merge done with a lock and two queues. Each group runs
+ * a producer per stream and a consumer draining batches of {@code batch}
+ * elements; the {@code elements} counter is the rate elements come out in
+ * interleaved order.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+public class InterleavingQueueBench {
+
+  static final Integer A = 1, B = 2;
+
+  @Param({"1024"})
+  public int capacity;
+
+  @Param({"1", "64"})
+  public int batch;
+
+  InterleavingQueue<Integer> queue;
+  LockedQueue locked;
+
+  /**
+   * Elements taken by the consumer, reported as a rate by JMH.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Taken {
+    public long elements;
+    Integer[] buffer;
+  }
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    queue = new InterleavingQueue<>(capacity, Shuffle.OUT);
+    locked = new LockedQueue(capacity);
+  }
+
+  @Benchmark
+  @Group("lockFree")
+  @GroupThreads(1)
+  public boolean lockFreeA() {
+    return queue.offerA(A);
+  }
+
+  @Benchmark
+  @Group("lockFree")
+  @GroupThreads(1)
+  public boolean lockFreeB() {
+    return queue.offerB(B);
+  }
+
+  @Benchmark
+  @Group("lockFree")
+  @GroupThreads(1)
+  public int lockFreeDrain(Taken taken) {
+    if (taken.buffer == null) {
+      taken.buffer = new Integer[batch];
+    }
+    int n = queue.drainTo(taken.buffer, batch);
+    taken.elements += n;
+    return n;
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(1)
+  public boolean lockedA() {
+    return locked.offer(true, A);
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(1)
+  public boolean lockedB() {
+    return locked.offer(false, B);
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(1)
+  public int lockedDrain(Taken taken) {
+    if (taken.buffer == null) {
+      taken.buffer = new Integer[batch];
+    }
+    int n = locked.drainTo(taken.buffer, batch);
+    taken.elements += n;
+    return n;
+  }
+
+  /**
+   * The lock and two queues being replaced.
+   */
+  static final class LockedQueue {
+    final ReentrantLock lock = new ReentrantLock();
+    final ArrayDeque<Integer> a = new ArrayDeque<>(), b = new ArrayDeque<>();
+    final int capacity;
+    boolean turnB;
+
+    LockedQueue(int capacity) {
+      this.capacity = capacity;
+    }
+
+    boolean offer(boolean first, Integer e) {
+      lock.lock();
+      try {
+        ArrayDeque<Integer> q = first ? a : b;
+        return q.size() < capacity && q.offer(e);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int drainTo(Integer[] array, int max) {
+      lock.lock();
+      try {
+        int n = 0;
+        while (n < max) {
+          Integer e = (turnB ? b : a).poll();
+          if (e == null) {
+            break;
+          }
+          array[n++] = e;
+          turnB = !turnB;
+        }
+        return n;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to find the J2 prime a Josephus or Shuffle Prime interleave starts
+ * with, for sizes up to {@code Integer.MAX_VALUE}. Each call starts a little
+ * lower so the search isn't answered from the memo of recent searches,
+ * except in {@code repeated}.
+ */
+@State(Scope.Benchmark)
+public class J2PrimeBench {
+  @Param({"1000", "100000", "10000000", "1000000000", "2147483647"})
+  int n;
+
+  /* steps back through 4096 starting points, more than the memo holds */
+  int offset;
+
+  @Benchmark
+  public void search(Blackhole blackhole) {
+    offset = (offset + 1) & 4095;
+    blackhole.consume(Util.findNextLowestJ2Prime(n - offset));
+  }
+
+  @Benchmark
+  public void repeated(Blackhole blackhole) {
+    blackhole.consume(Util.findNextLowestJ2Prime(n));
+  }
+
+  @Benchmark
+  public void isJ2Prime(Blackhole blackhole) {
+    offset = (offset + 1) & 4095;
+    blackhole.consume(Util.isJ2Prime(n - offset));
+  }
+}
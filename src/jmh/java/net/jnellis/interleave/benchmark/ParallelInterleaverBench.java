@@ -0,0 +1,73 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.ParallelInterleaver;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Each in-place algorithm alone against
+ * {@link Interleavers#parallel(Interleaver, ForkJoinPool, int)} of it with a
+ * pool of {@code threads} workers.
+ */
+@State(Scope.Benchmark)
+public class ParallelInterleaverBench {
+
+  static final Map<String, Interleaver> ALGORITHMS =
+      Map.of("SHUFFLE", Interleavers.SHUFFLE,
+             "RECURSIVE", Interleavers.RECURSIVE,
+             "PERMUTATION", Interleavers.PERMUTATION,
+             "JOSEPHUS", Interleavers.JOSEPHUS);
+
+  @Param({"10000000", "100000000"})
+  public int arrLen;
+
+  @Param({"SHUFFLE", "RECURSIVE", "PERMUTATION", "JOSEPHUS"})
+  public String algorithm;
+
+  @Param({"2", "8", "32"})
+  public int threads;
+
+  int[] ints;
+  ForkJoinPool pool;
+  Interleaver sequential;
+  Interleaver parallel;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ints = new int[arrLen];
+    Arrays.setAll(ints, i -> i);
+    pool = new ForkJoinPool(threads);
+    sequential = ALGORITHMS.get(algorithm);
+    parallel = Interleavers.parallel(sequential, pool,
+                                     ParallelInterleaver.THRESHOLD);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public int[] sequentialInts() {
+    sequential.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+
+  @Benchmark
+  public int[] parallelInts() {
+    parallel.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+}
@@ -0,0 +1,74 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link Interleavers#PERMUTATION} against
+ * {@link Interleavers#parallelPermutation(ForkJoinPool, int)} with a pool of
+ * {@code threads} workers.
+ */
+@State(Scope.Benchmark)
+public class ParallelPermutationBench {
+
+  @Param({"1000000", "100000000"})
+  public int arrLen;
+
+  @Param({"2", "8", "32"})
+  public int threads;
+
+  int[] ints;
+  Object[] objects;
+  ForkJoinPool pool;
+  Interleaver parallel;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ints = new int[arrLen];
+    Arrays.setAll(ints, i -> i);
+    objects = new Object[arrLen];
+    Arrays.setAll(objects, i -> i);
+    pool = new ForkJoinPool(threads);
+    parallel = Interleavers.parallelPermutation(pool, 1 << 16);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public int[] sequentialInts() {
+    Interleavers.PERMUTATION.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+
+  @Benchmark
+  public int[] parallelInts() {
+    parallel.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+
+  @Benchmark
+  public Object[] sequentialObjects() {
+    Interleavers.PERMUTATION.interleave(objects, Shuffle.IN);
+    return objects;
+  }
+
+  @Benchmark
+  public Object[] parallelObjects() {
+    parallel.interleave(objects, Shuffle.IN);
+    return objects;
+  }
+}
@@ -0,0 +1,97 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import net.jnellis.interleave.SimpleInterleaver;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link Interleavers#SIMPLE} against
+ * {@link Interleavers#parallelSimple(ForkJoinPool, int)} with a pool of
+ * {@code threads} workers, over the sizes of {@link InPlaceInterleaverBench}.
+ * <p>
+ * Besides operations per second, the {@code bytes} counter reports memory
+ * traffic per second: each element is read and written once by the copy out
+ * and once more by the copy back. Divide by 1e9 for GB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class ParallelSimpleBench {
+
+  @Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+  public int max;
+
+  @Param({"2", "8", "32"})
+  public int threads;
+
+  int[] ints;
+  Object[] objects;
+  ForkJoinPool pool;
+  Interleaver parallel;
+
+  /**
+   * Bytes moved, reported as a rate by JMH.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Traffic {
+    public long bytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ints = new int[max];
+    Arrays.setAll(ints, i -> i);
+    objects = new Object[max];
+    Arrays.setAll(objects, i -> i);
+    pool = new ForkJoinPool(threads);
+    parallel = Interleavers.parallelSimple(pool,
+                                           SimpleInterleaver.PARALLEL_THRESHOLD);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public int[] sequentialInts(Traffic traffic) {
+    Interleavers.SIMPLE.interleave(ints, Shuffle.IN);
+    traffic.bytes += 4L * Integer.BYTES * max;
+    return ints;
+  }
+
+  @Benchmark
+  public int[] parallelInts(Traffic traffic) {
+    parallel.interleave(ints, Shuffle.IN);
+    traffic.bytes += 4L * Integer.BYTES * max;
+    return ints;
+  }
+
+  @Benchmark
+  public Object[] sequentialObjects(Traffic traffic) {
+    Interleavers.SIMPLE.interleave(objects, Shuffle.IN);
+    traffic.bytes += 4L * Integer.BYTES * max; // compressed references
+    return objects;
+  }
+
+  @Benchmark
+  public Object[] parallelObjects(Traffic traffic) {
+    parallel.interleave(objects, Shuffle.IN);
+    traffic.bytes += 4L * Integer.BYTES * max; // compressed references
+    return objects;
+  }
+}
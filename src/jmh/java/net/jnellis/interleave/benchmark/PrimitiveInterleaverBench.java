@@ -20,17 +20,17 @@ import java.util.stream.LongStream;
  */
 @State(Scope.Benchmark)
 public class PrimitiveInterleaverBench {
-  @Param({"baseline", "simple", "sequence", "permutation", "recursive", "josephus", "shuffle" })
+  @Param({"baseline", "simple", "vector", "swar", "sequence", "permutation", "recursive", "josephus", "shuffle" })
   public String interleaverName;
 
   @Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
   public int max;
 
-  @Param({"ints","longs","doubles","floats","chars","bytes"})
+  @Param({"ints","longs","doubles","floats","chars","shorts","bytes"})
   public String arrayType;
 
   enum ARRAY_TYPE { ints(int.class), longs(long.class), doubles(double.class),
-    floats(float.class), chars(char.class), bytes(byte.class);
+    floats(float.class), chars(char.class), shorts(short.class), bytes(byte.class);
 
     ARRAY_TYPE(Class<?> clazz){
       Class<?> componentType = clazz;
@@ -48,6 +48,8 @@ public class PrimitiveInterleaverBench {
     josephus(PrimitiveArrayInShuffleInterleavers::josephus),
     shuffle(PrimitiveArrayInShuffleInterleavers::shufflePrime),
     simple(PrimitiveArrayInShuffleInterleavers::simple),
+    vector(PrimitiveArrayInShuffleInterleavers::vector),
+    swar(PrimitiveArrayInShuffleInterleavers::swar),
     baseline( // just acquire and copy back
         (Object array, int from, int to)->{
           var type = array.getClass().componentType();
@@ -91,6 +93,11 @@ public class PrimitiveInterleaverBench {
         for (int i = 0; i < ch.length; i++) { ch[i] = (char)i; }
         yield ch;
       }
+      case shorts ->{
+        short[] sh = new short[max];
+        for (int i = 0; i < sh.length; i++) { sh[i] = (short)i; }
+        yield sh;
+      }
       case bytes ->{
         byte[] b = new byte[max];
         for (int i = 0; i < b.length; i++) { b[i] = (byte)i;}
@@ -0,0 +1,96 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.PrimitiveArrayInShuffleInterleavers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Checks that interleaving several primitive types in the same JVM does not
+ * slow down any one of them.
+ * <p>
+ * Before the primitive algorithms were specialized per type, every element
+ * swap went through a lambda chosen by the array type. Once two or three
+ * types had been through the same algorithm those call sites turned
+ * megamorphic and stopped inlining. With {@code pollute=true} the trial setup
+ * runs the chosen algorithm over every primitive type before measuring, all
+ * in the same fork, so {@code intsOnly} should score the same with or without
+ * pollution. {@code mixedTypes} interleaves four types per invocation.
+ */
+@State(Scope.Benchmark)
+public class PrimitiveProfilePollutionBench {
+
+  @Param({"sequence", "permutation", "recursive", "josephus", "shuffle", "direct"})
+  public String interleaverName;
+
+  @Param({"1000", "100000"})
+  public int max;
+
+  @Param({"false", "true"})
+  public boolean pollute;
+
+  enum INTERLEAVERS {
+    sequence(PrimitiveArrayInShuffleInterleavers::sequence),
+    permutation(PrimitiveArrayInShuffleInterleavers::permutation),
+    recursive(PrimitiveArrayInShuffleInterleavers::recursive),
+    josephus(PrimitiveArrayInShuffleInterleavers::josephus),
+    shuffle(PrimitiveArrayInShuffleInterleavers::shufflePrime),
+    direct(PrimitiveArrayInShuffleInterleavers::direct);
+
+    public final PrimitiveInterleaverBench.PrimitiveArrayOperation interleaver;
+
+    INTERLEAVERS(PrimitiveInterleaverBench.PrimitiveArrayOperation i) {
+      this.interleaver = i;
+    }
+  }
+
+  PrimitiveInterleaverBench.PrimitiveArrayOperation interleaveOp;
+  int[] ints;
+  long[] longs;
+  byte[] bytes;
+  double[] doubles;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    interleaveOp = INTERLEAVERS.valueOf(interleaverName).interleaver;
+    ints = IntStream.range(0, max).toArray();
+    longs = LongStream.range(0, max).toArray();
+    bytes = new byte[max];
+    doubles = new double[max];
+    for (int i = 0; i < max; i++) {
+      bytes[i] = (byte) i;
+      doubles[i] = i;
+    }
+    if (pollute) {
+      Object[] everyType = {new boolean[max], bytes, new char[max],
+          new short[max], ints, longs, new float[max], doubles};
+      // enough rounds to get every type compiled by C2
+      for (int round = 0; round < 20_000_000 / max + 10; round++) {
+        for (Object array : everyType) {
+          interleaveOp.on(array, 0, max);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public Object intsOnly() {
+    interleaveOp.on(ints, 0, max);
+    return ints;
+  }
+
+  @Benchmark
+  public Object mixedTypes() {
+    interleaveOp.on(ints, 0, max);
+    interleaveOp.on(longs, 0, max);
+    interleaveOp.on(bytes, 0, max);
+    interleaveOp.on(doubles, 0, max);
+    return doubles;
+  }
+}
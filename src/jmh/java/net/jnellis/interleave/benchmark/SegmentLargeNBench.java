@@ -0,0 +1,56 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.SegmentInterleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.MemorySession;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap version of {@link InterleaverLargeNBench}, past the 2^31 element
+ * limit of arrays and without a huge java heap.
+ */
+@State(Scope.Benchmark)
+public class SegmentLargeNBench {
+
+  @Param({"1000000000", "3000000000"})
+  public long elements;
+
+  MemorySession session;
+  MemorySegment segment;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    session = MemorySession.openShared();
+    segment = MemorySegment.allocateNative(elements * Integer.BYTES, session);
+    for (long i = 0; i < elements; i++) {
+      segment.setAtIndex(ValueLayout.JAVA_INT, i, (int) i);
+    }
+    System.out.println("<setup complete!>");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    session.close();
+  }
+
+  @Benchmark
+  public MemorySegment permutation() {
+    SegmentInterleavers.permutation(segment, Integer.BYTES, Shuffle.IN);
+    return segment;
+  }
+
+  @Benchmark
+  public MemorySegment shufflePrime() {
+    SegmentInterleavers.shufflePrime(segment, Integer.BYTES, Shuffle.IN);
+    return segment;
+  }
+}
@@ -0,0 +1,72 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.PrimitiveArrayInShuffleInterleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of small interleaves through {@link Interleavers}, which shuffle
+ * sizes below 64 from precomputed tables, against calling the in-shuffle
+ * algorithms directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SmallSizeBench {
+
+  @Param({"2", "3", "4", "8", "15", "16", "31", "32", "48", "63", "64"})
+  public int size;
+
+  int[] ints;
+  Integer[] objects;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ints = new int[size];
+    Arrays.setAll(ints, i -> i);
+    objects = new Integer[size];
+    Arrays.setAll(objects, i -> i);
+  }
+
+  @Benchmark
+  public int[] tableInts() {
+    Interleavers.SHUFFLE.interleave(ints, Shuffle.IN);
+    return ints;
+  }
+
+  @Benchmark
+  public int[] tableFoldingInts() {
+    Interleavers.SHUFFLE.interleave(ints, Shuffle.OUT_FOLDING);
+    return ints;
+  }
+
+  @Benchmark
+  public Integer[] tableObjects() {
+    Interleavers.SHUFFLE.interleave(objects, Shuffle.IN);
+    return objects;
+  }
+
+  @Benchmark
+  public int[] shufflePrimeInts() {
+    PrimitiveArrayInShuffleInterleavers.shufflePrime(ints, 0, size);
+    return ints;
+  }
+
+  @Benchmark
+  public int[] permutationInts() {
+    PrimitiveArrayInShuffleInterleavers.permutation(ints, 0, size);
+    return ints;
+  }
+}
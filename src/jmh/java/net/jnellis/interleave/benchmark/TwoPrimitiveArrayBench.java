@@ -0,0 +1,79 @@
+package net.jnellis.interleave.benchmark;
+
+import net.jnellis.interleave.Interleaver;
+import net.jnellis.interleave.Interleavers;
+import net.jnellis.interleave.Shuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Left and right audio channels kept in separate {@code float[]} buffers.
+ * <p>
+ * {@code copyThenInterleave} is what had to be done before two array
+ * interleaving existed for primitives: copy both channels into one array and
+ * interleave that. {@code twoArrays} interleaves the two channels in place.
+ * Both copy the channels first so each invocation starts from the same
+ * de-interleaved input, {@code copyThenInterleave} just needs one more.
+ */
+@State(Scope.Benchmark)
+public class TwoPrimitiveArrayBench {
+
+  @Param({"simple", "sequence", "permutation", "recursive", "josephus", "shuffle"})
+  public String interleaverName;
+
+  @Param({"1000", "100000", "1000000"})
+  public int max;
+
+  enum INTERLEAVERS {
+    simple(Interleavers.SIMPLE),
+    sequence(Interleavers.SEQUENCE),
+    permutation(Interleavers.PERMUTATION),
+    recursive(Interleavers.RECURSIVE),
+    josephus(Interleavers.JOSEPHUS),
+    shuffle(Interleavers.SHUFFLE);
+
+    public final Interleaver interleaver;
+
+    INTERLEAVERS(Interleaver i) {
+      this.interleaver = i;
+    }
+  }
+
+  Interleaver interleaver;
+  float[] left, right;
+  float[] workLeft, workRight, stereo;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    interleaver = INTERLEAVERS.valueOf(interleaverName).interleaver;
+    left = new float[max];
+    right = new float[max];
+    for (int i = 0; i < max; i++) {
+      left[i] = i;
+      right[i] = -i;
+    }
+    workLeft = new float[max];
+    workRight = new float[max];
+    stereo = new float[max * 2];
+  }
+
+  @Benchmark
+  public float[] copyThenInterleave() {
+    System.arraycopy(left, 0, stereo, 0, max);
+    System.arraycopy(right, 0, stereo, max, max);
+    interleaver.interleave(stereo, Shuffle.OUT);
+    return stereo;
+  }
+
+  @Benchmark
+  public float[] twoArrays() {
+    System.arraycopy(left, 0, workLeft, 0, max);
+    System.arraycopy(right, 0, workRight, 0, max);
+    interleaver.interleave(workLeft, workRight, Shuffle.OUT);
+    return workRight;
+  }
+}
@@ -1,5 +1,14 @@
 package net.jnellis.interleave;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.ShortBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -8,7 +17,9 @@ import java.util.Objects;
  * AbstractInterleaver holds some essential boilerplate for converting
  * out-shuffle and folding variants to in-shuffle operations. Implementations
  * only need to provide an in-shuffle algorithm implementation for each
- * collection type.
+ * collection type, including primitive arrays. Array sections of fewer than
+ * 64 elements are shuffled from precomputed tables instead, whatever the
+ * implementation.
  */
 public abstract class AbstractInterleaver implements Interleaver {
 
@@ -43,6 +54,11 @@ public abstract class AbstractInterleaver implements Interleaver {
         from++;
         size--;
       }
+      if (size < SmallShuffles.LIMIT) {
+        SmallShuffles.interleave(array, from,
+                                 SmallShuffles.path(size, shuffle.folding));
+        return;
+      }
       if (shuffle.folding) {
         Util.reverse(array, from + (size / 2), to);
       }
@@ -56,7 +72,7 @@ public abstract class AbstractInterleaver implements Interleaver {
     if (minSize > 0) {
       if (shuffle.folding) {
         // rotate non-interleaved items to the back
-        Collections.rotate(b, minSize - b.size());
+        Util.rotate(b, minSize - b.size());
         // reverse the rest
         Collections.reverse(b.subList(0, minSize));
       }
@@ -81,9 +97,9 @@ public abstract class AbstractInterleaver implements Interleaver {
     if (minSize > 0) {
       if (shuffle.folding) {
         // rotate non-interleaved items to the back
-        Util.rotate(b, fromB, toB, minSize - toB);
+        Util.rotate(b, fromB, toB, minSize - (toB - fromB));
         // reverse the rest
-        Util.reverse(b, fromB, minSize);
+        Util.reverse(b, fromB, fromB + minSize);
       }
       if (shuffle.out) {
         if (minSize > 1) {
@@ -97,6 +113,228 @@ public abstract class AbstractInterleaver implements Interleaver {
     }
   }
 
+  @Override
+  public void interleave(boolean[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(byte[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(char[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(short[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(int[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(long[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(float[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  @Override
+  public void interleave(double[] array, int from, int to, Shuffle shuffle) {
+    interleavePrimitive(array, array.length, from, to, shuffle);
+  }
+
+  /*
+   * Same out-shuffle and folding conversion as the object array version, for
+   * any primitive array type.
+   */
+  private void interleavePrimitive(Object array, int length,
+                                   int from, int to, Shuffle shuffle) {
+    Objects.checkFromToIndex(from, to, length);
+    int size = to - from;
+    if (size > 1) {
+      if (shuffle.out) {
+        from++;
+        size--;
+      }
+      if (size < SmallShuffles.LIMIT) {
+        PrimitiveArrayInShuffleInterleavers.small(
+            array, from, SmallShuffles.path(size, shuffle.folding));
+        return;
+      }
+      if (shuffle.folding) {
+        PrimitiveArrayInShuffleInterleavers.reverse(array, from + (size / 2), to);
+      }
+      interleavePrimitive(array, from, to);
+    }
+  }
+
+  @Override
+  public void interleave(boolean[] a, int fromA, int toA,
+                         boolean[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(byte[] a, int fromA, int toA,
+                         byte[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(char[] a, int fromA, int toA,
+                         char[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(short[] a, int fromA, int toA,
+                         short[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(int[] a, int fromA, int toA,
+                         int[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(long[] a, int fromA, int toA,
+                         long[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(float[] a, int fromA, int toA,
+                         float[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  @Override
+  public void interleave(double[] a, int fromA, int toA,
+                         double[] b, int fromB, int toB,
+                         Shuffle shuffle) {
+    interleavePrimitive(a, a.length, fromA, toA, b, b.length, fromB, toB, shuffle);
+  }
+
+  /*
+   * Same out-shuffle and folding conversion as the two object array version,
+   * for any primitive array type.
+   */
+  private void interleavePrimitive(Object a, int lengthA, int fromA, int toA,
+                                   Object b, int lengthB, int fromB, int toB,
+                                   Shuffle shuffle) {
+    Objects.checkFromToIndex(fromA, toA, lengthA);
+    Objects.checkFromToIndex(fromB, toB, lengthB);
+    int minSize = Math.min(toA - fromA, toB - fromB);
+    if (minSize > 0) {
+      if (shuffle.folding) {
+        // rotate non-interleaved items to the back
+        PrimitiveArrayInShuffleInterleavers.rotate(b, fromB, toB, minSize - (toB - fromB));
+        // reverse the rest
+        PrimitiveArrayInShuffleInterleavers.reverse(b, fromB, fromB + minSize);
+      }
+      if (shuffle.out) {
+        if (minSize > 1) {
+          interleavePrimitive(a, fromA + 1, fromA + minSize,
+                              b, fromB,     fromB + minSize - 1);
+        }
+      } else {
+        interleavePrimitive(a, fromA, fromA + minSize,
+                            b, fromB, fromB + minSize);
+      }
+    }
+  }
+
+  @Override
+  public void interleave(Buffer buffer, int from, int to, Shuffle shuffle) {
+    Objects.checkFromToIndex(from, to, buffer.limit());
+    Class<?> type = elementType(buffer);
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    if (buffer.hasArray()) {
+      int offset = buffer.arrayOffset();
+      interleavePrimitive(buffer.array(), offset + buffer.limit(),
+                          offset + from, offset + to, shuffle);
+    } else {
+      SegmentInterleavers.interleave(buffer, elementSize(type), from, to, shuffle);
+    }
+  }
+
+  @Override
+  public void interleave(Buffer a, int fromA, int toA,
+                         Buffer b, int fromB, int toB,
+                         Shuffle shuffle) {
+    Objects.checkFromToIndex(fromA, toA, a.limit());
+    Objects.checkFromToIndex(fromB, toB, b.limit());
+    Class<?> type = elementType(a);
+    if (type != elementType(b)) {
+      throw new IllegalArgumentException(
+          "Buffers of " + type + " and " + elementType(b) + " can't be interleaved");
+    }
+    if (a.isReadOnly() || b.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    if (a.hasArray() && b.hasArray()) {
+      int offsetA = a.arrayOffset(), offsetB = b.arrayOffset();
+      interleavePrimitive(a.array(), offsetA + a.limit(),
+                          offsetA + fromA, offsetA + toA,
+                          b.array(), offsetB + b.limit(),
+                          offsetB + fromB, offsetB + toB, shuffle);
+    } else {
+      SegmentInterleavers.interleave(a, fromA, toA, b, fromB, toB,
+                                     elementSize(type), shuffle);
+    }
+  }
+
+  /*
+   * Primitive type of the elements of a buffer.
+   */
+  private static Class<?> elementType(Buffer buffer) {
+    return switch (buffer) {
+      case ByteBuffer b -> byte.class;
+      case CharBuffer c -> char.class;
+      case ShortBuffer s -> short.class;
+      case IntBuffer i -> int.class;
+      case FloatBuffer f -> float.class;
+      case LongBuffer l -> long.class;
+      case DoubleBuffer d -> double.class;
+      default -> throw new IllegalArgumentException(
+          "Unsupported buffer " + buffer.getClass());
+    };
+  }
+
+  private static int elementSize(Class<?> type) {
+    if (type == byte.class) {
+      return Byte.BYTES;
+    }
+    if (type == char.class || type == short.class) {
+      return Short.BYTES;
+    }
+    if (type == int.class || type == float.class) {
+      return Integer.BYTES;
+    }
+    return Long.BYTES;
+  }
+
   /**
    * One list in-shuffle implementation. Called from
    * {@link Interleaver#interleave(List, Shuffle)}
@@ -136,6 +374,30 @@ public abstract class AbstractInterleaver implements Interleaver {
   protected abstract <T> void interleave(T[] a, int fromA, int toA,
                                          T[] b, int fromB, int toB);
 
+  /**
+   * Primitive array in-shuffle implementation.  Called from each of the
+   * {@link PrimitiveInterleaver} methods, such as
+   * {@link PrimitiveInterleaver#interleave(int[], int, int, Shuffle)}
+   * @param array primitive array to be interleaved
+   * @param from starting index
+   * @param to ending index (exclusive)
+   */
+  protected abstract void interleavePrimitive(Object array, int from, int to);
+
+  /**
+   * Two primitive array in-shuffle implementation.  Called from each of the
+   * two array {@link PrimitiveInterleaver} methods, such as
+   * {@link PrimitiveInterleaver#interleave(float[], int, int, float[], int, int, Shuffle)}
+   * @param a first primitive array
+   * @param fromA first array starting index
+   * @param toA first array ending index (exclusive)
+   * @param b second primitive array, of the same type as {@code a}
+   * @param fromB second array starting index
+   * @param toB second array ending index (exclusive)
+   */
+  protected abstract void interleavePrimitive(Object a, int fromA, int toA,
+                                              Object b, int fromB, int toB);
+
   /**
    * Generic getter method
    * @see List#get(int)
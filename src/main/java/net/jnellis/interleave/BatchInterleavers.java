@@ -0,0 +1,314 @@
+package net.jnellis.interleave;
+
+import java.lang.reflect.Array;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utility class to shuffle many small array sections, records, in one call.
+ * <p>
+ * Interleaving one record at a time repeats the bounds checks, the
+ * {@link Shuffle} handling and the setup of an in-place algorithm for every
+ * record, which costs more than the shuffle itself at a few thousand
+ * elements or less. Here bounds are checked once for the whole batch, the
+ * shuffle type is applied while zipping instead of as a separate reversal,
+ * and every record goes through one scratch array that is as long as the
+ * longest record, like {@link SimpleInterleaver} without allocating for each
+ * record. Since the zip doesn't depend on the record size, records need no
+ * per size setup at all.
+ * <p>
+ * Records are either consecutive sections of one flat array, described by a
+ * table of offsets, or sections of any number of arrays. Batches of at least
+ * a threshold of elements can be split between the workers of a
+ * {@link ForkJoinPool}, each with its own scratch array.
+ *
+ * <pre>
+ * {@code
+ *    // three records of 4, 6 and 2 elements
+ *    int[] offsets = {0, 4, 10, 12};
+ *    BatchInterleavers.interleave(flat, offsets, Shuffle.OUT);
+ * }</pre>
+ *
+ * @see Interleaver
+ */
+public final class BatchInterleavers {
+
+  /**
+   * Default smallest batch, in elements, split between workers.
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /**
+   * Utility class, no constructor.
+   */
+  private BatchInterleavers() {}
+
+  /**
+   * Shuffles each record of a flat array on the calling thread.
+   *
+   * @param array   an object or primitive array
+   * @param offsets start of each record, then the end of the last one
+   * @param shuffle type of shuffle
+   * @throws IllegalArgumentException  if {@code array} isn't an array or
+   *                                   the offsets decrease
+   * @throws IndexOutOfBoundsException if the offsets are outside the array
+   */
+  public static void interleave(Object array, int[] offsets, Shuffle shuffle) {
+    interleave(array, offsets, shuffle, null, PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Shuffles each record of a flat array, splitting large batches between
+   * the workers of a pool.
+   *
+   * @param array     an object or primitive array
+   * @param offsets   start of each record, then the end of the last one
+   * @param shuffle   type of shuffle
+   * @param pool      where records are shuffled, null for the calling thread
+   * @param threshold smallest batch, in elements, split between workers
+   * @throws IllegalArgumentException  if {@code array} isn't an array or
+   *                                   the offsets decrease
+   * @throws IndexOutOfBoundsException if the offsets are outside the array
+   */
+  public static void interleave(Object array, int[] offsets, Shuffle shuffle,
+                                ForkJoinPool pool, int threshold) {
+    int length = length(array);
+    int count = Math.max(0, offsets.length - 1);
+    if (count > 0) {
+      Objects.checkFromToIndex(offsets[0], offsets[count], length);
+      for (int r = 0; r < count; r++) {
+        if (offsets[r] > offsets[r + 1]) {
+          throw new IllegalArgumentException(
+              "Offsets decrease at record " + r);
+        }
+      }
+    }
+    run(pool, threshold, count,
+        (first, last) -> offsets[last] - offsets[first],
+        (first, last) -> batch(array, offsets, first, last, shuffle));
+  }
+
+  /**
+   * Shuffles a section of each array on the calling thread, record
+   * {@code r} being {@code arrays[r][from[r]..to[r])}.
+   *
+   * @param arrays  object or primitive arrays, the same one may appear more
+   *                than once as long as its sections don't overlap
+   * @param from    starting index of each record
+   * @param to      ending index (exclusive) of each record
+   * @param shuffle type of shuffle
+   * @throws IllegalArgumentException  if an element of {@code arrays} isn't
+   *                                   an array, or the tables have different
+   *                                   lengths
+   * @throws IndexOutOfBoundsException if a section is outside its array
+   */
+  public static void interleave(Object[] arrays, int[] from, int[] to,
+                                Shuffle shuffle) {
+    interleave(arrays, from, to, shuffle, null, PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Shuffles a section of each array, record {@code r} being
+   * {@code arrays[r][from[r]..to[r])}, splitting large batches between the
+   * workers of a pool.
+   *
+   * @param arrays    object or primitive arrays, the same one may appear
+   *                  more than once as long as its sections don't overlap
+   * @param from      starting index of each record
+   * @param to        ending index (exclusive) of each record
+   * @param shuffle   type of shuffle
+   * @param pool      where records are shuffled, null for the calling thread
+   * @param threshold smallest batch, in elements, split between workers
+   * @throws IllegalArgumentException  if an element of {@code arrays} isn't
+   *                                   an array, or the tables have different
+   *                                   lengths
+   * @throws IndexOutOfBoundsException if a section is outside its array
+   */
+  public static void interleave(Object[] arrays, int[] from, int[] to,
+                                Shuffle shuffle,
+                                ForkJoinPool pool, int threshold) {
+    int count = arrays.length;
+    if (from.length != count || to.length != count) {
+      throw new IllegalArgumentException(
+          "Expected " + count + " starting and ending indexes");
+    }
+    long[] elements = new long[count + 1];
+    for (int r = 0; r < count; r++) {
+      Objects.checkFromToIndex(from[r], to[r], length(arrays[r]));
+      elements[r + 1] = elements[r] + to[r] - from[r];
+    }
+    run(pool, threshold, count,
+        (first, last) -> elements[last] - elements[first],
+        (first, last) -> records(arrays, from, to, first, last, shuffle));
+  }
+
+  private static int length(Object array) {
+    if (array == null || !array.getClass().isArray()) {
+      throw new IllegalArgumentException("Not an array: " + array);
+    }
+    return Array.getLength(array);
+  }
+
+  /*
+   * Records of a flat array, each type through its own kernel.
+   */
+  private static void batch(Object array, int[] offsets, int first, int last,
+                            Shuffle shuffle) {
+    switch (array) {
+      case Object[]  a -> batch(a, offsets, first, last, shuffle);
+      case int[]     a -> IntKernels.batch(a, offsets, first, last, shuffle);
+      case long[]    a -> LongKernels.batch(a, offsets, first, last, shuffle);
+      case double[]  a -> DoubleKernels.batch(a, offsets, first, last, shuffle);
+      case float[]   a -> FloatKernels.batch(a, offsets, first, last, shuffle);
+      case char[]    a -> CharKernels.batch(a, offsets, first, last, shuffle);
+      case byte[]    a -> ByteKernels.batch(a, offsets, first, last, shuffle);
+      case short[]   a -> ShortKernels.batch(a, offsets, first, last, shuffle);
+      case boolean[] a -> BooleanKernels.batch(a, offsets, first, last, shuffle);
+      default -> throw new IllegalArgumentException("Not an array: " + array);
+    }
+  }
+
+  /*
+   * Object version of the primitive batch kernel.
+   */
+  private static void batch(Object[] a, int[] offsets, int first, int last,
+                            Shuffle shuffle) {
+    int longest = 0;
+    for (int r = first; r < last; r++) {
+      longest = Math.max(longest, offsets[r + 1] - offsets[r]);
+    }
+    Object[] scratch = new Object[longest];
+    int skip = shuffle.out ? 1 : 0;
+    for (int r = first; r < last; r++) {
+      int from = offsets[r], to = offsets[r + 1];
+      if (to - from > 1) {
+        zip(a, from + skip, to, shuffle.folding, scratch);
+      }
+    }
+  }
+
+  /*
+   * Records of separate arrays, keeping the scratch array between records of
+   * the same type.
+   */
+  private static void records(Object[] arrays, int[] from, int[] to,
+                              int first, int last, Shuffle shuffle) {
+    Object scratch = null;
+    int skip = shuffle.out ? 1 : 0;
+    for (int r = first; r < last; r++) {
+      if (to[r] - from[r] > 1) {
+        int start = from[r] + skip;
+        scratch = scratchFor(arrays[r], to[r] - start, scratch);
+        zip(arrays[r], start, to[r], shuffle.folding, scratch);
+      }
+    }
+  }
+
+  private static Object scratchFor(Object array, int size, Object scratch) {
+    Class<?> type = array instanceof Object[] ? Object.class
+                                              : array.getClass()
+                                                     .getComponentType();
+    if (scratch != null && scratch.getClass().getComponentType() == type) {
+      int length = Array.getLength(scratch);
+      if (length >= size) {
+        return scratch;
+      }
+      size = Math.max(size, length << 1);
+    }
+    return Array.newInstance(type, size);
+  }
+
+  private static void zip(Object array, int from, int to, boolean folding,
+                          Object scratch) {
+    switch (array) {
+      case Object[]  a -> zip(a, from, to, folding, (Object[]) scratch);
+      case int[]     a -> IntKernels.zip(a, from, to, folding, (int[]) scratch);
+      case long[]    a -> LongKernels.zip(a, from, to, folding, (long[]) scratch);
+      case double[]  a -> DoubleKernels.zip(a, from, to, folding, (double[]) scratch);
+      case float[]   a -> FloatKernels.zip(a, from, to, folding, (float[]) scratch);
+      case char[]    a -> CharKernels.zip(a, from, to, folding, (char[]) scratch);
+      case byte[]    a -> ByteKernels.zip(a, from, to, folding, (byte[]) scratch);
+      case short[]   a -> ShortKernels.zip(a, from, to, folding, (short[]) scratch);
+      case boolean[] a -> BooleanKernels.zip(a, from, to, folding, (boolean[]) scratch);
+      default -> throw new IllegalArgumentException("Not an array: " + array);
+    }
+  }
+
+  /*
+   * Object version of the primitive zip kernel.
+   */
+  private static void zip(Object[] a, int from, int to, boolean folding,
+                          Object[] scratch) {
+    int size = to - from;
+    int halfSize = size / 2;
+    System.arraycopy(a, from, scratch, 0, size);
+    if (folding) {
+      for (int i = from, k = 0; k < halfSize; i += 2, k++) {
+        a[i] = scratch[size - 1 - k];
+        a[i + 1] = scratch[k];
+      }
+      if ((size & 1) != 0) {
+        a[to - 1] = scratch[halfSize];
+      }
+    } else {
+      for (int i = from, k = 0; k < halfSize; i += 2, k++) {
+        a[i] = scratch[halfSize + k];
+        a[i + 1] = scratch[k];
+      }
+    }
+  }
+
+  /*
+   * Number of elements in records [first, last).
+   */
+  @FunctionalInterface
+  private interface Sizes {
+    long elements(int first, int last);
+  }
+
+  /*
+   * Shuffles records [first, last).
+   */
+  @FunctionalInterface
+  private interface Records {
+    void shuffle(int first, int last);
+  }
+
+  private static void run(ForkJoinPool pool, int threshold, int count,
+                          Sizes sizes, Records records) {
+    if (pool == null || sizes.elements(0, count) < threshold) {
+      records.shuffle(0, count);
+    } else {
+      pool.invoke(new Split(0, count, threshold, sizes, records));
+    }
+  }
+
+  /*
+   * Halves a run of records until it is one record or below the threshold.
+   */
+  private static final class Split extends RecursiveAction {
+    private final int first, last, threshold;
+    private final Sizes sizes;
+    private final Records records;
+
+    Split(int first, int last, int threshold, Sizes sizes, Records records) {
+      this.first = first;
+      this.last = last;
+      this.threshold = threshold;
+      this.sizes = sizes;
+      this.records = records;
+    }
+
+    @Override
+    protected void compute() {
+      if (last - first < 2 || sizes.elements(first, last) < threshold) {
+        records.shuffle(first, last);
+      } else {
+        int mid = (first + last) >>> 1;
+        invokeAll(new Split(first, mid, threshold, sizes, records),
+                  new Split(mid, last, threshold, sizes, records));
+      }
+    }
+  }
+}
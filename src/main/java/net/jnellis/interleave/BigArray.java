@@ -0,0 +1,154 @@
+package net.jnellis.interleave;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * A fixed length array of objects with {@code long} indexes, held as a
+ * number of equal, power of 2 sized segments rather than one contiguous
+ * array. It can be longer than any java array, and since no segment is
+ * large, the garbage collector never needs a huge contiguous region for it
+ * (G1 allocates objects of half a region or more as humongous objects).
+ * <p>
+ * The in-place {@link Interleaver}s can interleave one, or two with each
+ * other, through {@link BigArrayInterleavers}. {@link Interleavers#DIRECT}
+ * has no {@code long} index version, so it isn't supported.
+ *
+ * <pre>
+ * {@code
+ *    BigArray<Sample> samples = new BigArray<>(3_000_000_000L);
+ *    samples.setAll(i -> new Sample(i));
+ *    BigArrayInterleavers.interleave(samples, Interleavers.SHUFFLE,
+ *                                    Shuffle.IN);
+ * }</pre>
+ *
+ * @param <E> type of element
+ */
+public final class BigArray<E> {
+
+  /**
+   * Log 2 of the default segment length, 64K elements, which is well below
+   * the smallest G1 humongous object.
+   */
+  public static final int DEFAULT_SEGMENT_SHIFT = 16;
+
+  private final Object[][] segments;
+  private final long length;
+  private final int shift;
+  private final int mask;
+
+  /**
+   * An array of nulls with segments of the default length.
+   *
+   * @param length number of elements
+   * @throws IllegalArgumentException if the length is negative
+   */
+  public BigArray(long length) {
+    this(length, DEFAULT_SEGMENT_SHIFT);
+  }
+
+  /**
+   * An array of nulls with segments of {@code 2^segmentShift} elements. The
+   * last segment is only as long as it needs to be.
+   *
+   * @param length       number of elements
+   * @param segmentShift log 2 of the segment length, 0 to 30
+   * @throws IllegalArgumentException if the length is negative, or needs
+   *                                  more segments than an array can hold
+   */
+  public BigArray(long length, int segmentShift) {
+    if (length < 0) {
+      throw new IllegalArgumentException("Negative length " + length);
+    }
+    if (segmentShift < 0 || segmentShift > 30) {
+      throw new IllegalArgumentException(
+          "Segment shift must be 0 to 30: " + segmentShift);
+    }
+    long count = (length + (1L << segmentShift) - 1) >>> segmentShift;
+    if (count > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException(
+          "Too many segments for length " + length);
+    }
+    this.length = length;
+    this.shift = segmentShift;
+    this.mask = (1 << segmentShift) - 1;
+    this.segments = new Object[(int) count][];
+    for (int s = 0; s < count; s++) {
+      long start = (long) s << segmentShift;
+      segments[s] = new Object[(int) Math.min(mask + 1L, length - start)];
+    }
+  }
+
+  /**
+   * Number of elements.
+   *
+   * @return length of the array
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Number of elements in each segment but the last.
+   *
+   * @return segment length
+   */
+  public int segmentLength() {
+    return mask + 1;
+  }
+
+  /**
+   * The element at an index.
+   *
+   * @param index the index
+   * @return the element
+   * @throws IndexOutOfBoundsException if the index is outside the array
+   */
+  @SuppressWarnings("unchecked")
+  public E get(long index) {
+    Objects.checkIndex(index, length);
+    return (E) segments[(int) (index >>> shift)][(int) index & mask];
+  }
+
+  /**
+   * Replaces the element at an index.
+   *
+   * @param index   the index
+   * @param element the new element
+   * @return the element replaced
+   * @throws IndexOutOfBoundsException if the index is outside the array
+   */
+  @SuppressWarnings("unchecked")
+  public E set(long index, E element) {
+    Objects.checkIndex(index, length);
+    Object[] segment = segments[(int) (index >>> shift)];
+    int i = (int) index & mask;
+    E old = (E) segment[i];
+    segment[i] = element;
+    return old;
+  }
+
+  /**
+   * Sets every element from its index, like
+   * {@link java.util.Arrays#setAll(Object[], java.util.function.IntFunction)}.
+   *
+   * @param generator element for each index
+   */
+  public void setAll(LongFunction<? extends E> generator) {
+    for (int s = 0; s < segments.length; s++) {
+      Object[] segment = segments[s];
+      long start = (long) s << shift;
+      for (int i = 0; i < segment.length; i++) {
+        segment[i] = generator.apply(start + i);
+      }
+    }
+  }
+
+  Object[][] segments() {
+    return segments;
+  }
+
+  int shift() {
+    return shift;
+  }
+}
@@ -0,0 +1,110 @@
+package net.jnellis.interleave;
+
+import java.util.Objects;
+
+/**
+ * Utility class to in-place interleave a {@link BigArray}, or two of them,
+ * with {@code long} indexes. These in-place algorithms work on big arrays:
+ * {@link Interleavers#SEQUENCE}, {@link Interleavers#RECURSIVE},
+ * {@link Interleavers#PERMUTATION}, {@link Interleavers#SHUFFLE} and
+ * {@link Interleavers#JOSEPHUS}. {@link Interleavers#SIMPLE} would need a
+ * second big array as long as the first, and {@link Interleavers#DIRECT} has
+ * no {@code long} index version, so neither is supported.
+ *
+ * <pre>
+ * {@code
+ *    BigArray<Long> a = new BigArray<>(3_000_000_000L);
+ *    a.setAll(Long::valueOf);
+ *    BigArrayInterleavers.interleave(a, Interleavers.PERMUTATION, Shuffle.IN);
+ * }</pre>
+ */
+public final class BigArrayInterleavers {
+
+  /**
+   * Utility class, no constructor.
+   */
+  private BigArrayInterleavers() {}
+
+  /**
+   * Interleave a whole big array.
+   *
+   * @param array       the elements
+   * @param interleaver one of the supported interleavers
+   * @param shuffle     type of shuffle
+   * @throws IllegalArgumentException if the interleaver isn't supported
+   */
+  public static void interleave(BigArray<?> array, Interleaver interleaver,
+                                Shuffle shuffle) {
+    interleave(array, 0, array.length(), interleaver, shuffle);
+  }
+
+  /**
+   * Interleave a section of a big array.
+   *
+   * @param array       the elements
+   * @param from        index of first element
+   * @param to          index of last element, exclusive
+   * @param interleaver one of the supported interleavers
+   * @param shuffle     type of shuffle
+   * @throws IllegalArgumentException  if the interleaver isn't supported
+   * @throws IndexOutOfBoundsException if the section is outside the array
+   */
+  public static void interleave(BigArray<?> array, long from, long to,
+                                Interleaver interleaver, Shuffle shuffle) {
+    LongIndexInterleavers.InShuffle algorithm = algorithm(interleaver);
+    Objects.checkFromToIndex(from, to, array.length());
+    LongIndexInterleavers.interleave(new BigArraySwapper(array, 0), from, to,
+                                     shuffle, algorithm);
+  }
+
+  /**
+   * Interleave a section of one big array with a section of another.
+   * Sections of different lengths are handled the same as two arrays, see
+   * {@link Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)}.
+   * Both sections may be in the same big array as long as they don't
+   * overlap.
+   *
+   * @param a           first big array
+   * @param fromA       index of first element of the first section
+   * @param toA         index of last element of the first section, exclusive
+   * @param b           second big array
+   * @param fromB       index of first element of the second section
+   * @param toB         index of last element of the second section, exclusive
+   * @param interleaver one of the supported interleavers
+   * @param shuffle     type of shuffle
+   * @param <T>         type of element
+   * @throws IllegalArgumentException  if the interleaver isn't supported
+   * @throws IndexOutOfBoundsException if a section is outside its array
+   */
+  public static <T> void interleave(BigArray<T> a, long fromA, long toA,
+                                    BigArray<T> b, long fromB, long toB,
+                                    Interleaver interleaver, Shuffle shuffle) {
+    LongIndexInterleavers.InShuffle algorithm = algorithm(interleaver);
+    Objects.checkFromToIndex(fromA, toA, a.length());
+    Objects.checkFromToIndex(fromB, toB, b.length());
+    long sizeB = toB - fromB;
+    long half = Math.min(toA - fromA, sizeB);
+    if (half > 0) {
+      LongIndexInterleavers.interleaveTwo(
+          new BigArraySwapper(a, fromA, half, b, fromB), half, sizeB,
+          shuffle, algorithm);
+    }
+  }
+
+  /*
+   * The long index version of an interleaver's algorithm.
+   */
+  private static LongIndexInterleavers.InShuffle algorithm(
+      Interleaver interleaver) {
+    return switch (interleaver) {
+      case SequenceInterleaver i -> LongIndexInterleavers::sequence;
+      case RecursiveInterleaver i -> LongIndexInterleavers::recursive;
+      case PermutationInterleaver i -> LongIndexInterleavers::permutation;
+      case ShufflePrimeInterleaver i -> LongIndexInterleavers::shufflePrime;
+      case JosephusInterleaver i -> LongIndexInterleavers::josephus;
+      default -> throw new IllegalArgumentException(
+          "No long index version of interleaver: "
+              + interleaver.getClass().getSimpleName());
+    };
+  }
+}
@@ -0,0 +1,88 @@
+package net.jnellis.interleave;
+
+/**
+ * {@link LongSwapper} over a section of a {@link BigArray}, indexed from the
+ * start of the section.
+ * <p>
+ * Two sections, possibly of different arrays, can be treated as one, the
+ * elements of the first followed by the elements of the second, to
+ * interleave them with each other.
+ */
+final class BigArraySwapper implements LongSwapper {
+
+  private final Object[][] first, second;
+  private final int shiftA, shiftB;
+  private final long maskA, maskB;
+  private final long fromA, fromB;
+  private final long split;
+  private Object held;
+  /* index in the segment last looked up */
+  private int at;
+
+  /**
+   * @param array the elements
+   * @param from  index of element 0 of the section
+   */
+  BigArraySwapper(BigArray<?> array, long from) {
+    this(array, from, Long.MAX_VALUE, array, from);
+  }
+
+  /**
+   * @param a     array of the first section
+   * @param fromA index of the first element of the first section
+   * @param split number of elements in the first section, the index of the
+   *              first element of the second
+   * @param b     array of the second section
+   * @param fromB index of the first element of the second section
+   */
+  BigArraySwapper(BigArray<?> a, long fromA, long split,
+                  BigArray<?> b, long fromB) {
+    this.first = a.segments();
+    this.shiftA = a.shift();
+    this.maskA = (1L << shiftA) - 1;
+    this.fromA = fromA;
+    this.split = split;
+    this.second = b.segments();
+    this.shiftB = b.shift();
+    this.maskB = (1L << shiftB) - 1;
+    this.fromB = fromB - split;
+  }
+
+  /*
+   * The segment holding an element, leaving its index in the segment in at.
+   */
+  private Object[] segment(long i) {
+    if (i < split) {
+      long k = fromA + i;
+      at = (int) (k & maskA);
+      return first[(int) (k >>> shiftA)];
+    }
+    long k = fromB + i;
+    at = (int) (k & maskB);
+    return second[(int) (k >>> shiftB)];
+  }
+
+  @Override
+  public void swap(long i, long j) {
+    Object[] si = segment(i);
+    int ai = at;
+    Object[] sj = segment(j);
+    Object t = si[ai];
+    si[ai] = sj[at];
+    sj[at] = t;
+  }
+
+  @Override
+  public void hold(long i) {
+    Object[] s = segment(i);
+    held = s[at];
+  }
+
+  @Override
+  public void exchange(long i) {
+    Object[] s = segment(i);
+    Object t = s[at];
+    s[at] = held;
+    held = t;
+  }
+}
@@ -0,0 +1,296 @@
+package net.jnellis.interleave;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Cache-aware decomposition of an in-shuffle into tiles that fit in cache,
+ * each interleaved by another {@link Interleaver}.
+ * <p>
+ * The cycle leader algorithms move every element once, but to addresses
+ * that jump all over the section, so once a section is much bigger than
+ * the cache nearly every move is a miss. Here a section is split the same
+ * way {@link ParallelInterleaver} splits it, on one thread: rotating the back
+ * of the first half past the front of the second leaves two in-shuffles of
+ * half the size, and halves are split again until they fit in a tile. The
+ * rotations are block swaps that stream through whole cache lines, and the
+ * tiles are interleaved entirely in cache. That costs a sequential pass over
+ * half the section for each halving, instead of a cache miss per element.
+ * <p>
+ * The tile size is the level 2 cache of the first cpu, read from
+ * {@code /sys/devices/system/cpu/cpu0/cache}, or
+ * {@link #DEFAULT_TILE_BYTES} where that isn't available. The system property
+ * {@value #TILE_PROPERTY} overrides it, and
+ * {@link Interleavers#blocked(Interleaver, int)} takes one for a single
+ * interleaver. Object references are counted as 4 bytes, as with compressed
+ * oops.
+ * <p>
+ * Two array sections are split into one in-shuffle per array as in
+ * {@link ParallelInterleaver}. Lists are interleaved by the wrapped
+ * algorithm directly.
+ *
+ * <pre>
+ * {@code
+ *    Interleaver il = Interleavers.blocked();
+ *    il.interleave(hugeArray, Shuffle.OUT);
+ * }</pre>
+ *
+ * @see Interleavers#blocked(Interleaver, int)
+ * @see Interleaver
+ */
+public final class BlockedInterleaver extends AbstractInterleaver {
+
+  /**
+   * System property with the tile size in bytes, overriding the probe.
+   */
+  public static final String TILE_PROPERTY = "net.jnellis.interleave.tileBytes";
+
+  /**
+   * Tile size in bytes when the cache sizes can't be read.
+   */
+  public static final int DEFAULT_TILE_BYTES = 1 << 18;
+
+  /**
+   * Tile size in bytes used by {@link Interleavers#blocked()}.
+   */
+  public static final int TILE_BYTES = tileBytes();
+
+  /* Bytes per object reference, assuming compressed oops */
+  static final int REFERENCE_BYTES = 4;
+
+  /* Longest run two arrays swap through one scratch array */
+  private static final int SWAP_CHUNK = 1 << 12;
+
+  private final AbstractInterleaver interleaver;
+  private final int tileBytes;
+
+  /**
+   * Use {@link Interleavers#blocked(Interleaver, int)}.
+   *
+   * @param interleaver interleaves each tile
+   * @param tileBytes   size of a tile in bytes
+   */
+  BlockedInterleaver(AbstractInterleaver interleaver, int tileBytes) {
+    this.interleaver = interleaver;
+    this.tileBytes = tileBytes;
+  }
+
+  @Override
+  protected void interleave(List<?> list) {
+    interleaver.interleave(list);
+  }
+
+  @Override
+  protected <T> void interleave(List<T> a, List<T> b) {
+    interleaver.interleave(a, b);
+  }
+
+  @Override
+  protected void interleave(Object[] array, int from, int to) {
+    split(array, false, from, to, tile(REFERENCE_BYTES));
+  }
+
+  @Override
+  protected <T> void interleave(T[] a, int fromA, int toA,
+                                T[] b, int fromB, int toB) {
+    int tile = tile(REFERENCE_BYTES);
+    if (2 * (toA - fromA) < tile) {
+      interleaver.interleave(a, fromA, toA, b, fromB, toB);
+    } else {
+      splitTwo(a, fromA, toA, b, fromB, toB, false, tile);
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    split(array, true, from, to, tile(width(array)));
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    int tile = tile(width(a));
+    if (2 * (toA - fromA) < tile) {
+      interleaver.interleavePrimitive(a, fromA, toA, b, fromB, toB);
+    } else {
+      splitTwo(a, fromA, toA, b, fromB, toB, true, tile);
+    }
+  }
+
+  /*
+   * Elements of a given width in a tile, at least 4 so a split always
+   * leaves two smaller halves.
+   */
+  private int tile(int width) {
+    return Math.max(4, tileBytes / width);
+  }
+
+  /*
+   * Bytes per element of a primitive array.
+   */
+  static int width(Object array) {
+    Class<?> type = array.getClass().getComponentType();
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == char.class || type == short.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private void split(Object array, boolean primitive, int from, int to,
+                     int tile) {
+    split(array, primitive, from, to, tile, (lo, hi) -> {
+      if (primitive) {
+        interleaver.interleavePrimitive(array, lo, hi);
+      } else {
+        interleaver.interleave((Object[]) array, lo, hi);
+      }
+    });
+  }
+
+  private void splitTwo(Object a, int fromA, int toA, Object b, int fromB,
+                        int toB, boolean primitive, int tile) {
+    int m = toA - fromA;
+    int back = (m + 1) / 2;
+    exchange(a, toA - back, b, fromB, back,
+             Array.newInstance(a.getClass().getComponentType(),
+                               Math.min(back, SWAP_CHUNK)));
+    split(a, primitive, fromA, toA, tile);
+    split(b, primitive, fromB + (m & 1), toB, tile);
+  }
+
+  /**
+   * In-shuffles a section of {@code [from, to)} by halving it until it fits
+   * in a tile. Sections of two or more elements that fit are passed on.
+   *
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   */
+  @FunctionalInterface
+  interface Tile {
+    void interleave(int from, int to);
+  }
+
+  /**
+   * In-shuffle of a section, halved until it fits in a tile. With n the size
+   * of the first half and h = n / 2, rotating A[h..n) B[0..h) right by h
+   * leaves A[0..h) B[0..h) in front of A[h..n) B[h..), two in-shuffles.
+   *
+   * @param array     an object or primitive array
+   * @param primitive whether the array is primitive
+   * @param from      starting index
+   * @param to        ending index (exclusive)
+   * @param tile      most elements in a tile, at least 4
+   * @param tiles     in-shuffles each tile
+   */
+  static void split(Object array, boolean primitive, int from, int to,
+                    int tile, Tile tiles) {
+    while (to - from > tile) {
+      int size = to - from, n = size / 2, h = n / 2;
+      if (primitive) {
+        PrimitiveArrayInShuffleInterleavers.rotate(array, from + h,
+                                                   from + n + h, h);
+      } else {
+        Util.rotate((Object[]) array, from + h, from + n + h, h);
+      }
+      split(array, primitive, from, from + 2 * h, tile, tiles);
+      from += 2 * h;
+    }
+    if (to - from > 1) {
+      tiles.interleave(from, to);
+    }
+  }
+
+  /**
+   * Swaps two ranges of the same length in arrays of the same type, a run
+   * at a time through a scratch array. For an in-shuffle of two sections of
+   * the same length m, swapping the back ceil(m/2) of A with the front of B
+   * leaves an in-shuffle of A and, from index m % 2 of B, an in-shuffle of
+   * the rest of B, see {@link ParallelInterleaver}.
+   *
+   * @param a       first array
+   * @param i       start of the range in {@code a}
+   * @param b       second array
+   * @param j       start of the range in {@code b}
+   * @param length  length of both ranges
+   * @param scratch array of the same type, at least one element long
+   */
+  static void exchange(Object a, int i, Object b, int j, int length,
+                       Object scratch) {
+    int run = Math.min(length, Array.getLength(scratch));
+    for (int k = 0; k < length; k += run) {
+      int r = Math.min(run, length - k);
+      System.arraycopy(a, i + k, scratch, 0, r);
+      System.arraycopy(b, j + k, a, i + k, r);
+      System.arraycopy(scratch, 0, b, j + k, r);
+    }
+  }
+
+  /*
+   * The tile size property, else the level 2 cache of cpu 0, else the
+   * default.
+   */
+  private static int tileBytes() {
+    Integer property = Integer.getInteger(TILE_PROPERTY);
+    if (property != null && property > 0) {
+      return property;
+    }
+    long l2 = cacheBytes(Path.of("/sys/devices/system/cpu/cpu0/cache"), 2);
+    return l2 > 0 ? (int) Math.min(l2, 1 << 30) : DEFAULT_TILE_BYTES;
+  }
+
+  /**
+   * Size of a data or unified cache at a level, from a directory laid out
+   * like {@code /sys/devices/system/cpu/cpu0/cache}, with an
+   * {@code index*} directory per cache holding its {@code level},
+   * {@code type} and {@code size}, such as {@code 2}, {@code Unified} and
+   * {@code 1024K}.
+   *
+   * @param dir   the cache directory
+   * @param level cache level
+   * @return size in bytes, or 0 if there is no such cache or it can't be
+   * read
+   */
+  static long cacheBytes(Path dir, int level) {
+    try (DirectoryStream<Path> caches = Files.newDirectoryStream(dir,
+                                                                 "index*")) {
+      for (Path cache : caches) {
+        if (Integer.parseInt(read(cache, "level")) == level
+            && !read(cache, "type").equals("Instruction")) {
+          return parseSize(read(cache, "size"));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // no sysfs, not linux, or a format we don't know
+    }
+    return 0;
+  }
+
+  private static String read(Path cache, String name) throws IOException {
+    return Files.readString(cache.resolve(name)).trim();
+  }
+
+  /*
+   * Sizes like 48K, 2048K or 32M.
+   */
+  private static long parseSize(String size) {
+    char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+    int shift = switch (unit) {
+      case 'K' -> 10;
+      case 'M' -> 20;
+      case 'G' -> 30;
+      default -> 0;
+    };
+    String digits = shift == 0 ? size : size.substring(0, size.length() - 1);
+    return Long.parseLong(digits) << shift;
+  }
+}
@@ -0,0 +1,528 @@
+package net.jnellis.interleave;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class to interleave two streams of fixed width records into a third,
+ * or split an interleaved stream back into two, without holding any of them
+ * in memory. Each channel goes through a large direct buffer, and the sources
+ * are read ahead on a background thread while the previous buffer is being
+ * interleaved, so memory use depends on the buffer size and not the size of
+ * the files.
+ * <p>
+ * An out-shuffle starts with a record of the first source and an in-shuffle
+ * with a record of the second, the same as interleaving two arrays. Folding
+ * shuffles take the second source in reverse, from its last record to its
+ * first, which needs a {@link SeekableByteChannel} such as a
+ * {@link FileChannel}. Records alternate until one source runs out, then the
+ * rest of the other follows.
+ * <p>
+ * Channels are read or written from their current position and are not
+ * closed, except by the {@link Path} versions that open them.
+ *
+ * <pre>
+ * {@code
+ *    // left.bin and right.bin hold 8 byte records
+ *    ChannelInterleavers.interleave(Path.of("left.bin"), Path.of("right.bin"),
+ *                                   Path.of("both.bin"), 8, Shuffle.OUT);
+ * }</pre>
+ */
+public final class ChannelInterleavers {
+
+  /**
+   * Default size in bytes of each buffer, rounded down to a whole number of
+   * records. Interleaving uses five of them, two for each source and one for
+   * the output, and splitting uses four.
+   */
+  public static final int BUFFER_SIZE = 1 << 22;
+
+  /**
+   * Utility class, no constructor.
+   */
+  private ChannelInterleavers() {}
+
+  /**
+   * Interleave two files of records into a third, replacing it if it exists.
+   *
+   * @param first      first source
+   * @param second     second source
+   * @param out        output file
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle
+   * @throws IOException if a file can't be read or written
+   */
+  public static void interleave(Path first, Path second, Path out,
+                                int recordSize, Shuffle shuffle)
+      throws IOException {
+    try (FileChannel a = FileChannel.open(first, StandardOpenOption.READ);
+         FileChannel b = FileChannel.open(second, StandardOpenOption.READ);
+         FileChannel o = FileChannel.open(out, StandardOpenOption.CREATE,
+                                          StandardOpenOption.WRITE,
+                                          StandardOpenOption.TRUNCATE_EXISTING)) {
+      interleave(a, b, o, recordSize, shuffle, BUFFER_SIZE);
+    }
+  }
+
+  /**
+   * Interleave two channels of records into a third.
+   *
+   * @param first      first source
+   * @param second     second source, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param out        output
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle
+   * @throws IOException if a channel can't be read or written
+   */
+  public static void interleave(ReadableByteChannel first,
+                                ReadableByteChannel second,
+                                WritableByteChannel out,
+                                int recordSize, Shuffle shuffle)
+      throws IOException {
+    interleave(first, second, out, recordSize, shuffle, BUFFER_SIZE);
+  }
+
+  /**
+   * Interleave two channels of records into a third with buffers of a given
+   * size.
+   *
+   * @param first      first source
+   * @param second     second source, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param out        output
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle
+   * @param bufferSize size in bytes of each buffer
+   * @throws IOException if a channel can't be read or written
+   */
+  public static void interleave(ReadableByteChannel first,
+                                ReadableByteChannel second,
+                                WritableByteChannel out,
+                                int recordSize, Shuffle shuffle,
+                                int bufferSize) throws IOException {
+    int capacity = capacity(recordSize, bufferSize);
+    SeekableByteChannel reversed = reversed(second, shuffle);
+    ExecutorService readers = readers();
+    try {
+      Source a = new Forward(first, recordSize, capacity, readers);
+      Source b = reversed != null
+          ? new Backward(reversed, recordSize, capacity, readers)
+          : new Forward(second, recordSize, capacity, readers);
+      Source lead = shuffle.out ? a : b;
+      Source follow = shuffle.out ? b : a;
+      Sink sink = new Sink(out, recordSize, capacity);
+      while (lead.next(sink) && follow.next(sink)) {
+      }
+      while (lead.next(sink)) {
+      }
+      while (follow.next(sink)) {
+      }
+      sink.flush();
+    } finally {
+      readers.shutdown();
+    }
+  }
+
+  /**
+   * Split a file of interleaved records into two files, replacing them if
+   * they exist.
+   *
+   * @param in         interleaved source
+   * @param first      first output
+   * @param second     second output
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle the source was interleaved with
+   * @throws IOException if a file can't be read or written
+   */
+  public static void deinterleave(Path in, Path first, Path second,
+                                  int recordSize, Shuffle shuffle)
+      throws IOException {
+    try (FileChannel i = FileChannel.open(in, StandardOpenOption.READ);
+         FileChannel a = FileChannel.open(first, StandardOpenOption.CREATE,
+                                          StandardOpenOption.WRITE,
+                                          StandardOpenOption.TRUNCATE_EXISTING);
+         FileChannel b = FileChannel.open(second, StandardOpenOption.CREATE,
+                                          StandardOpenOption.WRITE,
+                                          StandardOpenOption.TRUNCATE_EXISTING)) {
+      deinterleave(i, a, b, recordSize, shuffle, BUFFER_SIZE);
+    }
+  }
+
+  /**
+   * Split a channel of interleaved records into two channels.
+   *
+   * @param in         interleaved source, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param first      first output
+   * @param second     second output, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle the source was interleaved with
+   * @throws IOException if a channel can't be read or written
+   */
+  public static void deinterleave(ReadableByteChannel in,
+                                  WritableByteChannel first,
+                                  WritableByteChannel second,
+                                  int recordSize, Shuffle shuffle)
+      throws IOException {
+    deinterleave(in, first, second, recordSize, shuffle, BUFFER_SIZE);
+  }
+
+  /**
+   * Split a channel of interleaved records into two channels with buffers of
+   * a given size. Records go to each output in turn, so when there is an odd
+   * number of them the output that leads gets the extra one. That undoes
+   * {@link #interleave(ReadableByteChannel, ReadableByteChannel,
+   * WritableByteChannel, int, Shuffle, int)} whenever its sources differ in
+   * length by no more than that.
+   *
+   * @param in         interleaved source, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param first      first output
+   * @param second     second output, a {@link SeekableByteChannel} for
+   *                   folding shuffles
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle the source was interleaved with
+   * @param bufferSize size in bytes of each buffer
+   * @throws IOException if a channel can't be read or written
+   */
+  public static void deinterleave(ReadableByteChannel in,
+                                  WritableByteChannel first,
+                                  WritableByteChannel second,
+                                  int recordSize, Shuffle shuffle,
+                                  int bufferSize) throws IOException {
+    int capacity = capacity(recordSize, bufferSize);
+    SeekableByteChannel reversed = reversed(second, shuffle);
+    Sink b;
+    if (reversed != null) {
+      if (!(in instanceof SeekableByteChannel source)) {
+        throw new IllegalArgumentException(
+            "Folding shuffles need a seekable source to split");
+      }
+      long records = records(source, recordSize);
+      long count = shuffle.out ? records / 2 : records - records / 2;
+      b = new BackwardSink(reversed, recordSize, capacity,
+                           reversed.position() + count * recordSize);
+    } else {
+      b = new Sink(second, recordSize, capacity);
+    }
+    Sink a = new Sink(first, recordSize, capacity);
+    Sink lead = shuffle.out ? a : b;
+    Sink follow = shuffle.out ? b : a;
+    ExecutorService readers = readers();
+    try {
+      Source source = new Forward(in, recordSize, capacity, readers);
+      while (source.next(lead) && source.next(follow)) {
+      }
+    } finally {
+      readers.shutdown();
+    }
+    a.flush();
+    b.flush();
+  }
+
+  private static int capacity(int recordSize, int bufferSize) {
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("Record size out of range: " + recordSize);
+    }
+    if (bufferSize < recordSize) {
+      throw new IllegalArgumentException(
+          "Buffer size " + bufferSize + " is smaller than a record");
+    }
+    return bufferSize - bufferSize % recordSize;
+  }
+
+  /*
+   * The second channel when it has to be taken in reverse, otherwise null.
+   */
+  private static SeekableByteChannel reversed(Channel second, Shuffle shuffle) {
+    if (!shuffle.folding) {
+      return null;
+    }
+    if (second instanceof SeekableByteChannel seekable) {
+      return seekable;
+    }
+    throw new IllegalArgumentException(
+        "Folding shuffles need a seekable second channel");
+  }
+
+  private static long records(SeekableByteChannel ch, int recordSize)
+      throws IOException {
+    long bytes = ch.size() - ch.position();
+    if (bytes % recordSize != 0) {
+      throw new IllegalArgumentException(
+          bytes + " bytes is not a whole number of " + recordSize + " byte records");
+    }
+    return bytes / recordSize;
+  }
+
+  private static ExecutorService readers() {
+    return Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "interleave-read-ahead");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Records read a buffer at a time, with the next buffer filled in the
+   * background while this one is used.
+   */
+  private abstract static class Source {
+    final int recordSize;
+    private final ExecutorService readers;
+    ByteBuffer current;
+    private ByteBuffer spare;
+    private Future<ByteBuffer> ahead;
+
+    Source(int recordSize, int capacity, ExecutorService readers) {
+      this.recordSize = recordSize;
+      this.readers = readers;
+      current = ByteBuffer.allocateDirect(capacity).limit(0);
+      spare = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /* Called once the subclass is ready to read. */
+    void start() {
+      readAhead();
+    }
+
+    private void readAhead() {
+      ByteBuffer b = spare;
+      ahead = readers.submit(() -> fill(b));
+    }
+
+    /**
+     * Reads the next buffer full of records, flipped for reading.
+     *
+     * @param b buffer to fill
+     * @return the buffer, empty at the end of the records
+     * @throws IOException if the channel can't be read
+     */
+    abstract ByteBuffer fill(ByteBuffer b) throws IOException;
+
+    /**
+     * Copies the record at the front of the buffer to a sink and drops it.
+     *
+     * @param sink where the record goes
+     * @throws IOException if the sink can't be written
+     */
+    abstract void take(Sink sink) throws IOException;
+
+    /**
+     * Moves the next record to a sink.
+     *
+     * @param sink where the record goes
+     * @return false if there were no more records
+     * @throws IOException if a channel can't be read or written
+     */
+    final boolean next(Sink sink) throws IOException {
+      if (!current.hasRemaining()) {
+        if (ahead == null) {
+          return false;
+        }
+        ByteBuffer filled = await(ahead);
+        ahead = null;
+        if (!filled.hasRemaining()) {
+          return false;
+        }
+        spare = current;
+        current = filled;
+        if (filled.remaining() == filled.capacity()) {
+          readAhead();
+        }
+      }
+      take(sink);
+      return true;
+    }
+  }
+
+  /**
+   * Records from the channel's position to its end.
+   */
+  private static final class Forward extends Source {
+    private final ReadableByteChannel ch;
+
+    Forward(ReadableByteChannel ch, int recordSize, int capacity,
+            ExecutorService readers) {
+      super(recordSize, capacity, readers);
+      this.ch = ch;
+      start();
+    }
+
+    @Override
+    ByteBuffer fill(ByteBuffer b) throws IOException {
+      b.clear();
+      while (b.hasRemaining() && ch.read(b) >= 0) {
+      }
+      if (b.position() % recordSize != 0) {
+        throw new IllegalArgumentException(
+            "Source ends in a partial record of " + b.position() % recordSize + " bytes");
+      }
+      return b.flip();
+    }
+
+    @Override
+    void take(Sink sink) throws IOException {
+      int at = current.position();
+      sink.put(current, at);
+      current.position(at + recordSize);
+    }
+  }
+
+  /**
+   * Records from the end of the channel back to its position, read with
+   * positional reads and taken from the back of each buffer.
+   */
+  private static final class Backward extends Source {
+    private final SeekableByteChannel ch;
+    private final long start;
+    private long end;
+
+    Backward(SeekableByteChannel ch, int recordSize, int capacity,
+             ExecutorService readers) throws IOException {
+      super(recordSize, capacity, readers);
+      this.ch = ch;
+      start = ch.position();
+      end = start + records(ch, recordSize) * recordSize;
+      start();
+    }
+
+    @Override
+    ByteBuffer fill(ByteBuffer b) throws IOException {
+      long from = Math.max(start, end - b.capacity());
+      b.clear().limit((int) (end - from));
+      ch.position(from);
+      while (b.hasRemaining()) {
+        if (ch.read(b) < 0) {
+          throw new EOFException("Channel shrank while being read");
+        }
+      }
+      end = from;
+      return b.flip();
+    }
+
+    @Override
+    void take(Sink sink) throws IOException {
+      int at = current.limit() - recordSize;
+      sink.put(current, at);
+      current.limit(at);
+    }
+  }
+
+  /**
+   * Records written a buffer at a time.
+   */
+  private static class Sink {
+    final int recordSize;
+    final WritableByteChannel ch;
+    final ByteBuffer buffer;
+
+    Sink(WritableByteChannel ch, int recordSize, int capacity) {
+      this.ch = ch;
+      this.recordSize = recordSize;
+      buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param src buffer holding the record
+     * @param at  index of the record in {@code src}
+     * @throws IOException if the channel can't be written
+     */
+    void put(ByteBuffer src, int at) throws IOException {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      int p = buffer.position();
+      buffer.put(p, src, at, recordSize);
+      buffer.position(p + recordSize);
+    }
+
+    /**
+     * Writes out whatever records are buffered.
+     *
+     * @throws IOException if the channel can't be written
+     */
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        ch.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Records written from a known end of the channel back to its position,
+   * filling each buffer from the back.
+   */
+  private static final class BackwardSink extends Sink {
+    private final SeekableByteChannel seekable;
+    private long end;
+
+    BackwardSink(SeekableByteChannel ch, int recordSize, int capacity,
+                 long end) {
+      super(ch, recordSize, capacity);
+      this.seekable = ch;
+      this.end = end;
+      buffer.position(capacity);
+    }
+
+    @Override
+    void put(ByteBuffer src, int at) throws IOException {
+      if (buffer.position() == 0) {
+        flush();
+      }
+      int p = buffer.position() - recordSize;
+      buffer.put(p, src, at, recordSize);
+      buffer.position(p);
+    }
+
+    @Override
+    void flush() throws IOException {
+      end -= buffer.remaining();
+      seekable.position(end);
+      while (buffer.hasRemaining()) {
+        seekable.write(buffer);
+      }
+      buffer.position(buffer.capacity());
+    }
+  }
+
+  private static ByteBuffer await(Future<ByteBuffer> ahead) throws IOException {
+    try {
+      return ahead.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for read ahead");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      }
+      if (cause instanceof Error err) {
+        throw err;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
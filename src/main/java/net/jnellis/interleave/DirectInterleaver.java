@@ -0,0 +1,291 @@
+package net.jnellis.interleave;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static net.jnellis.interleave.Util.set;
+
+/**
+ * In-shuffle by a single cycle leader pass over the whole section, moving
+ * every element exactly once, with no rotations.
+ * <p>
+ * An in-shuffle of 2n elements moves the element at one based index i to
+ * index 2i mod m, with m = 2n + 1. {@link PermutationInterleaver} and
+ * {@link ShufflePrimeInterleaver} only use sizes whose cycle leaders are
+ * known, 3^k - 1 and shuffle primes, and rotate the rest of the section out
+ * of the way for later. Here the cycles of any size come from the
+ * factorization of m instead. For each divisor d &gt; 1 of m, the indexes
+ * with gcd(i, m) = m/d are (m/d)j for the j coprime to d, and doubling i
+ * doubles j mod d, so those indexes fall into phi(d)/ord_d(2) cycles each
+ * ord_d(2) long.
+ * <p>
+ * The leader of a cycle is its smallest j. Candidates are tried in order,
+ * each followed around its cycle only until a smaller index turns up, and
+ * a divisor is done once its leaders' cycles add up to phi(d). Nothing is
+ * stored but the prime factors of m. Finding leaders is all arithmetic,
+ * without touching the elements, and costs most for sizes where 2 has a
+ * small order, such as m = 2^k - 1, which have many short cycles.
+ * <p>
+ * The cycles jump all over the section, so sections much larger than the
+ * cache are better off with {@link Interleavers#blocked(Interleaver, int)}.
+ *
+ * @see Interleavers#DIRECT
+ */
+public class DirectInterleaver extends AbstractInterleaver {
+
+  /**
+   * No-arg constructor provided for use by {@link Interleavers} which creates
+   * single instances. Use {@link Interleavers#DIRECT}
+   */
+  DirectInterleaver() {}
+
+  @Override
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  protected void interleave(List<?> list) {
+    final List l = list;
+    cycles(list.size() / 2, i -> l.get(i - 1),
+           (i, obj) -> l.set(i - 1, obj));
+  }
+
+  @Override
+  protected <T> void interleave(List<T> a, List<T> b) {
+    final int size = a.size();
+    cycles(size, i -> i <= size ? a.get(i - 1) : b.get(i - 1 - size),
+           (int i, T obj) -> i <= size ? a.set(i - 1, obj)
+                                       : b.set(i - 1 - size, obj));
+  }
+
+  @Override
+  protected void interleave(Object[] array, int from, int to) {
+    final int base = from - 1;
+    cycles((to - from) / 2, i -> array[base + i],
+           (i, obj) -> set(array, base + i, obj));
+  }
+
+  @Override
+  protected <T> void interleave(T[] a, int fromA, int toA,
+                                T[] b, int fromB, int toB) {
+    final int size = toA - fromA;
+    final int baseA = fromA - 1, baseB = fromB - 1 - size;
+    cycles(size, i -> i <= size ? a[baseA + i] : b[baseB + i],
+           (int i, T obj) -> i <= size ? set(a, baseA + i, obj)
+                                       : set(b, baseB + i, obj));
+  }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    PrimitiveArrayInShuffleInterleavers.direct(array, from, to);
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    PrimitiveArrayInShuffleInterleavers.direct(a, fromA, toA, b, fromB, toB);
+  }
+
+  /*
+   * Walks every cycle of an in-shuffle of 2n elements, one based indexes.
+   */
+  private static <T> void cycles(int n, IntFunction<T> getter,
+                                 Setter<T> setter) {
+    final int mod = 2 * n + 1;
+    final Leaders leaders = new Leaders(n);
+    for (int leader; (leader = leaders.next()) != 0; ) {
+      int i = leader;
+      T held = getter.apply(leader);
+      do {
+        i = twice(i, mod);
+        held = setter.set(i, held);
+      } while (i != leader);
+    }
+  }
+
+  /**
+   * One based index 2i mod m, without overflow, division or a branch, which
+   * would be mispredicted half the time.
+   *
+   * @param i   index, less than {@code mod}
+   * @param mod modulus
+   * @return 2i mod m
+   */
+  static int twice(int i, int mod) {
+    int t = i - (mod - i);
+    return t + (t >> 31 & mod);
+  }
+
+  /*
+   * Distinct prime factors of an odd number, smallest first.
+   */
+  static int[] primeFactors(int m) {
+    return Arrays.stream(Primes.oddPrimeFactors(m))
+                 .mapToInt(p -> (int) p)
+                 .toArray();
+  }
+
+  /*
+   * Every prime that can divide phi(d) for a divisor d of a number with the
+   * given prime factors, the factors themselves and those of each p - 1.
+   */
+  private static int[] orderPrimes(int[] primes) {
+    IntStream.Builder all = IntStream.builder().add(2);
+    for (int p : primes) {
+      all.add(p);
+      int odd = (p - 1) >>> Integer.numberOfTrailingZeros(p - 1);
+      Arrays.stream(primeFactors(odd)).forEach(all);
+    }
+    return all.build().distinct().toArray();
+  }
+
+  /**
+   * The one based leader of every cycle of i -&gt; 2i mod (2n + 1), the
+   * in-shuffle of 2n elements, a divisor of 2n + 1 at a time. Callers walk
+   * the cycles in their own loop, so the walk of each element type stays
+   * monomorphic.
+   */
+  static final class Leaders {
+    private final int mod;
+    private final int[] primes, orderPrimes;
+    /* exponent of each prime in the current divisor, and in mod */
+    private final int[] exps, maxExps;
+    /* current divisor d, mod / d, phi(d) and its primes as a bit mask */
+    private int d = 1, s, mask;
+    private long phi;
+    /* indexes of d covered by the leaders so far, next candidate */
+    private long seen;
+    private int j;
+    private boolean done;
+
+    /**
+     * Leaders of an in-shuffle of 2n elements.
+     *
+     * @param n half the number of elements
+     */
+    Leaders(int n) {
+      this.mod = 2 * n + 1;
+      this.primes = primeFactors(mod);
+      this.orderPrimes = orderPrimes(primes);
+      this.exps = new int[primes.length];
+      this.maxExps = new int[primes.length];
+      for (int k = 0; k < primes.length; k++) {
+        for (int m = mod; m % primes[k] == 0; m /= primes[k]) {
+          maxExps[k]++;
+        }
+      }
+    }
+
+    /**
+     * The next leader. When 2 generates all the indexes of a divisor there
+     * is one cycle, led by 1, and nothing to search for.
+     *
+     * @return a one based leader, or 0 once there are no more
+     */
+    int next() {
+      while (seen == phi) {
+        if (!advance()) {
+          return 0;
+        }
+        if (order(d, phi, orderPrimes) == phi) {
+          seen = phi;
+          return s;
+        }
+      }
+      for (; ; j++) {
+        if (coprime(j, primes, mask)) {
+          int length = cycleLength(j, d);
+          if (length > 0) {
+            seen += length;
+            return s * j++;
+          }
+        }
+      }
+    }
+
+    /*
+     * Moves on to the next divisor d > 1 of mod, counting through the
+     * exponents of its primes like an odometer.
+     */
+    private boolean advance() {
+      int k = 0;
+      while (k < exps.length && exps[k] == maxExps[k]) {
+        exps[k++] = 0;
+      }
+      if (done || k == exps.length) {
+        done = true;
+        return false;
+      }
+      exps[k]++;
+      long dd = 1, ph = 1;
+      int bits = 0;
+      for (int t = 0; t < exps.length; t++) {
+        if (exps[t] > 0) {
+          int p = primes[t];
+          dd *= p;
+          ph *= p - 1;
+          for (int e = 1; e < exps[t]; e++) {
+            dd *= p;
+            ph *= p;
+          }
+          bits |= 1 << t;
+        }
+      }
+      d = (int) dd;
+      s = mod / d;
+      phi = ph;
+      mask = bits;
+      seen = 0;
+      j = 1;
+      return true;
+    }
+  }
+
+  /*
+   * Multiplicative order of 2 mod d, the smallest divisor t of phi(d) with
+   * 2^t = 1.
+   */
+  static long order(int d, long phi, int[] orderPrimes) {
+    long order = phi;
+    for (int q : orderPrimes) {
+      while (order % q == 0 && pow2(order / q, d) == 1) {
+        order /= q;
+      }
+    }
+    return order;
+  }
+
+  private static long pow2(long e, int d) {
+    long result = 1 % d, base = 2 % d;
+    for (; e > 0; e >>= 1, base = base * base % d) {
+      if ((e & 1) != 0) {
+        result = result * base % d;
+      }
+    }
+    return result;
+  }
+
+  private static boolean coprime(int j, int[] primes, int mask) {
+    for (; mask != 0; mask &= mask - 1) {
+      if (j % primes[Integer.numberOfTrailingZeros(mask)] == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Length of the doubling cycle of j mod d, or 0 if j isn't its smallest
+   * index.
+   */
+  private static int cycleLength(int j, int d) {
+    int i = j, length = 0;
+    do {
+      i = twice(i, d);
+      if (i < j) {
+        return 0;
+      }
+      length++;
+    } while (i != j);
+    return length;
+  }
+}
@@ -0,0 +1,179 @@
+package net.jnellis.interleave;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Interleaving with a fixed amount of extra memory, somewhere between
+ * {@link Interleavers#SIMPLE}, which copies the whole section, and the
+ * in-place algorithms, which copy nothing.
+ * <p>
+ * An in-shuffle only needs its first half copied out: each element of the
+ * second half is read before the write that would cover it. So a section
+ * of up to twice the scratch space is zipped through it directly with
+ * {@link System#arraycopy}. Larger sections are halved the way
+ * {@link BlockedInterleaver} halves them, by rotating the back of the first
+ * half past the front of the second, until each piece fits, which costs one
+ * sequential pass over half the section per halving. Two arrays swap the
+ * back of the first with the front of the second through the scratch space,
+ * then interleave each array on its own.
+ * <p>
+ * The scratch space is either a budget in bytes, allocated as needed on
+ * each call (object references counted as 4 bytes, as with compressed oops),
+ * or an array given by the caller. A given array is used for arrays of its
+ * own type, an {@code Object[]} for any object array, and its size in bytes
+ * is the budget for arrays of other types. With less than two elements of
+ * scratch space, or for lists, the in-place fallback interleaves everything.
+ * An interleaver with a given scratch array must not be used by more than
+ * one thread at a time.
+ *
+ * <pre>
+ * {@code
+ *    // 1% of an 800MB array of ints
+ *    Interleaver il = Interleavers.hybrid(8_000_000L);
+ *    il.interleave(ints, Shuffle.IN);
+ * }</pre>
+ *
+ * @see Interleavers#hybrid(long)
+ * @see Interleavers#hybrid(Object)
+ * @see Interleaver
+ */
+public final class HybridInterleaver extends AbstractInterleaver {
+
+  private final AbstractInterleaver fallback;
+  private final long maxExtraBytes;
+  private final Object scratch;
+
+  /**
+   * Use {@link Interleavers#hybrid(long)} or
+   * {@link Interleavers#hybrid(Object)}.
+   *
+   * @param fallback      in-place interleaver for when there isn't room
+   * @param maxExtraBytes most scratch space allocated, in bytes
+   * @param scratch       the caller's scratch array, or null
+   */
+  HybridInterleaver(AbstractInterleaver fallback, long maxExtraBytes,
+                    Object scratch) {
+    this.fallback = fallback;
+    this.maxExtraBytes = maxExtraBytes;
+    this.scratch = scratch;
+  }
+
+  @Override
+  protected void interleave(List<?> list) {
+    fallback.interleave(list);
+  }
+
+  @Override
+  protected <T> void interleave(List<T> a, List<T> b) {
+    fallback.interleave(a, b);
+  }
+
+  @Override
+  protected void interleave(Object[] array, int from, int to) {
+    Object s = scratchFor(array, (to - from) / 2);
+    if (s == null) {
+      fallback.interleave(array, from, to);
+    } else {
+      split(array, false, from, to, s);
+    }
+  }
+
+  @Override
+  protected <T> void interleave(T[] a, int fromA, int toA,
+                                T[] b, int fromB, int toB) {
+    Object s = scratchFor(a, (toA - fromA + 1) / 2);
+    if (s == null) {
+      fallback.interleave(a, fromA, toA, b, fromB, toB);
+    } else {
+      splitTwo(a, fromA, toA, b, fromB, toB, false, s);
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    Object s = scratchFor(array, (to - from) / 2);
+    if (s == null) {
+      fallback.interleavePrimitive(array, from, to);
+    } else {
+      split(array, true, from, to, s);
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    Object s = scratchFor(a, (toA - fromA + 1) / 2);
+    if (s == null) {
+      fallback.interleavePrimitive(a, fromA, toA, b, fromB, toB);
+    } else {
+      splitTwo(a, fromA, toA, b, fromB, toB, true, s);
+    }
+  }
+
+  /*
+   * Scratch space for an array, the caller's when it can hold its elements,
+   * else at most the budget and no more than wanted. Null when there is
+   * room for fewer than two elements.
+   */
+  private Object scratchFor(Object array, int wanted) {
+    Class<?> component = array.getClass().getComponentType();
+    long budget = maxExtraBytes;
+    if (scratch != null) {
+      if (scratch.getClass().getComponentType().isAssignableFrom(component)) {
+        return Array.getLength(scratch) >= 2 ? scratch : null;
+      }
+      budget = Array.getLength(scratch) * (long) width(scratch);
+    }
+    long elements = Math.min(wanted, budget / width(array));
+    Class<?> type = component.isPrimitive() ? component : Object.class;
+    return elements >= 2 ? Array.newInstance(type, (int) elements) : null;
+  }
+
+  private static int width(Object array) {
+    return array instanceof Object[] ? BlockedInterleaver.REFERENCE_BYTES
+                                     : BlockedInterleaver.width(array);
+  }
+
+  private static void split(Object array, boolean primitive, int from,
+                            int to, Object scratch) {
+    int tile = (int) Math.min(Integer.MAX_VALUE,
+                              2L * Array.getLength(scratch));
+    BlockedInterleaver.split(array, primitive, from, to, tile, (lo, hi) -> {
+          if (primitive) {
+            PrimitiveArrayInShuffleInterleavers.zipHalf(array, lo, hi,
+                                                        scratch);
+          } else {
+            zipHalf((Object[]) array, lo, hi, (Object[]) scratch);
+          }
+        });
+    if (!primitive) {
+      // don't keep the caller's elements alive through the scratch array
+      Arrays.fill((Object[]) scratch, null);
+    }
+  }
+
+  private static void splitTwo(Object a, int fromA, int toA, Object b,
+                               int fromB, int toB, boolean primitive,
+                               Object scratch) {
+    int m = toA - fromA;
+    int back = (m + 1) / 2;
+    BlockedInterleaver.exchange(a, toA - back, b, fromB, back, scratch);
+    split(a, primitive, fromA, toA, scratch);
+    split(b, primitive, fromB + (m & 1), toB, scratch);
+  }
+
+  /*
+   * Object version of the primitive zipHalf kernel.
+   */
+  private static void zipHalf(Object[] a, int from, int to,
+                              Object[] scratch) {
+    int halfSize = (to - from) / 2;
+    System.arraycopy(a, from, scratch, 0, halfSize);
+    for (int i = from, k = 0; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = scratch[k];
+    }
+  }
+}
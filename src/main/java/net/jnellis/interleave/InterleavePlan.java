@@ -0,0 +1,560 @@
+package net.jnellis.interleave;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The schedule of an in-place interleave of one size, worked out once and
+ * run on any number of collections of that size.
+ * <p>
+ * For a given size and {@link Shuffle}, the rounds of
+ * {@link PermutationInterleaver} and {@link ShufflePrimeInterleaver}, their
+ * rotations, powers of 3 or shuffle primes, cycle leaders and fastmod
+ * constants, are all fixed. Both walk cycles of the doubling permutation of
+ * a round once it has been rotated into place, so a plan holds each round
+ * as a rotation and the leaders of its cycles, and running it is nothing but
+ * rotating and walking. Rounds big enough to walk in lock-step keep their
+ * chunks as well.
+ * <p>
+ * Plans are immutable and can be run from any number of threads at once.
+ * {@link #of(int, Shuffle, Interleaver)} keeps the most recently used plans
+ * in a bounded cache shared by all threads, for services that see the same
+ * sizes again and again.
+ *
+ * <pre>
+ * {@code
+ *    InterleavePlan plan = InterleavePlan.of(1000, Shuffle.OUT,
+ *                                            Interleavers.SHUFFLE);
+ *    for (int[] record : records) {
+ *      plan.interleave(record, 0);
+ *    }
+ * }</pre>
+ *
+ * @see Interleaver
+ */
+public final class InterleavePlan {
+
+  /**
+   * Most plans kept by {@link #of(int, Shuffle, Interleaver)}.
+   */
+  public static final int CACHE_SIZE = 256;
+
+  private static final Map<Key, InterleavePlan> CACHE =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, InterleavePlan> e) {
+          return size() > CACHE_SIZE;
+        }
+      };
+
+  private final int size;
+  private final Shuffle shuffle;
+  /* first element shuffled, after an out-shuffle skips one */
+  private final int start;
+  private final Round[] rounds;
+
+  private InterleavePlan(int size, Shuffle shuffle, int start,
+                         Round[] rounds) {
+    this.size = size;
+    this.shuffle = shuffle;
+    this.start = start;
+    this.rounds = rounds;
+  }
+
+  /**
+   * A plan from the cache, compiled and added to it when missing. The least
+   * recently used plan is dropped once the cache holds {@link #CACHE_SIZE}.
+   *
+   * @param size        number of elements shuffled
+   * @param shuffle     type of shuffle
+   * @param interleaver {@link Interleavers#PERMUTATION},
+   *                    {@link Interleavers#SHUFFLE} or
+   *                    {@link Interleavers#JOSEPHUS}
+   * @return a plan for the size
+   * @throws IllegalArgumentException if there is no plan for the interleaver
+   *                                  or the size is negative
+   * @see #compile(int, Shuffle, Interleaver)
+   */
+  public static InterleavePlan of(int size, Shuffle shuffle,
+                                  Interleaver interleaver) {
+    Key key = new Key(size, shuffle, powersOf3(interleaver));
+    InterleavePlan plan;
+    synchronized (CACHE) {
+      plan = CACHE.get(key);
+    }
+    if (plan == null) {
+      // compiled outside the lock, a race only compiles the same plan twice
+      plan = compile(size, shuffle, key.powersOf3);
+      synchronized (CACHE) {
+        CACHE.put(key, plan);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Works out the schedule of an interleave, without caching it.
+   * {@link Interleavers#JOSEPHUS} finds the same shuffle primes as
+   * {@link Interleavers#SHUFFLE} and shares its plan.
+   *
+   * @param size        number of elements shuffled
+   * @param shuffle     type of shuffle
+   * @param interleaver {@link Interleavers#PERMUTATION},
+   *                    {@link Interleavers#SHUFFLE} or
+   *                    {@link Interleavers#JOSEPHUS}
+   * @return a plan for the size
+   * @throws IllegalArgumentException if there is no plan for the interleaver
+   *                                  or the size is negative
+   */
+  public static InterleavePlan compile(int size, Shuffle shuffle,
+                                       Interleaver interleaver) {
+    return compile(size, shuffle, powersOf3(interleaver));
+  }
+
+  private static boolean powersOf3(Interleaver interleaver) {
+    if (interleaver instanceof PermutationInterleaver) {
+      return true;
+    }
+    if (interleaver instanceof ShufflePrimeInterleaver
+        || interleaver instanceof JosephusInterleaver) {
+      return false;
+    }
+    throw new IllegalArgumentException(
+        "No plan for " + interleaver.getClass().getSimpleName());
+  }
+
+  private static InterleavePlan compile(int size, Shuffle shuffle,
+                                        boolean powersOf3) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Negative size " + size);
+    }
+    Objects.requireNonNull(shuffle);
+    int start = size > 1 && shuffle.out ? 1 : 0;
+    List<Round> rounds = new ArrayList<>();
+    int from = start;
+    while (size - from > 1) {
+      int n = size - from;
+      Round round = powersOf3 ? powerOf3Round(from, n) : shufflePrimeRound(from, n);
+      rounds.add(round);
+      from += round.mod - 1;
+    }
+    return new InterleavePlan(size, shuffle, start, rounds.toArray(new Round[0]));
+  }
+
+  /*
+   * Same as PermutationInterleaver, sections under 4 are a cycle mod 3.
+   */
+  private static Round powerOf3Round(int from, int n) {
+    if (n < 4) {
+      return Round.of(from, 0, 0, 3, new int[]{1}, null);
+    }
+    PermutationInterleaver.Constants c = PermutationInterleaver.Constants.from(n);
+    int[] leaders = new int[c.k()];
+    for (int j = 0; j < leaders.length; j++) {
+      leaders[j] = Util.POW3[j];
+    }
+    PermutationInterleaver.Chunks chunks =
+        2 * c.m() >= PermutationInterleaver.LOCKSTEP_THRESHOLD
+        ? PermutationInterleaver.Chunks.from(c, PermutationInterleaver.LOCKSTEP_CHUNK)
+        : null;
+    return Round.of(from, c.m() != c.n() ? c.m() : 0, c.n(), c.mod(), leaders,
+                    chunks);
+  }
+
+  /*
+   * Same as ShufflePrimeInterleaver, whose 2i + 1 index is the one based
+   * doubling cycle mod k + 1.
+   */
+  private static Round shufflePrimeRound(int from, int n) {
+    int midpt = n / 2;
+    int j2 = Util.findNextLowestJ2Prime(midpt);
+    int k = j2 * 2;
+    PermutationInterleaver.Chunks chunks =
+        k >= PermutationInterleaver.LOCKSTEP_THRESHOLD
+        ? ShufflePrimeInterleaver.chunks(k)
+        : null;
+    // rotating [j2, j2 + midpt) left by midpt - j2 is rotating right by j2
+    return Round.of(from, k != n ? j2 : 0, midpt, k + 1, new int[]{1}, chunks);
+  }
+
+  /**
+   * Number of elements this plan shuffles.
+   *
+   * @return size of collections this plan runs on
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Type of shuffle this plan does.
+   *
+   * @return the shuffle
+   */
+  public Shuffle shuffle() {
+    return shuffle;
+  }
+
+  /**
+   * Interleave a list of exactly {@link #size()} elements.
+   *
+   * @param list the list
+   * @throws IllegalArgumentException if the list is another size
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public void interleave(List<?> list) {
+    if (list.size() != size) {
+      throw new IllegalArgumentException(
+          "Plan is for " + size + " elements, not " + list.size());
+    }
+    List l = list;
+    if (shuffle.folding && size - start > 1) {
+      Collections.reverse(l.subList(start + (size - start) / 2, size));
+    }
+    for (Round r : rounds) {
+      if (r.m > 0) {
+        Util.rotate(l.subList(r.from + r.m, r.from + r.m + r.n), r.m);
+      }
+      final int base = r.from - 1;
+      walk(r, i -> l.get(base + i), (i, t) -> l.set(base + i, t));
+    }
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(Object[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    if (shuffle.folding && size - start > 1) {
+      Util.reverse(array, from + start + (size - start) / 2, from + size);
+    }
+    for (Round r : rounds) {
+      if (r.m > 0) {
+        Util.rotate(array, from + r.from + r.m, from + r.from + r.m + r.n,
+                    r.m);
+      }
+      final int base = from + r.from - 1;
+      walk(r, i -> array[base + i], (i, t) -> Util.set(array, base + i, t));
+    }
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(boolean[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(byte[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(char[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(short[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(int[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(long[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(float[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  /**
+   * Interleave {@link #size()} elements of an array starting at an index.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public void interleave(double[] array, int from) {
+    interleavePrimitive(array, array.length, from);
+  }
+
+  private void interleavePrimitive(Object array, int length, int from) {
+    Objects.checkFromIndexSize(from, size, length);
+    if (shuffle.folding && size - start > 1) {
+      PrimitiveArrayInShuffleInterleavers.reverse(
+          array, from + start + (size - start) / 2, from + size);
+    }
+    for (Round r : rounds) {
+      if (r.m > 0) {
+        PrimitiveArrayInShuffleInterleavers.rotate(
+            array, from + r.from + r.m, from + r.from + r.m + r.n, r.m);
+      }
+      int base = from + r.from - 1;
+      if (r.chunks != null) {
+        PrimitiveArrayInShuffleInterleavers.lockStep(array, base, r.mod,
+                                                     r.chunks);
+      } else {
+        PrimitiveArrayInShuffleInterleavers.cycles(array, base, r.mod,
+                                                   r.u64c, r.leaders);
+      }
+    }
+  }
+
+  /**
+   * Starts interleaving a list of exactly {@link #size()} elements, a slice
+   * at a time.
+   *
+   * @param list the list
+   * @return a task to step through
+   * @throws IllegalArgumentException if the list is another size
+   */
+  public InterleaveTask task(List<?> list) {
+    if (list.size() != size) {
+      throw new IllegalArgumentException(
+          "Plan is for " + size + " elements, not " + list.size());
+    }
+    return new InterleaveTask(this, InterleaveTask.swapper(list));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(Object[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, InterleaveTask.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(boolean[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, BooleanKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(byte[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, ByteKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(char[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, CharKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(short[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, ShortKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(int[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, IntKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(long[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, LongKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(float[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, FloatKernels.swapper(array, from));
+  }
+
+  /**
+   * Starts interleaving {@link #size()} elements of an array, a slice at a
+   * time.
+   *
+   * @param array the array
+   * @param from  index of the first element
+   * @return a task to step through
+   * @throws IndexOutOfBoundsException if the array is too short
+   */
+  public InterleaveTask task(double[] array, int from) {
+    Objects.checkFromIndexSize(from, size, array.length);
+    return new InterleaveTask(this, DoubleKernels.swapper(array, from));
+  }
+
+  /*
+   * First element shuffled, one when an out-shuffle skips the first.
+   */
+  int start() {
+    return start;
+  }
+
+  Round[] rounds() {
+    return rounds;
+  }
+
+  /*
+   * Walks the cycles of a round through a one based getter and setter.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> void walk(Round r, AbstractInterleaver.Getter<T> getter,
+                               AbstractInterleaver.Setter<T> setter) {
+    if (r.chunks != null) {
+      PermutationInterleaver.lockStep(r.mod, r.chunks,
+                                       i -> getter.get(i + 1),
+                                       (i, t) -> setter.set(i + 1, t));
+      return;
+    }
+    for (int leader : r.leaders) {
+      int i = leader;
+      T held = getter.get(leader);
+      do {
+        i = Util.fastmod(i * 2, r.u64c, r.mod);
+        held = setter.set(i, held);
+      } while (i != leader);
+    }
+  }
+
+  /**
+   * One round of a plan: the rotation that brings the second half of the
+   * round next to the first, then the doubling cycles of the round.
+   *
+   * @param from    first element of the round, relative to the section
+   * @param m       distance the {@code n} elements after the first
+   *                {@code m} are rotated right, 0 for no rotation
+   * @param n       number of elements rotated
+   * @param mod     modulus of the cycles, one more than the round size
+   * @param u64c    fastmod constant of the modulus
+   * @param leaders one based index each cycle starts at
+   * @param chunks  chunks to walk in lock-step, or null to walk the cycles
+   */
+  record Round(int from, int m, int n, int mod, long u64c,
+                       int[] leaders, PermutationInterleaver.Chunks chunks) {
+    static Round of(int from, int m, int n, int mod, int[] leaders,
+                    PermutationInterleaver.Chunks chunks) {
+      return new Round(from, m, n, mod,
+                       Long.divideUnsigned(-1L, mod) + 1L, leaders, chunks);
+    }
+  }
+
+  /*
+   * Cache key, JOSEPHUS and SHUFFLE share plans.
+   */
+  private record Key(int size, Shuffle shuffle, boolean powersOf3) {}
+}
@@ -0,0 +1,290 @@
+package net.jnellis.interleave;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * An in-place interleave that runs a slice at a time, for threads that can't
+ * be blocked for the whole of a large shuffle.
+ * <p>
+ * A task runs the schedule of an {@link InterleavePlan}. The rotations of
+ * each round are done as three reversals and the cycles are walked one
+ * element at a time, so {@link #step(int)} can stop after any number of
+ * moves, even in the middle of a cycle, and carry on from there on the next
+ * call. Nothing is copied aside: the only state kept between steps is a
+ * position in the schedule and the one element carried along a cycle.
+ * <p>
+ * The collection must not be touched by anything else until the task is
+ * done. A task is not thread safe, but may be stepped from different threads
+ * one after another.
+ *
+ * <pre>
+ * {@code
+ *    InterleaveTask task = InterleavePlan.of(array.length, Shuffle.OUT,
+ *                                            Interleavers.SHUFFLE)
+ *                                        .task(array, 0);
+ *    // once per turn of the event loop
+ *    if (!task.step(100_000)) {
+ *      reschedule();
+ *    }
+ * }</pre>
+ *
+ * @see InterleavePlan#task(Object[], int)
+ */
+public final class InterleaveTask {
+
+  private final LongSwapper swapper;
+  private final Op[] ops;
+  private final long total;
+  private long moved;
+  private volatile boolean cancelled;
+
+  /* current op */
+  private int op;
+  /* next pair of a reversal */
+  private int lo, hi;
+  /* next cycle leader and position in the cycle, 0 before it starts */
+  private int leader, at;
+
+  InterleaveTask(InterleavePlan plan, LongSwapper swapper) {
+    this.swapper = swapper;
+    List<Op> ops = new ArrayList<>();
+    int size = plan.size(), start = plan.start();
+    if (plan.shuffle().folding && size - start > 1) {
+      ops.add(new Reverse(start + (size - start) / 2, size));
+    }
+    for (InterleavePlan.Round r : plan.rounds()) {
+      if (r.m() > 0) {
+        // rotating right by m is reversing the whole, then both parts
+        int a = r.from() + r.m(), b = a + r.n();
+        ops.add(new Reverse(a, b));
+        ops.add(new Reverse(a, a + r.m()));
+        ops.add(new Reverse(a + r.m(), b));
+      }
+      ops.add(new Cycles(r.from() - 1, r.mod(), r.u64c(), r.leaders()));
+    }
+    this.ops = ops.toArray(new Op[0]);
+    long total = 0;
+    for (Op o : this.ops) {
+      total += o.elements();
+    }
+    this.total = total;
+    if (this.ops.length > 0) {
+      begin();
+    }
+  }
+
+  /**
+   * Moves up to a number of elements, or at least one pair so that every
+   * step makes progress.
+   *
+   * @param maxElementsMoved most elements written in this step
+   * @return true once the interleave is done
+   * @throws CancellationException if the task was cancelled
+   */
+  public boolean step(int maxElementsMoved) {
+    if (cancelled) {
+      throw new CancellationException();
+    }
+    long budget = Math.max(2, maxElementsMoved);
+    while (op < ops.length && budget > 0) {
+      long used = switch (ops[op]) {
+        case Reverse r -> reverse(budget);
+        case Cycles c -> cycles(c, budget);
+      };
+      budget -= used;
+      moved += used;
+      if (op < ops.length && finished(ops[op])) {
+        if (++op < ops.length) {
+          begin();
+        }
+      } else if (used == 0) {
+        break; // one element left, not enough for a pair
+      }
+    }
+    return op == ops.length;
+  }
+
+  /**
+   * Stops the task, leaving the collection partly shuffled. Later calls to
+   * {@link #step(int)} throw a {@link CancellationException}.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Whether the task was cancelled.
+   *
+   * @return true after {@link #cancel()}
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Whether the interleave is done.
+   *
+   * @return true once every element is in place
+   */
+  public boolean isDone() {
+    return op == ops.length;
+  }
+
+  /**
+   * Number of elements written so far.
+   *
+   * @return elements moved by all steps
+   */
+  public long moved() {
+    return moved;
+  }
+
+  /**
+   * Number of elements written by the whole interleave.
+   *
+   * @return elements moved once the task is done
+   */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * Fraction of the interleave done.
+   *
+   * @return between 0 and 1, 1 when done
+   */
+  public double progress() {
+    return total == 0 ? 1.0 : (double) moved / total;
+  }
+
+  private void begin() {
+    if (ops[op] instanceof Reverse r) {
+      lo = r.from;
+      hi = r.to - 1;
+    } else {
+      leader = 0;
+      at = 0;
+    }
+  }
+
+  private boolean finished(Op o) {
+    return switch (o) {
+      case Reverse r -> lo >= hi;
+      case Cycles c -> leader == c.leaders.length;
+    };
+  }
+
+  /*
+   * Swaps pairs of the current reversal, two elements each.
+   */
+  private long reverse(long budget) {
+    long used = 0;
+    while (lo < hi && used + 2 <= budget) {
+      swapper.swap(lo++, hi--);
+      used += 2;
+    }
+    return used;
+  }
+
+  /*
+   * Passes the held element along the cycles, one element each.
+   */
+  private long cycles(Cycles c, long budget) {
+    long used = 0;
+    while (leader < c.leaders.length && used < budget) {
+      int first = c.leaders[leader];
+      if (at == 0) {
+        at = first;
+        swapper.hold(c.base + at);
+      }
+      while (used < budget) {
+        at = Util.fastmod(at * 2, c.u64c, c.mod);
+        swapper.exchange(c.base + at);
+        used++;
+        if (at == first) {
+          at = 0;
+          leader++;
+          break;
+        }
+      }
+    }
+    return used;
+  }
+
+  /*
+   * One part of the schedule.
+   */
+  private sealed interface Op permits Reverse, Cycles {
+    long elements();
+  }
+
+  /*
+   * Reverses [from, to) of the section.
+   */
+  private record Reverse(int from, int to) implements Op {
+    @Override
+    public long elements() {
+      return (long) (to - from) / 2 * 2;
+    }
+  }
+
+  /*
+   * Doubling cycles mod {@code mod}, one based from {@code base + 1}.
+   */
+  private record Cycles(int base, int mod, long u64c, int[] leaders)
+      implements Op {
+    @Override
+    public long elements() {
+      return mod - 1;
+    }
+  }
+
+  static LongSwapper swapper(Object[] a, int from) {
+    return new LongSwapper() {
+      private Object held;
+
+      @Override
+      public void swap(long i, long j) {
+        Util.swap(a, from + (int) i, from + (int) j);
+      }
+
+      @Override
+      public void hold(long i) {
+        held = a[from + (int) i];
+      }
+
+      @Override
+      public void exchange(long i) {
+        int k = from + (int) i;
+        Object t = a[k];
+        a[k] = held;
+        held = t;
+      }
+    };
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static LongSwapper swapper(List<?> list) {
+    List l = list;
+    return new LongSwapper() {
+      private Object held;
+
+      @Override
+      public void swap(long i, long j) {
+        l.set((int) i, l.set((int) j, l.get((int) i)));
+      }
+
+      @Override
+      public void hold(long i) {
+        held = l.get((int) i);
+      }
+
+      @Override
+      public void exchange(long i) {
+        held = l.set((int) i, held);
+      }
+    };
+  }
+}
@@ -95,8 +95,11 @@ import java.util.RandomAccess;
  *   Ex. [1,2,3,4,5], [d,c,b,a] -> [1,a,2,b,5], [3,c,4,d]
  *   Ex. [1,2,3,4], [e,d,c,b,a] -> [1,a,2,b], [3,c,4,d,e]
  * </pre>
+ * <p>
+ * Primitive arrays are interleaved with the same behavior through the methods
+ * inherited from {@link PrimitiveInterleaver}.
  */
-public interface Interleaver {
+public interface Interleaver extends PrimitiveInterleaver {
 
   /**
    * Performs interleaving of the midpoint of this list with the head of the
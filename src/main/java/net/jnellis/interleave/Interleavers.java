@@ -1,8 +1,16 @@
 package net.jnellis.interleave;
 
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * A suite of algorithms to perform interleaving of one or two collections,
- * in place, without heap allocation.
+ * in place. Besides a few small objects per call, the in-place algorithms
+ * only allocate a scratch array of {@link Rotation#BUFFER_LIMIT} elements
+ * for rotations, once per thread. {@link #PERMUTATION} and {@link #SHUFFLE}
+ * also allocate the starting index, length and first element of each chunk
+ * of the cycles they walk in lock-step on arrays of {@code 2^22} or more
+ * elements, about one of each per 4096 elements.
  *
  * <pre>
  * {@code
@@ -62,6 +70,13 @@ public final class Interleavers {
    */
   public static final Interleaver SHUFFLE = new ShufflePrimeInterleaver();
 
+  /**
+   * Implementation of in-place interleaving that walks every cycle of the
+   * in-shuffle once, with no rotations, finding the cycle leaders of any size
+   * from the factors of 2n + 1, see {@link DirectInterleaver}.
+   */
+  public static final Interleaver DIRECT = new DirectInterleaver();
+
   /**
    * This implementation allocates new space equal to the
    * collection(s) size to perform interleaving. Single collections copy first,
@@ -71,4 +86,165 @@ public final class Interleavers {
   public static final Interleaver SIMPLE = new SimpleInterleaver();
 
   private Interleavers() {}
+
+  /**
+   * Splits interleaving into independent blocks that are interleaved at the
+   * same time on the common pool by the given interleaver, see
+   * {@link ParallelInterleaver}.
+   *
+   * @param interleaver interleaves each block, one of the interleavers here
+   * @return a parallel interleaver
+   * @see #parallel(Interleaver, ForkJoinPool, int)
+   */
+  public static Interleaver parallel(Interleaver interleaver) {
+    return parallel(interleaver, ForkJoinPool.commonPool(),
+                    ParallelInterleaver.THRESHOLD);
+  }
+
+  /**
+   * Splits interleaving into independent blocks that are interleaved at the
+   * same time in a given pool by the given interleaver, see
+   * {@link ParallelInterleaver}. The result is the same as the interleaver
+   * on its own.
+   *
+   * @param interleaver interleaves each block, one of the interleavers here
+   * @param pool        where blocks are interleaved
+   * @param threshold   size, in elements, below which blocks aren't split
+   * @return a parallel interleaver
+   * @throws IllegalArgumentException if the interleaver doesn't extend
+   *                                  {@link AbstractInterleaver}
+   */
+  public static Interleaver parallel(Interleaver interleaver,
+                                     ForkJoinPool pool, int threshold) {
+    if (!(interleaver instanceof AbstractInterleaver blocks)) {
+      throw new IllegalArgumentException(
+          "Can't split interleaving for " + interleaver.getClass());
+    }
+    return new ParallelInterleaver(blocks, Objects.requireNonNull(pool),
+                                   threshold);
+  }
+
+  /**
+   * {@link #PERMUTATION} on tiles the size of the level 2 cache, see
+   * {@link BlockedInterleaver}.
+   *
+   * @return a cache blocked interleaver
+   * @see #blocked(Interleaver, int)
+   */
+  public static Interleaver blocked() {
+    return blocked(PERMUTATION, BlockedInterleaver.TILE_BYTES);
+  }
+
+  /**
+   * Splits interleaving into tiles that fit in cache, each interleaved by
+   * the given interleaver, see {@link BlockedInterleaver}. The result is the
+   * same as the interleaver on its own.
+   *
+   * @param interleaver interleaves each tile, one of the interleavers here
+   * @param tileBytes   size of a tile in bytes
+   * @return a cache blocked interleaver
+   * @throws IllegalArgumentException if the interleaver doesn't extend
+   *                                  {@link AbstractInterleaver}, or the
+   *                                  tile size isn't positive
+   */
+  public static Interleaver blocked(Interleaver interleaver, int tileBytes) {
+    if (!(interleaver instanceof AbstractInterleaver tiles)) {
+      throw new IllegalArgumentException(
+          "Can't split interleaving for " + interleaver.getClass());
+    }
+    if (tileBytes <= 0) {
+      throw new IllegalArgumentException("Tile size must be positive: "
+                                             + tileBytes);
+    }
+    return new BlockedInterleaver(tiles, tileBytes);
+  }
+
+  /**
+   * Interleaves through at most a given number of bytes of scratch space,
+   * allocated on each call, see {@link HybridInterleaver}. Sections too big
+   * for it are halved in place until they fit, and with no room at all
+   * {@link #PERMUTATION} does the work. The result is the same as any other
+   * interleaver.
+   *
+   * @param maxExtraBytes most scratch space used by one call, in bytes
+   * @return a hybrid interleaver
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public static Interleaver hybrid(long maxExtraBytes) {
+    if (maxExtraBytes < 0) {
+      throw new IllegalArgumentException("Negative budget " + maxExtraBytes);
+    }
+    return new HybridInterleaver((AbstractInterleaver) PERMUTATION,
+                                 maxExtraBytes, null);
+  }
+
+  /**
+   * Interleaves through a scratch array given by the caller, see
+   * {@link HybridInterleaver}. The interleaver must not be used by more
+   * than one thread at a time.
+   *
+   * @param scratch an object or primitive array
+   * @return a hybrid interleaver
+   * @throws IllegalArgumentException if {@code scratch} isn't an array
+   */
+  public static Interleaver hybrid(Object scratch) {
+    if (scratch == null || !scratch.getClass().isArray()) {
+      throw new IllegalArgumentException("Not an array: " + scratch);
+    }
+    return new HybridInterleaver((AbstractInterleaver) PERMUTATION, 0, scratch);
+  }
+
+  /**
+   * {@link #PERMUTATION} walking the cycles of each round of at least
+   * {@link PermutationInterleaver#PARALLEL_THRESHOLD} elements in parallel
+   * on the common pool.
+   *
+   * @return a parallel permutation interleaver
+   * @see #parallelPermutation(ForkJoinPool, int)
+   */
+  public static Interleaver parallelPermutation() {
+    return parallelPermutation(ForkJoinPool.commonPool(),
+                               PermutationInterleaver.PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * {@link #PERMUTATION} walking the disjoint cycles of each round at the
+   * same time in a given pool, for object arrays, two arrays and primitive
+   * arrays. Rounds smaller than the threshold, and lists, are interleaved on
+   * the calling thread. The result is the same as {@link #PERMUTATION}.
+   *
+   * @param pool      where cycles are walked
+   * @param threshold smallest round, in elements, walked in parallel
+   * @return a parallel permutation interleaver
+   */
+  public static Interleaver parallelPermutation(ForkJoinPool pool,
+                                                int threshold) {
+    return new PermutationInterleaver(Objects.requireNonNull(pool), threshold);
+  }
+
+  /**
+   * {@link #SIMPLE} copying chunks of large arrays on the common pool.
+   *
+   * @return a parallel simple interleaver
+   * @see #parallelSimple(ForkJoinPool, int)
+   */
+  public static Interleaver parallelSimple() {
+    return parallelSimple(ForkJoinPool.commonPool(),
+                          SimpleInterleaver.PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * {@link #SIMPLE} copying chunks of arrays, two arrays and primitive arrays
+   * at the same time in a given pool, for both the copy out to new memory
+   * and the copy back. Sections smaller than the threshold, and lists, are
+   * interleaved on the calling thread. The result is the same as
+   * {@link #SIMPLE}.
+   *
+   * @param pool      where chunks are copied
+   * @param threshold smallest section, in elements, copied in parallel
+   * @return a parallel simple interleaver
+   */
+  public static Interleaver parallelSimple(ForkJoinPool pool, int threshold) {
+    return new SimpleInterleaver(Objects.requireNonNull(pool), threshold);
+  }
 }
@@ -0,0 +1,257 @@
+package net.jnellis.interleave;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * A bounded, lock-free queue that merges two streams into one in strict
+ * alternation, the streaming version of interleaving two collections.
+ * <p>
+ * Each stream has one producer thread and its own ring buffer; offers never
+ * wait on the other stream. One consumer thread takes elements in turn from
+ * the two rings, so if the stream whose turn it is has nothing yet, the
+ * consumer gets nothing, even when the other stream has elements waiting.
+ * Who goes first follows {@link Shuffle}: an in-shuffle starts with stream
+ * {@code b}, an out-shuffle with stream {@code a}, the same as
+ * {@link Interleaver#interleave(Object[], Object[], Shuffle)} does for
+ * arrays {@code a} and {@code b}. Folding shuffles would need the end of a
+ * stream first and aren't supported.
+ * <p>
+ * {@link #drainTo(Object[], int)} moves as many pairs as are ready with one
+ * read and one write of each ring's shared index, so a consumer can take
+ * whole batches into an array without synchronizing on each element.
+ *
+ * <pre>
+ * {@code
+ *    InterleavingQueue<Tick> q = new InterleavingQueue<>(1024, Shuffle.OUT);
+ *    // producer threads
+ *    while (!q.offerA(bid)) Thread.onSpinWait();
+ *    while (!q.offerB(ask)) Thread.onSpinWait();
+ *    // consumer thread, bid, ask, bid, ask...
+ *    int n = q.drainTo(batch, batch.length);
+ * }</pre>
+ *
+ * @param <E> type of element
+ */
+public final class InterleavingQueue<E> {
+
+  private final Ring a, b;
+  /* consumer only, whether stream b is next */
+  private boolean turnB;
+
+  /**
+   * A queue holding up to {@code capacity} elements of each stream.
+   *
+   * @param capacity elements buffered per stream, rounded up to a power of 2
+   * @param shuffle  {@link Shuffle#IN} to start with stream {@code b},
+   *                 {@link Shuffle#OUT} to start with {@code a}
+   * @throws IllegalArgumentException if the capacity isn't positive or is
+   *                                  more than 2^30, or the shuffle is
+   *                                  folding
+   */
+  public InterleavingQueue(int capacity, Shuffle shuffle) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be 1 to 2^30: "
+                                             + capacity);
+    }
+    if (shuffle.folding) {
+      throw new IllegalArgumentException("Streams can't be folded: "
+                                             + shuffle);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.a = new Ring(size);
+    this.b = new Ring(size);
+    this.turnB = !shuffle.out;
+  }
+
+  /**
+   * Adds an element to stream {@code a}. Only one thread may offer to each
+   * stream.
+   *
+   * @param e the element
+   * @return false if stream {@code a} is full
+   * @throws NullPointerException if the element is null
+   */
+  public boolean offerA(E e) {
+    return a.offer(Objects.requireNonNull(e));
+  }
+
+  /**
+   * Adds an element to stream {@code b}. Only one thread may offer to each
+   * stream.
+   *
+   * @param e the element
+   * @return false if stream {@code b} is full
+   * @throws NullPointerException if the element is null
+   */
+  public boolean offerB(E e) {
+    return b.offer(Objects.requireNonNull(e));
+  }
+
+  /**
+   * Takes the next element, from whichever stream's turn it is. Only one
+   * thread may take elements.
+   *
+   * @return the element, or null if that stream has none yet
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    Ring r = turnB ? b : a;
+    if (r.ready(1) == 0) {
+      return null;
+    }
+    turnB = !turnB;
+    return (E) r.take();
+  }
+
+  /**
+   * Takes up to {@code max} elements in turn into an array, stopping at the
+   * first turn whose stream has none yet. Only one thread may take
+   * elements.
+   *
+   * @param array where elements go, from index 0
+   * @param max   most elements taken
+   * @return number of elements taken
+   * @throws IndexOutOfBoundsException if {@code max} is more than the
+   *                                   length of the array
+   */
+  public int drainTo(E[] array, int max) {
+    Objects.checkFromIndexSize(0, max, array.length);
+    Ring first = turnB ? b : a, second = turnB ? a : b;
+    long readyFirst = first.ready(max - max / 2);
+    long readySecond = second.ready(max / 2);
+    // whole pairs, then the first of another pair when there's room
+    int pairs = (int) Math.min(max / 2, Math.min(readyFirst, readySecond));
+    int n = 2 * pairs;
+    boolean odd = n < max && readyFirst > pairs;
+    first.takeEvery(array, 0, pairs + (odd ? 1 : 0));
+    second.takeEvery(array, 1, pairs);
+    if (odd) {
+      turnB = !turnB;
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Number of elements that could be taken now without waiting for either
+   * producer. Any thread may ask, but the answer may already be out of date.
+   *
+   * @return elements ready in turn
+   */
+  public int size() {
+    boolean next = turnB;
+    long readyFirst = (next ? b : a).count();
+    long readySecond = (next ? a : b).count();
+    long pairs = Math.min(readyFirst, readySecond);
+    return (int) (2 * pairs + (readyFirst > pairs ? 1 : 0));
+  }
+
+  /**
+   * Number of elements each stream can hold.
+   *
+   * @return capacity per stream
+   */
+  public int capacity() {
+    return a.buffer.length;
+  }
+
+  /*
+   * Single producer, single consumer ring. The producer publishes the tail
+   * and the consumer the head with release stores, and each only reads the
+   * other's index again when its cached copy says the ring is full or
+   * empty.
+   */
+  private static final class Ring {
+    private static final VarHandle HEAD, TAIL;
+
+    static {
+      try {
+        MethodHandles.Lookup l = MethodHandles.lookup();
+        HEAD = l.findVarHandle(Ring.class, "head", long.class);
+        TAIL = l.findVarHandle(Ring.class, "tail", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private final Object[] buffer;
+    private final int mask;
+    /* next slot read, written by the consumer, and its copy of tail */
+    private long head, tailCache;
+    /* keeps the two threads' fields off the same cache line */
+    private long p0, p1, p2, p3, p4, p5, p6, p7;
+    /* next slot written, written by the producer, and its copy of head */
+    private long tail, headCache;
+
+    Ring(int size) {
+      this.buffer = new Object[size];
+      this.mask = size - 1;
+    }
+
+    boolean offer(Object e) {
+      long t = tail;
+      if (t - headCache == buffer.length) {
+        headCache = (long) HEAD.getAcquire(this);
+        if (t - headCache == buffer.length) {
+          return false;
+        }
+      }
+      buffer[(int) t & mask] = e;
+      TAIL.setRelease(this, t + 1);
+      return true;
+    }
+
+    /*
+     * Elements ready for the consumer, only looking at the tail again when
+     * fewer than wanted are known to be.
+     */
+    long ready(long wanted) {
+      long h = head;
+      if (tailCache - h < wanted) {
+        tailCache = (long) TAIL.getAcquire(this);
+      }
+      return tailCache - h;
+    }
+
+    /*
+     * Elements in the ring, from any thread.
+     */
+    long count() {
+      long h = (long) HEAD.getAcquire(this);
+      return Math.max(0, (long) TAIL.getAcquire(this) - h);
+    }
+
+    /*
+     * Takes one element, the consumer having checked there is one.
+     */
+    Object take() {
+      long h = head;
+      int i = (int) h & mask;
+      Object e = buffer[i];
+      buffer[i] = null;
+      HEAD.setRelease(this, h + 1);
+      return e;
+    }
+
+    /*
+     * Takes count elements into every other slot of an array from an index,
+     * then publishes the new head once.
+     */
+    void takeEvery(Object[] array, int from, int count) {
+      long h = head;
+      for (int k = 0, j = from; k < count; k++, j += 2) {
+        int i = (int) (h + k) & mask;
+        array[j] = buffer[i];
+        buffer[i] = null;
+      }
+      if (count > 0) {
+        HEAD.setRelease(this, h + count);
+      }
+    }
+  }
+}
@@ -44,7 +44,7 @@ public class JosephusInterleaver extends AbstractInterleaver {
       // rotate left the un-interleaved elements between k and midpt
       // into the back half of the list.
       if (k != midpt) {
-        Collections.rotate(list.subList(k, k + midpt), k - midpt);
+        Util.rotate(list.subList(k, k + midpt), k - midpt);
       }
       // restart the interleave process on the end bit of the list.
       list = list.subList(2 * k, size);
@@ -141,4 +141,15 @@ public class JosephusInterleaver extends AbstractInterleaver {
       interleave(b, fromB + 2 * k - size, toB); // single array interleave
     }
   }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    PrimitiveArrayInShuffleInterleavers.josephus(array, from, to);
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    PrimitiveArrayInShuffleInterleavers.josephus(a, fromA, toA, b, fromB, toB);
+  }
 }
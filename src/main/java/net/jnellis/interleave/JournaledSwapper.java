@@ -0,0 +1,277 @@
+package net.jnellis.interleave;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link LongSwapper} over fixed width records of a memory mapped file that
+ * can be killed at any point and resumed, using a small redo journal.
+ * <p>
+ * Writes are held back in a batch. When the batch is full the previous batch
+ * is forced to disk, the new batch is written to the journal along with the
+ * number of operations done so far and the held cycle leader, and only then
+ * are its writes made to the mapped file. Whatever the operating system has
+ * written back of the file, redoing the last journaled batch brings it to the
+ * state the journal describes.
+ * <p>
+ * The algorithms are deterministic, so resuming runs them again from the
+ * start with every operation before the journaled count skipped without
+ * touching memory, which only costs the index arithmetic. The journaled count
+ * stands for the block, cycle and step within the cycle the algorithm was on.
+ */
+final class JournaledSwapper implements LongSwapper {
+
+  private static final int MAGIC = 0x494C5631; // "ILV1"
+
+  private final MemorySegment segment;
+  private final int width;
+  private final Path journal;
+  private final String description;
+  private final int batchSize;
+  /*
+   * The batch, allocated once and reused by every checkpoint. Entry e is
+   * the record at index indexes[e], whose bytes are at e * width in records.
+   * slots is an open addressing table of entry + 1 by index, 0 when empty.
+   */
+  private final long[] indexes;
+  private final byte[] records;
+  private final int[] slots;
+  private final int shift;
+  private int entries;
+  private long ops;
+  private long resumeAt;
+  private byte[] held;
+  private byte[] spare;
+  private boolean holding;
+
+  /**
+   * Redoes the last batch in the journal, if there is one, and sets up to
+   * skip the operations it says are already done.
+   *
+   * @param segment     the mapped records
+   * @param recordSize  width of each record in bytes
+   * @param journal     journal file
+   * @param description what is being interleaved, a journal for anything
+   *                    else is refused
+   * @param batchSize   number of record writes between checkpoints
+   * @throws IOException if the journal can't be read or the mapped file
+   *                     can't be forced to disk
+   */
+  JournaledSwapper(MemorySegment segment, long recordSize, Path journal,
+                   String description, int batchSize) throws IOException {
+    this.segment = segment;
+    this.width = (int) recordSize;
+    this.journal = journal;
+    this.description = description;
+    this.batchSize = batchSize;
+    // a swap can add two records to a batch one short of full
+    int capacity = batchSize + 1;
+    this.indexes = new long[capacity];
+    this.records = new byte[Math.multiplyExact(capacity, width)];
+    this.slots = new int[Integer.highestOneBit(capacity) << 2];
+    this.shift = 64 - Integer.numberOfTrailingZeros(slots.length);
+    this.held = new byte[width];
+    this.spare = new byte[width];
+    if (Files.exists(journal)) {
+      resume();
+    }
+  }
+
+  private void resume() throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(journal)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IllegalStateException("Not an interleave journal: " + journal);
+      }
+      String journaled = in.readUTF();
+      if (!journaled.equals(description)) {
+        throw new IllegalStateException(
+            "Journal " + journal + " is for " + journaled + ", not " + description);
+      }
+      resumeAt = in.readLong();
+      holding = in.readBoolean();
+      if (holding) {
+        in.readFully(held);
+      }
+      for (int n = in.readInt(); n > 0; n--) {
+        long i = in.readLong();
+        in.readFully(spare);
+        MemorySegment.copy(MemorySegment.ofArray(spare), 0,
+                           segment, i * width, width);
+      }
+    }
+    segment.force();
+  }
+
+  /*
+   * True while replaying operations that were done before the journaled
+   * checkpoint.
+   */
+  private boolean skip() {
+    if (ops < resumeAt) {
+      ops++;
+      return true;
+    }
+    return false;
+  }
+
+  private void done() {
+    ops++;
+    if (entries >= batchSize) {
+      checkpoint();
+    }
+  }
+
+  /*
+   * Slot of the table for index i, the one holding it or the empty one where
+   * it goes.
+   */
+  private int slot(long i) {
+    int mask = slots.length - 1;
+    int s = (int) (i * 0x9E3779B97F4A7C15L >>> shift);
+    while (slots[s] != 0 && indexes[slots[s] - 1] != i) {
+      s = (s + 1) & mask;
+    }
+    return s;
+  }
+
+  /*
+   * Entry of the batch for the record at index i, added with the record's
+   * bytes from the file if it isn't there yet.
+   */
+  private int entry(long i) {
+    int s = slot(i);
+    if (slots[s] == 0) {
+      indexes[entries] = i;
+      MemorySegment.copy(segment, i * width,
+                         MemorySegment.ofArray(records),
+                         (long) entries * width, width);
+      slots[s] = ++entries;
+    }
+    return slots[s] - 1;
+  }
+
+  @Override
+  public void swap(long i, long j) {
+    if (skip())
+      return;
+    int a = entry(i) * width, b = entry(j) * width;
+    System.arraycopy(records, a, spare, 0, width);
+    System.arraycopy(records, b, records, a, width);
+    System.arraycopy(spare, 0, records, b, width);
+    done();
+  }
+
+  @Override
+  public void hold(long i) {
+    if (skip())
+      return;
+    int s = slot(i);
+    if (slots[s] == 0) {
+      MemorySegment.copy(segment, i * width, MemorySegment.ofArray(held), 0,
+                         width);
+    } else {
+      System.arraycopy(records, (slots[s] - 1) * width, held, 0, width);
+    }
+    holding = true;
+    done();
+  }
+
+  @Override
+  public void exchange(long i) {
+    if (skip())
+      return;
+    int a = entry(i) * width;
+    System.arraycopy(records, a, spare, 0, width);
+    System.arraycopy(held, 0, records, a, width);
+    byte[] t = held;
+    held = spare;
+    spare = t;
+    done();
+  }
+
+  /**
+   * Journals the current batch and then writes it to the mapped file.
+   */
+  void checkpoint() {
+    try {
+      segment.force();
+      Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+      try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                             StandardOpenOption.WRITE,
+                                             StandardOpenOption.TRUNCATE_EXISTING)) {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(ch)));
+        out.writeInt(MAGIC);
+        out.writeUTF(description);
+        out.writeLong(ops);
+        out.writeBoolean(holding);
+        if (holding) {
+          out.write(held);
+        }
+        out.writeInt(entries);
+        for (int e = 0; e < entries; e++) {
+          out.writeLong(indexes[e]);
+          out.write(records, e * width, width);
+        }
+        out.flush();
+        ch.force(true);
+      }
+      Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    MemorySegment batch = MemorySegment.ofArray(records);
+    for (int e = 0; e < entries; e++) {
+      MemorySegment.copy(batch, (long) e * width,
+                         segment, indexes[e] * width, width);
+    }
+    Arrays.fill(slots, 0);
+    entries = 0;
+  }
+
+  /*
+   * Makes the rename of the journal durable, which only matters if the
+   * machine goes down rather than just the process. Not every platform can
+   * open a directory, those are left to the file system.
+   */
+  private void syncDirectory() {
+    Path dir = journal.toAbsolutePath().getParent();
+    try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+      ch.force(true);
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * Writes out the last batch, forces the file to disk and removes the
+   * journal.
+   *
+   * @throws IOException if the journal can't be removed
+   */
+  void finish() throws IOException {
+    if (ops < resumeAt) {
+      throw new IllegalStateException(
+          "Journal " + journal + " is ahead of the interleave it is for");
+    }
+    if (entries > 0) {
+      checkpoint();
+    }
+    segment.force();
+    Files.deleteIfExists(journal);
+  }
+}
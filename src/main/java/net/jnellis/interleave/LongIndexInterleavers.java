@@ -0,0 +1,298 @@
+package net.jnellis.interleave;
+
+/**
+ * In-shuffle algorithms with {@code long} indexes for collections larger than
+ * an array can be, such as off-heap memory segments or a {@link BigArray}.
+ * They mirror the {@code Object[]} implementations of
+ * {@link SequenceInterleaver}, {@link RecursiveInterleaver},
+ * {@link PermutationInterleaver}, {@link ShufflePrimeInterleaver} and
+ * {@link JosephusInterleaver} using the 64-bit versions of the {@link Util}
+ * functions, and need nothing but swaps. {@link Interleavers#DIRECT} has no
+ * {@code long} index version, so it isn't supported.
+ * <p>
+ * Rotations are done by reversal, which only needs swaps and walks through
+ * memory sequentially.
+ */
+final class LongIndexInterleavers {
+
+  private LongIndexInterleavers() {}
+
+  /**
+   * A {@code long} index in-shuffle algorithm.
+   */
+  @FunctionalInterface
+  interface InShuffle {
+    void interleave(LongSwapper s, long from, long to);
+  }
+
+  /**
+   * Converts out and folding shuffles to an in-shuffle the same way
+   * {@link AbstractInterleaver} does for arrays, then runs the algorithm.
+   *
+   * @param s         element access
+   * @param from      starting index
+   * @param to        ending index (exclusive)
+   * @param shuffle   type of shuffle
+   * @param algorithm in-shuffle algorithm
+   */
+  static void interleave(LongSwapper s, long from, long to, Shuffle shuffle,
+                         InShuffle algorithm) {
+    long size = to - from;
+    if (size > 1) {
+      if (shuffle.out) {
+        from++;
+        size--;
+      }
+      if (shuffle.folding) {
+        reverse(s, from + (size / 2), to);
+      }
+      algorithm.interleave(s, from, to);
+    }
+  }
+
+  /**
+   * Interleaves two sections the same way {@link AbstractInterleaver} does
+   * two arrays. The swapper indexes the first {@code half} elements of the
+   * first section followed by all of the second section, where {@code half}
+   * is the length of the shorter of the two. Elements of the longer section
+   * past that are left alone.
+   *
+   * @param s         element access
+   * @param half      length of the shorter section
+   * @param sizeB     length of the second section
+   * @param shuffle   type of shuffle
+   * @param algorithm in-shuffle algorithm
+   */
+  static void interleaveTwo(LongSwapper s, long half, long sizeB,
+                            Shuffle shuffle, InShuffle algorithm) {
+    if (half > 0) {
+      if (shuffle.folding) {
+        // rotate non-interleaved items to the back
+        rotate(s, half, half + sizeB, half - sizeB);
+        // reverse the rest
+        reverse(s, half, half + half);
+      }
+      if (shuffle.out) {
+        if (half > 1) {
+          algorithm.interleave(s, 1, half + half - 1);
+        }
+      } else {
+        algorithm.interleave(s, 0, half + half);
+      }
+    }
+  }
+
+  /**
+   * Reverses elements in a section.
+   *
+   * @param s    element access
+   * @param from the starting point
+   * @param to   exclusive end point
+   */
+  static void reverse(LongSwapper s, long from, long to) {
+    for (long i = from, j = to - 1; i < j; i++, j--) {
+      s.swap(i, j);
+    }
+  }
+
+  /**
+   * Rotate elements in a section like
+   * {@link Util#rotate(Object[], int, int, int, Rotation)} with
+   * {@link Rotation#REVERSAL}.
+   *
+   * @param s        element access
+   * @param from     starting index to rotate
+   * @param to       ending index to rotate, exclusive
+   * @param distance distance to rotate
+   */
+  static void rotate(LongSwapper s, long from, long to, long distance) {
+    long size = to - from;
+    if (size == 0)
+      return;
+    long dist = distance % size;
+    if (dist < 0)
+      dist += size;
+    if (dist == 0)
+      return;
+    reverse(s, from, to - dist);
+    reverse(s, to - dist, to);
+    reverse(s, from, to);
+  }
+
+  /**
+   * In-shuffle by rotation and permutation.
+   *
+   * @param s    element access
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see PermutationInterleaver
+   */
+  static void permutation(LongSwapper s, long from, long to) {
+    while (to - from > 1) {
+      final long size = to - from;
+      if (size < 4) {
+        s.swap(from, from + 1);
+        break;
+      }
+      // same as PermutationInterleaver.Constants
+      final long n = size / 2;
+      final int k = Util.ilog3(size);
+      final long mod = Util.POW3_LONG[k];
+      final long m = (mod - 1) >> 1;
+      if (m != n) {
+        rotate(s, from + m, from + m + n, m);
+      }
+      final long[] c = Util.fastmodConstant(mod);
+      for (int j = 0; j < k; j++) {
+        final long startIdx = Util.POW3_LONG[j];
+        long i = startIdx;
+        s.hold(from + startIdx - 1);
+        do {
+          i = Util.fastmod(i * 2, c[0], c[1], mod);
+          s.exchange(from + i - 1);
+        } while (i != startIdx);
+      }
+      from += 2 * m;
+    }
+  }
+
+  /**
+   * In-shuffle by shuffle prime cycles.
+   *
+   * @param s    element access
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see ShufflePrimeInterleaver
+   */
+  static void shufflePrime(LongSwapper s, long from, long to) {
+    while (to - from > 1) {
+      final long size = to - from;
+      final long midpt = size / 2;
+      final long j2 = Util.findNextLowestJ2Prime(midpt);
+      final long k = j2 * 2;
+      if (k != size) {
+        rotate(s, from + j2, from + j2 + midpt, j2 - midpt);
+      }
+      final long mod = k + 1;
+      final long[] c = Util.fastmodConstant(mod);
+      long idx = 0;
+      s.hold(from);
+      for (long i = 0; i < k; i++) {
+        idx = Util.fastmod(2 * idx + 1, c[0], c[1], mod);
+        s.exchange(from + idx);
+      }
+      from += k;
+    }
+  }
+
+  /**
+   * In-shuffle by swapping into the second half and unscrambling it.
+   *
+   * @param s    element access
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SequenceInterleaver
+   */
+  static void sequence(LongSwapper s, long from, long to) {
+    final long size = to - from;
+    long i = 0;
+    long midpt = size / 2;
+    while (i < size - 1) {
+      // re-align start of shuffle to an even index.
+      if ((i & 1) == 1) {
+        i++;
+      }
+      final long base = i;
+      for (; i < midpt; i++) {
+        s.swap(from + i, from + midpt + Util.a025480(i - base));
+      }
+      final long swapCnt = (i - base) - ((i - base) >> 1);
+      for (long j = 0; j < swapCnt - 1; j++) {
+        long k = unshuffle(j, i - base);
+        if (j != k) {
+          s.swap(from + midpt + j, from + midpt + k);
+        }
+      }
+      midpt += swapCnt;
+    }
+  }
+
+  /*
+   * 64-bit version of SequenceInterleaver.unshuffle
+   */
+  private static long unshuffle(long j, long size) {
+    long i = j;
+    do {
+      i = Util.a025480((size >> 1) + i);
+    } while (i < j);
+    return i;
+  }
+
+  /**
+   * In-shuffle by power of 2 sections, unscrambled recursively.
+   *
+   * @param s    element access
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see RecursiveInterleaver
+   */
+  static void recursive(LongSwapper s, long from, long to) {
+    while (to - from > 1) {
+      final long size = to - from;
+      final long midpt = size / 2;
+      final long k = Long.highestOneBit(midpt);
+      if (k != midpt) {
+        rotate(s, from + k, from + k + midpt, k - midpt);
+      }
+      long base = 0;
+      long m = k;
+      while (base < 2 * k - 1) {
+        final long fb = from + base;
+        for (long i = 0; i < m; i++) {
+          s.swap(fb + i, fb + m + Util.a025480(i));
+        }
+        for (long j = 1; j <= m / 4; j <<= 1) {
+          if (j < 2) {
+            s.swap(fb + m, fb + m + 1);
+          } else {
+            recursive(s, fb + m, fb + m + 2 * j);
+          }
+        }
+        base += m;
+        m /= 2;
+      }
+      from += 2 * k;
+    }
+  }
+
+  /**
+   * In-shuffle by swapping into the second half and unscrambling it along a
+   * Josephus_2 prime cycle.
+   *
+   * @param s    element access
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see JosephusInterleaver
+   */
+  static void josephus(LongSwapper s, long from, long to) {
+    while (to - from > 1) {
+      final long midpt = (to - from) / 2;
+      final long k = Util.findNextLowestJ2Prime(midpt);
+      for (long i = 0; i < k; i++) {
+        s.swap(from + i, from + midpt + Util.a025480(i));
+      }
+      // the cycle trailer, each element pulled back one step along the cycle
+      final long offset = from + midpt;
+      long trailer = 0;
+      for (long i = 0; i < k - 1; i++) {
+        long next = Util.a025480(k + trailer);
+        s.swap(offset + trailer, offset + next);
+        trailer = next;
+      }
+      if (k != midpt) {
+        rotate(s, from + k, from + k + midpt, k - midpt);
+      }
+      from += 2 * k;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package net.jnellis.interleave;
+
+/**
+ * Element access by 64-bit index for {@link LongIndexInterleavers}, which
+ * only ever swap two elements or pass a cycle leader along. The leader is
+ * held by the swapper so that elements of any width can be moved without
+ * boxing them.
+ */
+interface LongSwapper {
+
+  /**
+   * Swaps the elements at two indexes.
+   *
+   * @param i first index
+   * @param j other index
+   */
+  void swap(long i, long j);
+
+  /**
+   * Copies the element at an index into the held slot.
+   *
+   * @param i index
+   */
+  void hold(long i);
+
+  /**
+   * Exchanges the element at an index with the held element.
+   *
+   * @param i index
+   */
+  void exchange(long i);
+}
@@ -0,0 +1,182 @@
+package net.jnellis.interleave;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.MemorySession;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Utility class to interleave fixed width records of a file in place, with no
+ * second copy of it on disk. The file is memory mapped and interleaved by one
+ * of the cycle leader algorithms of {@link SegmentInterleavers}.
+ * <p>
+ * Interleaving a multi-gigabyte file takes a while, so progress is
+ * checkpointed to a small journal file next to it. If the process is killed,
+ * calling the same method again on the same file resumes from the last
+ * checkpoint instead of starting over, or making a mess of the file. The
+ * journal is removed once interleaving finishes.
+ *
+ * <pre>
+ * {@code
+ *    // 16 byte records, the second half of the file becomes every other one
+ *    MappedFileInterleavers.shufflePrime(Path.of("records.bin"), 16, Shuffle.OUT);
+ * }</pre>
+ */
+public final class MappedFileInterleavers {
+
+  /**
+   * Approximate number of bytes of records written between checkpoints.
+   */
+  public static final int CHECKPOINT_BYTES = 1 << 24;
+
+  /* A batch holds at least two records in one array */
+  private static final int MAX_RECORD_SIZE = 1 << 30;
+
+  /**
+   * Utility class, no constructor.
+   */
+  private MappedFileInterleavers() {}
+
+  /**
+   * The journal file used for a file when one isn't given, the same name
+   * with {@code .journal} appended.
+   *
+   * @param file the file being interleaved
+   * @return its journal file
+   */
+  public static Path journalFor(Path file) {
+    return file.resolveSibling(file.getFileName() + ".journal");
+  }
+
+  /**
+   * Interleave all the records of a file by rotation and permutation.
+   *
+   * @param file       the file
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle
+   * @throws IOException if the file or its journal can't be read or written
+   * @see SegmentInterleavers#permutation(MemorySegment, long, Shuffle)
+   */
+  public static void permutation(Path file, long recordSize, Shuffle shuffle)
+      throws IOException {
+    permutation(file, journalFor(file), recordSize, 0,
+                records(file, recordSize), shuffle);
+  }
+
+  /**
+   * Interleave a section of the records of a file by rotation and
+   * permutation.
+   *
+   * @param file       the file
+   * @param journal    where to checkpoint progress
+   * @param recordSize width of each record in bytes
+   * @param from       index of first record
+   * @param to         index of last record, exclusive
+   * @param shuffle    type of shuffle
+   * @throws IOException if the file or its journal can't be read or written
+   * @see SegmentInterleavers#permutation(MemorySegment, long, long, long, Shuffle)
+   */
+  public static void permutation(Path file, Path journal, long recordSize,
+                                 long from, long to, Shuffle shuffle)
+      throws IOException {
+    interleave(file, journal, recordSize, from, to, shuffle, "permutation",
+               LongIndexInterleavers::permutation, batchSize(recordSize));
+  }
+
+  /**
+   * Interleave all the records of a file by shuffle prime cycles.
+   *
+   * @param file       the file
+   * @param recordSize width of each record in bytes
+   * @param shuffle    type of shuffle
+   * @throws IOException if the file or its journal can't be read or written
+   * @see SegmentInterleavers#shufflePrime(MemorySegment, long, Shuffle)
+   */
+  public static void shufflePrime(Path file, long recordSize, Shuffle shuffle)
+      throws IOException {
+    shufflePrime(file, journalFor(file), recordSize, 0,
+                 records(file, recordSize), shuffle);
+  }
+
+  /**
+   * Interleave a section of the records of a file by shuffle prime cycles.
+   *
+   * @param file       the file
+   * @param journal    where to checkpoint progress
+   * @param recordSize width of each record in bytes
+   * @param from       index of first record
+   * @param to         index of last record, exclusive
+   * @param shuffle    type of shuffle
+   * @throws IOException if the file or its journal can't be read or written
+   * @see SegmentInterleavers#shufflePrime(MemorySegment, long, long, long, Shuffle)
+   */
+  public static void shufflePrime(Path file, Path journal, long recordSize,
+                                  long from, long to, Shuffle shuffle)
+      throws IOException {
+    interleave(file, journal, recordSize, from, to, shuffle, "shufflePrime",
+               LongIndexInterleavers::shufflePrime, batchSize(recordSize));
+  }
+
+  private static long records(Path file, long recordSize) throws IOException {
+    checkRecordSize(recordSize);
+    long size = Files.size(file);
+    if (size % recordSize != 0) {
+      throw new IllegalArgumentException(
+          "File size " + size + " is not a multiple of record size " + recordSize);
+    }
+    return size / recordSize;
+  }
+
+  private static void checkRecordSize(long recordSize) {
+    if (recordSize <= 0 || recordSize > MAX_RECORD_SIZE) {
+      throw new IllegalArgumentException("Record size out of range: " + recordSize);
+    }
+  }
+
+  private static int batchSize(long recordSize) {
+    return (int) Math.max(1, CHECKPOINT_BYTES / (recordSize + Long.BYTES));
+  }
+
+  /**
+   * Maps the file and runs the algorithm through a journal.
+   *
+   * @param file       the file
+   * @param journal    where to checkpoint progress
+   * @param recordSize width of each record in bytes
+   * @param from       index of first record
+   * @param to         index of last record, exclusive
+   * @param shuffle    type of shuffle
+   * @param name       name of the algorithm, recorded in the journal
+   * @param algorithm  in-shuffle algorithm
+   * @param batchSize  number of record writes between checkpoints
+   * @throws IOException if the file or its journal can't be read or written
+   */
+  static void interleave(Path file, Path journal, long recordSize,
+                         long from, long to, Shuffle shuffle, String name,
+                         LongIndexInterleavers.InShuffle algorithm,
+                         int batchSize) throws IOException {
+    checkRecordSize(recordSize);
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+                                           StandardOpenOption.WRITE);
+         FileLock lock = ch.lock();
+         MemorySession session = MemorySession.openConfined()) {
+      long size = ch.size();
+      Objects.checkFromToIndex(from, to, size / recordSize);
+      String description = String.join(" ", name, shuffle.name(),
+                                        Long.toString(recordSize),
+                                        Long.toString(from), Long.toString(to),
+                                        Long.toString(size));
+      MemorySegment segment =
+          ch.map(FileChannel.MapMode.READ_WRITE, 0, size, session);
+      JournaledSwapper s = new JournaledSwapper(segment, recordSize, journal,
+                                                description, batchSize);
+      LongIndexInterleavers.interleave(s, from, to, shuffle, algorithm);
+      s.finish();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package net.jnellis.interleave;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join decomposition of an in-shuffle into independent blocks, each
+ * interleaved by another {@link Interleaver}.
+ * <p>
+ * An in-shuffle of {@code A B} splits into two smaller in-shuffles once the
+ * back part of {@code A} and the front part of {@code B} trade places, which
+ * is a rotation of the middle of the section, the same move every in-place
+ * algorithm makes before its own blocks. Here the section is split in half
+ * that way, then each half again, as fork/join tasks, until blocks are below
+ * a threshold and are interleaved by the wrapped algorithm. Rotations at the
+ * same depth run at the same time, so the work spreads over the pool as soon
+ * as the first rotation is done instead of waiting for each block to finish.
+ * <p>
+ * Two array sections are split into an in-shuffle of the first array and an
+ * in-shuffle (or out-shuffle, for odd lengths) of the second after swapping
+ * the back half of the first with the front half of the second.
+ * Lists are not split since few of them can be written by more than one
+ * thread, they are interleaved by the wrapped algorithm directly.
+ *
+ * <pre>
+ * {@code
+ *    Interleaver il = Interleavers.parallel(Interleavers.SHUFFLE);
+ *    il.interleave(hugeArray, Shuffle.OUT);
+ * }</pre>
+ *
+ * @see Interleavers#parallel(Interleaver, ForkJoinPool, int)
+ * @see Interleaver
+ */
+public final class ParallelInterleaver extends AbstractInterleaver {
+
+  /**
+   * Default size, in elements, below which blocks aren't split any further.
+   */
+  public static final int THRESHOLD = 1 << 17;
+
+  /* Most elements one task swaps between two arrays */
+  private static final int SWAP_CHUNK = 1 << 16;
+
+  private final AbstractInterleaver interleaver;
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  /**
+   * Use {@link Interleavers#parallel(Interleaver, ForkJoinPool, int)}.
+   *
+   * @param interleaver interleaves each block
+   * @param pool        where blocks are interleaved
+   * @param threshold   size below which blocks aren't split
+   */
+  ParallelInterleaver(AbstractInterleaver interleaver, ForkJoinPool pool,
+                      int threshold) {
+    this.interleaver = interleaver;
+    this.pool = pool;
+    this.threshold = Math.max(4, threshold);
+  }
+
+  @Override
+  protected void interleave(List<?> list) {
+    interleaver.interleave(list);
+  }
+
+  @Override
+  protected <T> void interleave(List<T> a, List<T> b) {
+    interleaver.interleave(a, b);
+  }
+
+  @Override
+  protected void interleave(Object[] array, int from, int to) {
+    pool.invoke(new Split(array, false, from, to));
+  }
+
+  @Override
+  protected <T> void interleave(T[] a, int fromA, int toA,
+                                T[] b, int fromB, int toB) {
+    if (2 * (toA - fromA) < threshold) {
+      interleaver.interleave(a, fromA, toA, b, fromB, toB);
+    } else {
+      pool.invoke(new SplitTwo(a, fromA, toA, b, fromB, toB, false));
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    pool.invoke(new Split(array, true, from, to));
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    if (2 * (toA - fromA) < threshold) {
+      interleaver.interleavePrimitive(a, fromA, toA, b, fromB, toB);
+    } else {
+      pool.invoke(new SplitTwo(a, fromA, toA, b, fromB, toB, true));
+    }
+  }
+
+  /*
+   * In-shuffle of a section, halved until it is below the threshold. With n
+   * the size of the first half and h = n / 2, rotating A[h..n) B[0..h) right
+   * by h leaves A[0..h) B[0..h) in front of A[h..n) B[h..), two in-shuffles.
+   */
+  private final class Split extends RecursiveAction {
+    private final Object array;
+    private final boolean primitive;
+    private final int from, to;
+
+    Split(Object array, boolean primitive, int from, int to) {
+      this.array = array;
+      this.primitive = primitive;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      int size = to - from;
+      if (size < threshold) {
+        if (primitive) {
+          interleaver.interleavePrimitive(array, from, to);
+        } else {
+          interleaver.interleave((Object[]) array, from, to);
+        }
+        return;
+      }
+      int n = size / 2, h = n / 2;
+      if (primitive) {
+        PrimitiveArrayInShuffleInterleavers.rotate(array, from + h,
+                                                   from + n + h, h);
+      } else {
+        Util.rotate((Object[]) array, from + h, from + n + h, h);
+      }
+      invokeAll(new Split(array, primitive, from, from + 2 * h),
+                new Split(array, primitive, from + 2 * h, to));
+    }
+  }
+
+  /*
+   * In-shuffle of two sections of the same length m. The first m elements of
+   * the result are an in-shuffle of A[0..floor(m/2)) and B[0..ceil(m/2)), the
+   * rest start with A[floor(m/2)], an in-shuffle when m is even and an
+   * out-shuffle when it's odd. Swapping the back ceil(m/2) of A with the
+   * front of B puts each in its own array.
+   */
+  private final class SplitTwo extends RecursiveAction {
+    private final Object a, b;
+    private final int fromA, toA, fromB, toB;
+    private final boolean primitive;
+
+    SplitTwo(Object a, int fromA, int toA, Object b, int fromB, int toB,
+             boolean primitive) {
+      this.a = a;
+      this.fromA = fromA;
+      this.toA = toA;
+      this.b = b;
+      this.fromB = fromB;
+      this.toB = toB;
+      this.primitive = primitive;
+    }
+
+    @Override
+    protected void compute() {
+      int m = toA - fromA;
+      int back = (m + 1) / 2;
+      new Exchange(a, toA - back, b, fromB, back).invoke();
+      invokeAll(new Split(a, primitive, fromA, toA),
+                new Split(b, primitive, fromB + (m & 1), toB));
+    }
+  }
+
+  /*
+   * Swaps two ranges of the same length in different arrays of the same
+   * type, a chunk per task.
+   */
+  private static final class Exchange extends RecursiveAction {
+    private final Object a, b;
+    private final int i, j, length;
+
+    Exchange(Object a, int i, Object b, int j, int length) {
+      this.a = a;
+      this.i = i;
+      this.b = b;
+      this.j = j;
+      this.length = length;
+    }
+
+    @Override
+    protected void compute() {
+      if (length <= SWAP_CHUNK) {
+        Object t = Array.newInstance(a.getClass().getComponentType(), length);
+        System.arraycopy(a, i, t, 0, length);
+        System.arraycopy(b, j, a, i, length);
+        System.arraycopy(t, 0, b, j, length);
+      } else {
+        int half = length / 2;
+        invokeAll(new Exchange(a, i, b, j, half),
+                  new Exchange(a, i + half, b, j + half, length - half));
+      }
+    }
+  }
+}
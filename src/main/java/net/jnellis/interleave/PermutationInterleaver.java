@@ -2,11 +2,21 @@ package net.jnellis.interleave;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * An implementation of
  * <a href="https://arxiv.org/pdf/0805.1598.pdf">
  * A Simple In-Place Algorithm for In-Shuffle</a>
+ * <p>
+ * The cycles of each round are disjoint, so they can be walked at the same
+ * time. An instance from {@link Interleavers#parallelPermutation(ForkJoinPool, int)}
+ * does that for arrays, two arrays and primitive arrays once a round is large
+ * enough. The first cycle holds two thirds of the elements of a round, so
+ * cycles are split into chunks of {@link #PARALLEL_CHUNK} steps that run
+ * as separate tasks. Lists are always interleaved on the calling thread.
  *
  * @see <a href="https://cs.stackexchange.com/a/400">
  * https://cs.stackexchange.com/a/400</a>
@@ -14,11 +24,54 @@ import java.util.List;
  */
 public final class PermutationInterleaver extends AbstractInterleaver {
 
+  /**
+   * Default smallest round, in elements, whose cycles are walked in parallel.
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 20;
+
+  /**
+   * Most steps of a cycle walked by one parallel task.
+   */
+  public static final int PARALLEL_CHUNK = 1 << 16;
+
+  /*
+   * Smallest round, in elements, whose cycles are walked in lock-step by
+   * one thread, and the most steps of each of those chunks.
+   */
+  static final int LOCKSTEP_THRESHOLD = 1 << 22;
+  static final int LOCKSTEP_CHUNK = 1 << 12;
+
+  /* null when sequential */
+  private final ForkJoinPool pool;
+  private final int threshold;
+
   /**
    * No-arg constructor provided for use by {@link Interleavers} which creates
    * single instances. Use {@link Interleavers#PERMUTATION}
    */
-  PermutationInterleaver() {}
+  PermutationInterleaver() {
+    this(null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Parallel instance, use
+   * {@link Interleavers#parallelPermutation(ForkJoinPool, int)}.
+   *
+   * @param pool      where cycles are walked, null to walk them on the
+   *                  calling thread
+   * @param threshold smallest round, in elements, walked in parallel
+   */
+  PermutationInterleaver(ForkJoinPool pool, int threshold) {
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /*
+   * True if the cycles of a round should be walked in parallel.
+   */
+  private boolean parallel(Constants c) {
+    return pool != null && 2 * c.m >= threshold;
+  }
 
   @SuppressWarnings({"rawtypes","unchecked"})
   protected void interleave(List<?> list) {
@@ -33,7 +86,7 @@ public final class PermutationInterleaver extends AbstractInterleaver {
 
       if (c.m != c.n) { // when size is not an exact power of 3
         // rotate the 2nd half of m elements into position to be swapped. 
-        Collections.rotate(list.subList(c.m, c.m + c.n), c.m);
+        Util.rotate(list.subList(c.m, c.m + c.n), c.m);
         // a concurrent list implementation would allow forking the remainder here
       }
       // For each i ∈ {0, 1, . . . , k − 1}, starting at 3^i, do the cycle leader
@@ -65,6 +118,94 @@ public final class PermutationInterleaver extends AbstractInterleaver {
     } while (i != startIdx);
   }
 
+  /*
+   * Walks every cycle of a round at the same time, a chunk per task. The
+   * first element of each chunk is read before any are walked since the
+   * chunk before it writes there.
+   */
+  @SuppressWarnings({"unchecked"})
+  private <T> void cycleLeaders(final Constants c, final Getter<T> getter,
+                                final Setter<T> setter) {
+    final Chunks chunks = Chunks.from(c);
+    final int[] starts = chunks.starts(), steps = chunks.steps();
+    final Object[] held = new Object[starts.length];
+    for (int x = 0; x < held.length; x++) {
+      held[x] = getter.get(starts[x] - 1);
+    }
+    final int mod = c.mod;
+    final long u64c = Long.divideUnsigned(-1L, mod) + 1L;
+    Chunks.walk(pool, held.length, x -> {
+      int i = starts[x];
+      T leader = (T) held[x];
+      for (int step = steps[x]; step > 0; step--) {
+        i = Util.fastmod(i * 2, u64c, mod);
+        leader = setter.set(i - 1, leader);
+      }
+    });
+  }
+
+  /**
+   * Walks the chunks of doubling cycles mod {@code mod} four at a time in
+   * lock-step on the calling thread. Each next index of a cycle depends on
+   * the last, so a lone cycle waits on one cache miss per element once it
+   * outgrows the caches, where four independent chunks keep four misses in
+   * flight. The first element of each chunk is read before any are walked
+   * since the chunk before it writes there, into an array of one per chunk.
+   *
+   * @param mod    modulus of the cycles
+   * @param chunks chunks of the cycles
+   * @param getter gets the element at a zero based index
+   * @param setter sets the element at a zero based index
+   * @param <T>    element type
+   */
+  @SuppressWarnings({"unchecked"})
+  static <T> void lockStep(final int mod, final Chunks chunks,
+                           final Getter<T> getter, final Setter<T> setter) {
+    final int[] starts = chunks.starts(), steps = chunks.steps();
+    final int count = starts.length;
+    final Object[] held = new Object[count];
+    for (int x = 0; x < count; x++) {
+      held[x] = getter.get(starts[x] - 1);
+    }
+    final long u64c = Long.divideUnsigned(-1L, mod) + 1L;
+    int x = 0;
+    for (; x + 4 <= count; x += 4) {
+      int i0 = starts[x], i1 = starts[x + 1],
+          i2 = starts[x + 2], i3 = starts[x + 3];
+      T l0 = (T) held[x], l1 = (T) held[x + 1],
+        l2 = (T) held[x + 2], l3 = (T) held[x + 3];
+      final int common = Math.min(Math.min(steps[x], steps[x + 1]),
+                                  Math.min(steps[x + 2], steps[x + 3]));
+      for (int step = common; step > 0; step--) {
+        i0 = Util.fastmod(i0 * 2, u64c, mod);
+        i1 = Util.fastmod(i1 * 2, u64c, mod);
+        i2 = Util.fastmod(i2 * 2, u64c, mod);
+        i3 = Util.fastmod(i3 * 2, u64c, mod);
+        l0 = setter.set(i0 - 1, l0);
+        l1 = setter.set(i1 - 1, l1);
+        l2 = setter.set(i2 - 1, l2);
+        l3 = setter.set(i3 - 1, l3);
+      }
+      walk(i0, l0, steps[x] - common, u64c, mod, setter);
+      walk(i1, l1, steps[x + 1] - common, u64c, mod, setter);
+      walk(i2, l2, steps[x + 2] - common, u64c, mod, setter);
+      walk(i3, l3, steps[x + 3] - common, u64c, mod, setter);
+    }
+    for (; x < count; x++) {
+      walk(starts[x], (T) held[x], steps[x], u64c, mod, setter);
+    }
+  }
+
+  /*
+   * The rest of one chunk, from the one based index i holding leader.
+   */
+  private static <T> void walk(int i, T leader, int steps, final long u64c,
+                               final int mod, final Setter<T> setter) {
+    for (; steps > 0; steps--) {
+      i = Util.fastmod(i * 2, u64c, mod);
+      leader = setter.set(i - 1, leader);
+    }
+  }
 
   protected void interleave(final Object[] array, int from, final int to) {
     while (to - from > 1) {
@@ -80,10 +221,17 @@ public final class PermutationInterleaver extends AbstractInterleaver {
       }
 
       int _from = from;
-      Setter<?> setter =  (i, obj) -> Util.set(array, _from + i, obj);
+      Setter<Object> setter =  (i, obj) -> Util.set(array, _from + i, obj);
 
-      for (int k = 0; k < c.k; k++) {
-        cycleLeader(k, c.mod, array[from + Util.POW3[k] - 1], setter);
+      if (parallel(c)) {
+        cycleLeaders(c, i -> array[_from + i], setter);
+      } else if (2 * c.m >= LOCKSTEP_THRESHOLD) {
+        lockStep(c.mod, Chunks.from(c, LOCKSTEP_CHUNK),
+                 i -> array[_from + i], setter);
+      } else {
+        for (int k = 0; k < c.k; k++) {
+          cycleLeader(k, c.mod, array[from + Util.POW3[k] - 1], setter);
+        }
       }
 
       from += (2 * c.m);
@@ -104,7 +252,7 @@ public final class PermutationInterleaver extends AbstractInterleaver {
       final Constants c = Constants.from(aSize + bSize);
       if (c.m != c.n) {
         if (c.m > aSize) {  // just rotate b side
-          Collections.rotate(b.subList(c.m - aSize, c.m + c.n - aSize), c.m);
+          Util.rotate(b.subList(c.m - aSize, c.m + c.n - aSize), c.m);
         } else {
           Util.rotate(a.subList(c.m, aSize), b.subList(0, c.m + c.n - aSize), c.m);
         }
@@ -114,7 +262,10 @@ public final class PermutationInterleaver extends AbstractInterleaver {
       Setter<T> setter = (i,t)-> i < aSize ? _a.set(i,t): b.set(i - aSize, t);
 
       for (int k = 0; k < c.k; k++) {
-        cycleLeader(k, c.mod, _a.get(Util.POW3[k] - 1), setter);
+        // later rounds can start a cycle past what is left of 'a'
+        int start = Util.POW3[k] - 1;
+        cycleLeader(k, c.mod, start < aSize ? _a.get(start)
+                                            : b.get(start - aSize), setter);
       }
 
       // adjust a & b to account for 2*m elements we just moved around
@@ -154,8 +305,16 @@ public final class PermutationInterleaver extends AbstractInterleaver {
           (i, obj) -> i < aSize ? Util.set(a, _fromA + i, obj)
                                 : Util.set(b, fromB + i - aSize, obj);
 
-      for (int k = 0; k < c.k; k++) {
-        cycleLeader(k, c.mod, a[fromA + Util.POW3[k] - 1], setter);
+      if (parallel(c)) {
+        cycleLeaders(c, i -> i < aSize ? a[_fromA + i] : b[fromB + i - aSize],
+                     setter);
+      } else {
+        for (int k = 0; k < c.k; k++) {
+          // later rounds can start a cycle past what is left of 'a'
+          int start = Util.POW3[k] - 1;
+          cycleLeader(k, c.mod, start < aSize ? a[fromA + start]
+                                              : b[fromB + start - aSize], setter);
+        }
       }
 
       // adjust a & b to account for 2*m elements we just moved around
@@ -163,12 +322,35 @@ public final class PermutationInterleaver extends AbstractInterleaver {
         fromA += 2 * c.m;
       } else {
         // no more a left, just work on b.
-        interleave(b, fromB + (2 * c.m) - aSize, bSize);
+        interleave(b, fromB + (2 * c.m) - aSize, toB);
         break;
       }
     }
   }
 
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    if (pool == null) {
+      PrimitiveArrayInShuffleInterleavers.permutation(array, from, to);
+    } else {
+      PrimitiveArrayInShuffleInterleavers.permutation(array, from, to,
+                                                      pool, threshold);
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    if (pool == null) {
+      PrimitiveArrayInShuffleInterleavers.permutation(a, fromA, toA,
+                                                      b, fromB, toB);
+    } else {
+      PrimitiveArrayInShuffleInterleavers.permutation(a, fromA, toA,
+                                                      b, fromB, toB,
+                                                      pool, threshold);
+    }
+  }
+
   /**
    * For each round of permutations swaps we need some constants for that
    * round that describe the amount of elements that we'll be processing.
@@ -183,4 +365,114 @@ public final class PermutationInterleaver extends AbstractInterleaver {
       return new Constants(n, k, mod, m);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * The cycles of a round split into chunks of at most
+   * {@link #PARALLEL_CHUNK} steps, or another chunk size. Chunk {@code x}
+   * starts at the one based index {@code starts[x]} and takes
+   * {@code steps[x]} steps.
+   * <p>
+   * Two is a primitive root of every power of 3, so the cycle starting at
+   * {@code 3^j} of a round of {@code 3^k - 1} elements has
+   * {@code 2 * 3^(k-j-1)} steps, and each chunk starts {@code 2^chunk}
+   * times further around it than the last, mod {@code 3^k}.
+   *
+   * @param starts one based index each chunk starts at
+   * @param steps  number of steps of each chunk
+   */
+  record Chunks(int[] starts, int[] steps) {
+    static Chunks from(Constants c) {
+      return from(c, PARALLEL_CHUNK);
+    }
+
+    /**
+     * The cycles of a round split into chunks of at most {@code chunk} steps.
+     *
+     * @param c     constants of the round
+     * @param chunk most steps of a chunk
+     * @return chunks of every cycle of the round
+     */
+    static Chunks from(Constants c, int chunk) {
+      int[] leaders = new int[c.k], lengths = new int[c.k];
+      for (int j = 0; j < c.k; j++) {
+        leaders[j] = Util.POW3[j];
+        lengths[j] = cycleLength(c, j);
+      }
+      return of(c.mod, chunk, leaders, lengths);
+    }
+
+    /**
+     * Cycles of the doubling permutation mod {@code mod} split into chunks of
+     * at most {@code chunk} steps, each cycle starting at its leader.
+     *
+     * @param mod     modulus of the permutation, two is a primitive root of it
+     * @param chunk   most steps of a chunk
+     * @param leaders one based index each cycle starts at
+     * @param lengths number of steps of each cycle
+     * @return chunks of the cycles
+     */
+    static Chunks of(int mod, int chunk, int[] leaders, int[] lengths) {
+      int count = 0;
+      for (int length : lengths) {
+        count += (length + chunk - 1) / chunk;
+      }
+      int[] starts = new int[count], steps = new int[count];
+      long jump = 1, square = 2 % mod;
+      for (int e = chunk; e > 0; e >>= 1) {
+        if ((e & 1) != 0) {
+          jump = jump * square % mod;
+        }
+        square = square * square % mod;
+      }
+      int x = 0;
+      for (int j = 0; j < leaders.length; j++) {
+        long start = leaders[j];
+        for (int t = 0; t < lengths[j]; t += chunk) {
+          starts[x] = (int) start;
+          steps[x++] = Math.min(chunk, lengths[j] - t);
+          start = start * jump % mod;
+        }
+      }
+      return new Chunks(starts, steps);
+    }
+
+    private static int cycleLength(Constants c, int j) {
+      return 2 * Util.POW3[c.k - j - 1];
+    }
+
+    /**
+     * Runs {@code walk} for every chunk in a pool and waits for them all.
+     *
+     * @param pool  where to walk
+     * @param count number of chunks
+     * @param walk  walks one chunk
+     */
+    static void walk(ForkJoinPool pool, int count, IntConsumer walk) {
+      pool.invoke(new Walk(0, count, walk));
+    }
+  }
+
+  /*
+   * Splits a range of chunks in half until there is one left to walk.
+   */
+  private static final class Walk extends RecursiveAction {
+    private final int lo, hi;
+    private final IntConsumer walk;
+
+    Walk(int lo, int hi, IntConsumer walk) {
+      this.lo = lo;
+      this.hi = hi;
+      this.walk = walk;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo == 1) {
+        walk.accept(lo);
+      } else if (hi > lo) {
+        int mid = (lo + hi) >>> 1;
+        invokeAll(new Walk(lo, mid, walk), new Walk(mid, hi, walk));
+      }
+    }
+  }
+}
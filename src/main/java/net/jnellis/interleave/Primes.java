@@ -0,0 +1,381 @@
+package net.jnellis.interleave;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Number theory for the cycle leader algorithms: deterministic primality,
+ * factoring, and the search for Josephus_2 primes.
+ * <p>
+ * n is a <a href="https://oeis.org/A163782">Josephus_2 prime</a>, its
+ * a025480 walk a single cycle of length n, exactly when p = 2n + 1 is a
+ * prime with 2 as a primitive root. 2 is a quadratic residue of primes that
+ * are 1 or 7 mod 8, so p must be 3 or 5 mod 8 (n is 1 or 2 mod 4), and then
+ * 2 is a primitive root unless 2^((p-1)/q) = 1 for an odd prime q dividing
+ * n. That takes a primality test and a factorization of n instead of a walk
+ * of n steps.
+ * <p>
+ * Up to a limit the J2 primes come from a table, the resource
+ * {@value #TABLE} generated by the build, read the first time it's needed
+ * and binary searched, so planning an interleave of small and mid-size
+ * sections costs the same every time. Past the limit, or without the
+ * resource, they are searched for.
+ * <p>
+ * Arithmetic mod p is Montgomery multiplication with
+ * {@link Math#unsignedMultiplyHigh(long, long)}, so every odd modulus up to
+ * {@code Long.MAX_VALUE} works without overflow or division.
+ */
+final class Primes {
+
+  /* Bases that make Miller-Rabin exact below 2^32 */
+  private static final long[] BASES_32 = {2, 7, 61};
+  /* Bases that make Miller-Rabin exact below 2^64 */
+  private static final long[] BASES_64 = {2, 325, 9375, 28178, 450775,
+                                          9780504, 1795265022};
+  private static final int[] SMALL_PRIMES = {3, 5, 7, 11, 13, 17, 19, 23, 29,
+                                             31, 37, 41, 43, 47};
+  /* Odd factors below this are found by trial division */
+  private static final int TRIAL_LIMIT = 1 << 16;
+
+  /* J2 primes up to a limit, see generateJ2Primes in codegen.gradle */
+  static final String TABLE = "j2primes.bin";
+
+  /* Recent searches, direct mapped on n */
+  private static final Memo[] MEMO = new Memo[64];
+
+  private record Memo(long n, long j2) {}
+
+  /**
+   * The J2 primes up to a limit, in order, starting with 1.
+   *
+   * @param limit largest n the table answers for
+   * @param j2    the J2 primes no greater than the limit
+   */
+  record Table(int limit, int[] j2) {
+
+    static final Table EMPTY = new Table(0, new int[0]);
+
+    /**
+     * Reads a table, varints of the limit, the count, then the differences
+     * between J2 primes.
+     *
+     * @param in the table
+     * @return the table
+     * @throws IOException if it can't be read
+     */
+    static Table read(InputStream in) throws IOException {
+      int limit = varint(in);
+      int[] j2 = new int[varint(in)];
+      for (int i = 0, n = 0; i < j2.length; i++) {
+        j2[i] = n += varint(in);
+      }
+      return new Table(limit, j2);
+    }
+
+    private static int varint(InputStream in) throws IOException {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+        int b = in.read();
+        if (b < 0) {
+          throw new EOFException();
+        }
+        value |= (b & 0x7F) << shift;
+        if (b < 0x80) {
+          return value;
+        }
+      }
+    }
+
+    /*
+     * The largest J2 prime no greater than n, for 1 <= n <= limit.
+     */
+    int floor(int n) {
+      int i = Arrays.binarySearch(j2, n);
+      return j2[i >= 0 ? i : -i - 2];
+    }
+  }
+
+  /* Loads the table the first time it's used, not when Util is */
+  private static final class Holder {
+    static final Table TABLE = load();
+
+    private static Table load() {
+      InputStream in = Primes.class.getResourceAsStream(Primes.TABLE);
+      if (in == null) {
+        return Table.EMPTY;
+      }
+      try (InputStream buffered = new BufferedInputStream(in)) {
+        return Table.read(buffered);
+      } catch (IOException e) {
+        // a damaged table only costs the search
+        return Table.EMPTY;
+      }
+    }
+  }
+
+  private Primes() {}
+
+  /**
+   * Whether n is a Josephus_2 prime, 2n + 1 a prime with 2 as a primitive
+   * root. 1 counts, see {@link #findNextLowestJ2Prime(long)}.
+   *
+   * @param n number to test
+   * @return true if n is a J2 prime
+   */
+  static boolean isJ2Prime(long n) {
+    if (n < 1 || n > Long.MAX_VALUE / 2) {
+      return false;
+    }
+    Table table = Holder.TABLE;
+    if (n <= table.limit) {
+      return Arrays.binarySearch(table.j2, (int) n) >= 0;
+    }
+    long p = 2 * n + 1;
+    long r = p & 7;
+    if ((r != 3 && r != 5) || !isPrime(p)) {
+      return false;
+    }
+    Montgomery mont = new Montgomery(p);
+    long two = mont.of(2);
+    for (long q : oddPrimeFactors(n)) {
+      if (mont.pow(two, (p - 1) / q) == mont.one) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The largest J2 prime no greater than n. 1 isn't a J2 prime but is
+   * returned for 1, which lets the interleavers finish their last two
+   * elements the same way as the rest.
+   *
+   * @param n where to start looking
+   * @return the J2 prime, or 0 if n is less than 1
+   */
+  static long findNextLowestJ2Prime(long n) {
+    if (n < 1) {
+      return 0;
+    }
+    Table table = Holder.TABLE;
+    if (n <= table.limit) {
+      return table.floor((int) n);
+    }
+    int slot = (int) (n * 0x9E3779B97F4A7C15L >>> 58);
+    Memo memo = MEMO[slot];
+    if (memo != null && memo.n == n) {
+      return memo.j2;
+    }
+    long k = n;
+    while (!isJ2Prime(k)) {
+      k--;
+    }
+    MEMO[slot] = new Memo(n, k);
+    return k;
+  }
+
+  /**
+   * Deterministic primality test, Miller-Rabin with bases known to have no
+   * strong pseudoprimes below 2^32 and 2^64.
+   *
+   * @param n number to test
+   * @return true if n is prime
+   */
+  static boolean isPrime(long n) {
+    if (n < 2) {
+      return false;
+    }
+    if ((n & 1) == 0) {
+      return n == 2;
+    }
+    for (int p : SMALL_PRIMES) {
+      if (n % p == 0) {
+        return n == p;
+      }
+    }
+    if (n < 47 * 47) {
+      return true;
+    }
+    Montgomery mont = new Montgomery(n);
+    long d = n - 1;
+    int s = Long.numberOfTrailingZeros(d);
+    d >>>= s;
+    long minusOne = n - mont.one;
+    for (long base : n >>> 32 == 0 ? BASES_32 : BASES_64) {
+      long a = base % n;
+      if (a == 0) {
+        continue;
+      }
+      long x = mont.pow(mont.of(a), d);
+      if (x == mont.one || x == minusOne) {
+        continue;
+      }
+      int i = 1;
+      for (; i < s; i++) {
+        x = mont.mul(x, x);
+        if (x == minusOne) {
+          break;
+        }
+      }
+      if (i == s) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Distinct odd prime factors, smallest first.
+   *
+   * @param n a positive number
+   * @return its odd prime factors
+   */
+  static long[] oddPrimeFactors(long n) {
+    n >>>= Long.numberOfTrailingZeros(n);
+    long[] factors = new long[15]; // the first 15 odd primes multiply past 2^63
+    int count = 0;
+    for (int q = 3; q < TRIAL_LIMIT && q <= n / q; q += 2) {
+      if (n % q == 0) {
+        factors[count++] = q;
+        do {
+          n /= q;
+        } while (n % q == 0);
+      }
+    }
+    if (n > 1) {
+      // no factor below TRIAL_LIMIT, so anything below its square is prime
+      count = n < (long) TRIAL_LIMIT * TRIAL_LIMIT
+              ? add(factors, count, n)
+              : splitLarge(n, factors, count);
+    }
+    long[] result = Arrays.copyOf(factors, count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  private static int splitLarge(long n, long[] factors, int count) {
+    if (isPrime(n)) {
+      return add(factors, count, n);
+    }
+    long d = rho(n);
+    count = splitLarge(d, factors, count);
+    long rest = n / d;
+    while (rest % d == 0) {
+      rest /= d;
+    }
+    return rest > 1 ? splitLarge(rest, factors, count) : count;
+  }
+
+  private static int add(long[] factors, int count, long q) {
+    for (int i = 0; i < count; i++) {
+      if (factors[i] == q) {
+        return count;
+      }
+    }
+    factors[count] = q;
+    return count + 1;
+  }
+
+  /*
+   * A nontrivial factor of an odd composite with no small factors,
+   * Pollard's rho with Brent's cycle detection, batching the gcds.
+   */
+  private static long rho(long n) {
+    final Montgomery mont = new Montgomery(n);
+    final int batch = 128;
+    for (long c = 1; ; c++) {
+      long x, y = mont.of(2), ys = y, q = mont.one, g = 1;
+      for (int r = 1; g == 1; r <<= 1) {
+        x = y;
+        for (int i = 0; i < r; i++) {
+          y = mont.add(mont.mul(y, y), c);
+        }
+        for (int k = 0; k < r && g == 1; k += batch) {
+          ys = y;
+          for (int i = Math.min(batch, r - k); i > 0; i--) {
+            y = mont.add(mont.mul(y, y), c);
+            q = mont.mul(q, Math.abs(x - y));
+          }
+          g = gcd(q, n);
+        }
+        if (g == n) {
+          // the batch overshot, step through it again one gcd at a time
+          do {
+            ys = mont.add(mont.mul(ys, ys), c);
+            g = gcd(Math.abs(x - ys), n);
+          } while (g == 1);
+        }
+      }
+      if (g != n) {
+        return g;
+      }
+    }
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /*
+   * Montgomery form mod an odd m below 2^63, with R = 2^64. Values are kept
+   * in [0, m).
+   */
+  private static final class Montgomery {
+    final long m;
+    /* m^-1 mod 2^64 */
+    final long inverse;
+    /* R mod m, and R^2 mod m */
+    final long one, r2;
+
+    Montgomery(long m) {
+      this.m = m;
+      long inv = m; // correct to 3 bits, each step doubles that
+      for (int i = 0; i < 5; i++) {
+        inv *= 2 - m * inv;
+      }
+      this.inverse = inv;
+      this.one = Long.remainderUnsigned(-1L, m) + 1;
+      long x = one;
+      for (int i = 0; i < 64; i++) {
+        x = add(x, x);
+      }
+      this.r2 = x;
+    }
+
+    long add(long a, long b) {
+      long s = a + b;
+      return Long.compareUnsigned(s, m) >= 0 ? s - m : s;
+    }
+
+    /* a * b / R mod m */
+    long mul(long a, long b) {
+      long hi = Math.unsignedMultiplyHigh(a, b);
+      long q = a * b * inverse;
+      long t = hi - Math.unsignedMultiplyHigh(q, m);
+      return t < 0 ? t + m : t;
+    }
+
+    /* Montgomery form of a, 0 <= a < m */
+    long of(long a) {
+      return mul(a, r2);
+    }
+
+    long pow(long base, long e) {
+      long result = one;
+      for (; e > 0; e >>>= 1, base = mul(base, base)) {
+        if ((e & 1) != 0) {
+          result = mul(result, base);
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -1,16 +1,20 @@
 package net.jnellis.interleave;
 
-import java.lang.reflect.Array;
 import java.util.Collections;
 import java.util.List;
-import java.util.function.IntConsumer;
-
-import static net.jnellis.interleave.PermutationInterleaver.Constants;
-import static net.jnellis.interleave.SequenceInterleaver.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Utility class to in-place in-shuffle interleave primitive arrays at their midpoint similar to the behavior
- * {@link Interleaver}.
+ * Utility class to in-place in-shuffle interleave primitive arrays at their midpoint, or two primitive arrays with
+ * each other, similar to the behavior {@link Interleaver}.
+ * <p>
+ * For out-shuffles and folding shuffles use the typed methods of
+ * {@link PrimitiveInterleaver} which every {@link Interleaver} in
+ * {@link Interleavers} implements.
+ * <p>
+ * Each method checks the array type once and then runs a kernel specialized
+ * for that primitive type, so interleaving many different primitive types in
+ * the same JVM does not pollute the type profile of the inner loops.
  */
 public class PrimitiveArrayInShuffleInterleavers {
 
@@ -19,77 +23,43 @@ public class PrimitiveArrayInShuffleInterleavers {
    */
   private PrimitiveArrayInShuffleInterleavers(){}
 
-  @FunctionalInterface
-  interface IntBiConsumer{ void accept(int j, int k);}
-
   /**
-   * Takes element from temp[b] and puts it in array[a]
-   * @param dest  destination array
-   * @param src   source array
-   * @return an BiConsumer that takes index positions a & b
+   * The Vector API is an incubator module that has to be added to the JVM,
+   * without it {@link #vector(Object, int, int)} falls back to scalar code.
    */
-   static IntBiConsumer arrayArraySetFunc(Object src, Object dest){
-     assert dest.getClass().isArray() : "dest must be and Array type.";
-     assert src.getClass().isArray() : "src must be an Array type.";
-     assert dest.getClass() == src.getClass(): "src and dest must be arrays of same type.";
-     return switch (dest) {
-       case int[]    i -> (a, b) ->  i[a] = ((int[]) (src))[b];
-       case long[]   l -> (a, b) ->  l[a] = ((long[]) (src))[b];
-       case double[] d -> (a, b) ->  d[a] = ((double[]) (src))[b];
-       case float[]  f -> (a, b) ->  f[a] = ((float[]) (src))[b];
-       case char[]   c -> (a, b) ->  c[a] = ((char[]) (src))[b];
-       case byte[]  bt -> (a, b) -> bt[a] = ((byte[]) (src))[b];
-       default -> throw new IllegalStateException("""
-         Only primitive arrays allowed (int, long, double, float, char, byte)""");
-     };
-  }
+  private static final boolean VECTOR_API =
+      ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
 
-  /**
-   * swaps elements at two different index positions
-   * @param array array
-   * @return BiConsumer that swaps elements at indexes a & b
-   */
-   static IntBiConsumer swapFunc(Object array){
-     assert array.getClass().isArray() : "array must be and Array type.";
-     return  switch(array) {
-       case int[]    a -> (j,k) ->{ int    i = a[j]; a[j] = a[k]; a[k] = i; };
-       case long[]   a -> (j,k) ->{ long   i = a[j]; a[j] = a[k]; a[k] = i; };
-       case double[] a -> (j,k) ->{ double i = a[j]; a[j] = a[k]; a[k] = i; };
-       case float[]  a -> (j,k) ->{ float  i = a[j]; a[j] = a[k]; a[k] = i; };
-       case char[]   a -> (j,k) ->{ char   i = a[j]; a[j] = a[k]; a[k] = i; };
-       case byte[]   a -> (j,k) ->{ byte   i = a[j]; a[j] = a[k]; a[k] = i; };
-       default -> throw new IllegalStateException("""
-         Only primitive arrays allowed (int, long, double, float, char, byte)""");
-     };
+  private static IllegalStateException notPrimitiveArray() {
+    return new IllegalStateException(
+        "Only primitive arrays allowed (int, long, double, float, char, byte, short, boolean)");
   }
 
   /**
-   * Performs a swap at a single location to facilitate a cycle leader
-   * permutation. The last swap of the cycle should end up at the initialIndex
-   * location.
-   * @param array array
-   * @param initialIndex index position in array to swap items to.
-   * @return a function that accepts the next array index position of the cycle.
+   * Reverses elements in a section of a primitive array.
+   *
+   * @param array primitive type array
+   * @param from  The starting point
+   * @param to    Exclusive end point
+   * @see Util#reverse(Object[], int, int)
    */
-   static IntConsumer arrayCycleSet(Object array, int initialIndex){
-     assert array.getClass().isArray() : "array must be and Array type.";
-    // choose one position in array as a temp variable.
-     final int i = initialIndex;
-     return  switch(array) {
-       case int[]    a -> (j) ->{ int t =    a[i]; a[i] = a[j]; a[j] = t; };
-       case long[]   a -> (j) ->{ long t =   a[i]; a[i] = a[j]; a[j] = t; };
-       case double[] a -> (j) ->{ double t = a[i]; a[i] = a[j]; a[j] = t; };
-       case float[]  a -> (j) ->{ float t =  a[i]; a[i] = a[j]; a[j] = t; };
-       case char[]   a -> (j) ->{ char t =   a[i]; a[i] = a[j]; a[j] = t; };
-       case byte[]   a -> (j) ->{ byte t =   a[i]; a[i] = a[j]; a[j] = t; };
-       default -> throw new IllegalStateException("""
-         Only primitive arrays allowed (int, long, double, float, char, byte)""");
-     };
+  static void reverse(Object array, int from, int to) {
+    switch (array) {
+      case int[]     a -> IntKernels.reverse(a, from, to);
+      case long[]    a -> LongKernels.reverse(a, from, to);
+      case double[]  a -> DoubleKernels.reverse(a, from, to);
+      case float[]   a -> FloatKernels.reverse(a, from, to);
+      case char[]    a -> CharKernels.reverse(a, from, to);
+      case byte[]    a -> ByteKernels.reverse(a, from, to);
+      case short[]   a -> ShortKernels.reverse(a, from, to);
+      case boolean[] a -> BooleanKernels.reverse(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
   }
 
   /**
    * Rotate elements in an array similar to
-   * {@link Collections#rotate(List, int)}
+   * {@link Collections#rotate(List, int)}, choosing the strategy by size.
    *
    * @param array    array to rotate
    * @param from     starting index to rotate
@@ -97,30 +67,34 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @param distance distance to rotate
    * @see Collections#rotate(List, int)
    */
-   static void rotate(Object array, int from, int to, int distance) {
-     int dist = distance;
-     int size = to - from;
-     if (size == 0)
-       return;
-     dist = dist % size;
-     if (dist < 0)
-       dist += size;
-     if (dist == 0)
-       return;
-
-     int nMoved = 0;
-     for (int cycleStart = 0; nMoved != size; cycleStart++) {
-       int i = cycleStart;
-       IntConsumer cycleSet = arrayCycleSet(array, from + i);
-       do {
-         i += dist;
-         if (i >= size) {
-           i -= size;
-         }
-         cycleSet.accept(from + i);
-         nMoved++;
-       } while (i != cycleStart);
-     }
+  static void rotate(Object array, int from, int to, int distance) {
+    rotate(array, from, to, distance, Rotation.AUTO);
+  }
+
+  /**
+   * Rotate elements in a section of a primitive array similar to
+   * {@link Collections#rotate(List, int)} with the given strategy.
+   *
+   * @param array    primitive type array
+   * @param from     starting index to rotate
+   * @param to       ending index to rotate, exclusive
+   * @param distance distance to rotate
+   * @param rotation rotation strategy
+   * @see Util#rotate(Object[], int, int, int, Rotation)
+   */
+  public static void rotate(Object array, int from, int to, int distance,
+                            Rotation rotation) {
+    switch (array) {
+      case int[]     a -> IntKernels.rotate(a, from, to, distance, rotation);
+      case long[]    a -> LongKernels.rotate(a, from, to, distance, rotation);
+      case double[]  a -> DoubleKernels.rotate(a, from, to, distance, rotation);
+      case float[]   a -> FloatKernels.rotate(a, from, to, distance, rotation);
+      case char[]    a -> CharKernels.rotate(a, from, to, distance, rotation);
+      case byte[]    a -> ByteKernels.rotate(a, from, to, distance, rotation);
+      case short[]   a -> ShortKernels.rotate(a, from, to, distance, rotation);
+      case boolean[] a -> BooleanKernels.rotate(a, from, to, distance, rotation);
+      default -> throw notPrimitiveArray();
+    }
   }
 
   /**
@@ -131,19 +105,151 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @param to    ending index (exclusive)
    * @see SimpleInterleaver
    */
-  @SuppressWarnings("SuspiciousSystemArraycopy")
   public static void simple(Object array, int from, int to) {
-    var type = array.getClass().componentType();
-    assert type != null : "Parameter array must be an array object.";
-    int halfSize = (to - from) / 2;
-    var temp = Array.newInstance(type, halfSize << 1);
-    // copy first to prime caches
-    System.arraycopy(array, from, temp, 0, halfSize << 1);
-    // write back interleaving
-    IntBiConsumer arraySet = arrayArraySetFunc(temp, array);
-    for (int i = 0, k = 0; k < halfSize; i += 2, k++) {
-      arraySet.accept(from + i, halfSize + k);
-      arraySet.accept(from + i + 1, k);
+    switch (array) {
+      case int[]     a -> IntKernels.simple(a, from, to);
+      case long[]    a -> LongKernels.simple(a, from, to);
+      case double[]  a -> DoubleKernels.simple(a, from, to);
+      case float[]   a -> FloatKernels.simple(a, from, to);
+      case char[]    a -> CharKernels.simple(a, from, to);
+      case byte[]    a -> ByteKernels.simple(a, from, to);
+      case short[]   a -> ShortKernels.simple(a, from, to);
+      case boolean[] a -> BooleanKernels.simple(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of an in-shuffle interleaver that uses
+   * new heap memory as a temporary work space, copying chunks of the section
+   * at the same time once it is large enough.
+   * @param array     primitive type array
+   * @param from      starting index
+   * @param to        ending index (exclusive)
+   * @param pool      where chunks are copied
+   * @param threshold smallest section, in elements, copied in parallel
+   * @see Interleavers#parallelSimple(ForkJoinPool, int)
+   */
+  public static void simple(Object array, int from, int to,
+                            ForkJoinPool pool, int threshold) {
+    switch (array) {
+      case int[]     a -> IntKernels.simple(a, from, to, pool, threshold);
+      case long[]    a -> LongKernels.simple(a, from, to, pool, threshold);
+      case double[]  a -> DoubleKernels.simple(a, from, to, pool, threshold);
+      case float[]   a -> FloatKernels.simple(a, from, to, pool, threshold);
+      case char[]    a -> CharKernels.simple(a, from, to, pool, threshold);
+      case byte[]    a -> ByteKernels.simple(a, from, to, pool, threshold);
+      case short[]   a -> ShortKernels.simple(a, from, to, pool, threshold);
+      case boolean[] a -> BooleanKernels.simple(a, from, to, pool, threshold);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of an in-shuffle interleaver that, like
+   * {@link #simple(Object, int, int)}, uses new heap memory as a temporary work
+   * space but zips the two halves back together several elements at a time
+   * with the Vector API.
+   * <p>
+   * Only {@code int[]}, {@code long[]}, {@code float[]} and {@code double[]}
+   * arrays are vectorized, other primitive types are interleaved with
+   * {@link #simple(Object, int, int)}. All types fall back to scalar code when
+   * the JVM was not started with {@code --add-modules jdk.incubator.vector}.
+   * @param array primitive type array
+   * @param from  starting index
+   * @param to    ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  public static void vector(Object array, int from, int to) {
+    if (!VECTOR_API) {
+      simple(array, from, to);
+      return;
+    }
+    switch (array) {
+      case int[]    a -> VectorKernels.zip(a, from, to);
+      case long[]   a -> VectorKernels.zip(a, from, to);
+      case double[] a -> VectorKernels.zip(a, from, to);
+      case float[]  a -> VectorKernels.zip(a, from, to);
+      default -> simple(array, from, to);
+    }
+  }
+
+  /**
+   * Primitive array implementation of an in-shuffle interleaver that, like
+   * {@link #simple(Object, int, int)}, uses new heap memory as a temporary work
+   * space but zips the two halves of {@code byte[]}, {@code char[]} and
+   * {@code short[]} arrays back together a {@code long} word at a time.
+   * Other primitive types are interleaved with {@link #simple(Object, int, int)}.
+   * @param array primitive type array
+   * @param from  starting index
+   * @param to    ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  public static void swar(Object array, int from, int to) {
+    switch (array) {
+      case byte[]  a -> SwarKernels.zip(a, from, to);
+      case char[]  a -> SwarKernels.zip(a, from, to);
+      case short[] a -> SwarKernels.zip(a, from, to);
+      default -> simple(array, from, to);
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle interleaver that
+   * uses new heap memory as a temporary work space.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  public static void simple(Object a, int fromA, int toA,
+                            Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.simple(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.simple(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.simple(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.simple(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.simple(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.simple(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.simple(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.simple(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle interleaver that
+   * uses new heap memory as a temporary work space, copying chunks of the
+   * sections at the same time once they are large enough.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a         first primitive type array
+   * @param fromA     first array starting index
+   * @param toA       first array ending index (exclusive)
+   * @param b         second primitive type array
+   * @param fromB     second array starting index
+   * @param toB       second array ending index (exclusive)
+   * @param pool      where chunks are copied
+   * @param threshold smallest pair of sections, in elements, copied in
+   *                  parallel
+   * @see Interleavers#parallelSimple(ForkJoinPool, int)
+   */
+  public static void simple(Object a, int fromA, int toA,
+                            Object b, int fromB, int toB,
+                            ForkJoinPool pool, int threshold) {
+    switch (a) {
+      case int[]     x -> IntKernels.simple(x, fromA, toA, (int[]) b, fromB, toB, pool, threshold);
+      case long[]    x -> LongKernels.simple(x, fromA, toA, (long[]) b, fromB, toB, pool, threshold);
+      case double[]  x -> DoubleKernels.simple(x, fromA, toA, (double[]) b, fromB, toB, pool, threshold);
+      case float[]   x -> FloatKernels.simple(x, fromA, toA, (float[]) b, fromB, toB, pool, threshold);
+      case char[]    x -> CharKernels.simple(x, fromA, toA, (char[]) b, fromB, toB, pool, threshold);
+      case byte[]    x -> ByteKernels.simple(x, fromA, toA, (byte[]) b, fromB, toB, pool, threshold);
+      case short[]   x -> ShortKernels.simple(x, fromA, toA, (short[]) b, fromB, toB, pool, threshold);
+      case boolean[] x -> BooleanKernels.simple(x, fromA, toA, (boolean[]) b, fromB, toB, pool, threshold);
+      default -> throw notPrimitiveArray();
     }
   }
 
@@ -155,36 +261,43 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @see SequenceInterleaver
    */
   public static void sequence(Object array, int from, int to){
-    IntBiConsumer swapFunc = swapFunc(array);
-
-    int size = to - from;
-    int i = 0;
-    // take zero biased midpoint and treat odd sized lists as even.
-    int midpt = size / 2;
-
-    while (i < size - 1) {
-      // re-align start of shuffle to an even index.
-      if (isOdd(i)) {
-        i++;
-      }
-      int base = i;
-
-      // shuffle first half of list
-      for (; i < midpt; i++) {  //swap
-        swapFunc.accept(from + i, from + midpt + Util.a025480(i - base));
-      }
-
-      // take odd length biased midpoint for swap count
-      int swap_cnt = biasedMidpoint(i - base);
-      // unscramble swapped items first half of remaining list
-      for (int j = 0; j < swap_cnt - 1; j++) {
-        int k = unshuffle(j, i - base);
-        if (j != k) {  //swap
-          swapFunc.accept(from + midpt + j, from + midpt + k);
-        }
-      }
-      // push up the new midpoint to work on the remaining half of the list
-      midpt += swap_cnt;
+    switch (array) {
+      case int[]     a -> IntKernels.sequence(a, from, to);
+      case long[]    a -> LongKernels.sequence(a, from, to);
+      case double[]  a -> DoubleKernels.sequence(a, from, to);
+      case float[]   a -> FloatKernels.sequence(a, from, to);
+      case char[]    a -> CharKernels.sequence(a, from, to);
+      case byte[]    a -> ByteKernels.sequence(a, from, to);
+      case short[]   a -> ShortKernels.sequence(a, from, to);
+      case boolean[] a -> BooleanKernels.sequence(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link SequenceInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see SequenceInterleaver
+   */
+  public static void sequence(Object a, int fromA, int toA,
+                              Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.sequence(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.sequence(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.sequence(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.sequence(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.sequence(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.sequence(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.sequence(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.sequence(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
     }
   }
 
@@ -196,32 +309,100 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @see PermutationInterleaver
    */
   public static void permutation(final Object array, int from, final int to) {
-    IntBiConsumer swapFunc = swapFunc(array);
-    while (to - from > 1) {
-      final int size = to - from;
-      if (size < 4) {
-        swapFunc.accept(from, from + 1);
-        break;
-      }
-
-      final Constants c = Constants.from(size);
-      if (c.m() != c.n()) {
-        rotate(array, from + c.m(), from + c.m() + c.n(), c.m());
-      }
-
-      for (int k = 0; k < c.k(); k++) {
-        final long u64c = Long.divideUnsigned(-1L, c.mod()) + 1L;
-        final int startIdx = Util.POW3[k];
-        int i = startIdx;
-        int initialValIndex = from + Util.POW3[k] - 1;
-        IntConsumer cycleSet = arrayCycleSet(array, initialValIndex);
-        do {
-          i = Util.fastmod(i * 2, u64c, c.mod());
-          cycleSet.accept(from + i - 1);
-        } while (i != startIdx);
-      }
-
-      from += (2 * c.m());
+    switch (array) {
+      case int[]     a -> IntKernels.permutation(a, from, to);
+      case long[]    a -> LongKernels.permutation(a, from, to);
+      case double[]  a -> DoubleKernels.permutation(a, from, to);
+      case float[]   a -> FloatKernels.permutation(a, from, to);
+      case char[]    a -> CharKernels.permutation(a, from, to);
+      case byte[]    a -> ByteKernels.permutation(a, from, to);
+      case short[]   a -> ShortKernels.permutation(a, from, to);
+      case boolean[] a -> BooleanKernels.permutation(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link PermutationInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see PermutationInterleaver
+   */
+  public static void permutation(Object a, int fromA, int toA,
+                                 Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.permutation(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.permutation(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.permutation(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.permutation(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.permutation(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.permutation(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.permutation(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.permutation(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of an in-shuffle
+   * {@link PermutationInterleaver} that walks the cycles of each round in
+   * parallel once the round is large enough.
+   * @param array     primitive type array
+   * @param from      starting index
+   * @param to        ending index (exclusive)
+   * @param pool      where cycles are walked
+   * @param threshold smallest round, in elements, walked in parallel
+   * @see Interleavers#parallelPermutation(ForkJoinPool, int)
+   */
+  public static void permutation(final Object array, int from, final int to,
+                                 ForkJoinPool pool, int threshold) {
+    switch (array) {
+      case int[]     a -> IntKernels.permutation(a, from, to, pool, threshold);
+      case long[]    a -> LongKernels.permutation(a, from, to, pool, threshold);
+      case double[]  a -> DoubleKernels.permutation(a, from, to, pool, threshold);
+      case float[]   a -> FloatKernels.permutation(a, from, to, pool, threshold);
+      case char[]    a -> CharKernels.permutation(a, from, to, pool, threshold);
+      case byte[]    a -> ByteKernels.permutation(a, from, to, pool, threshold);
+      case short[]   a -> ShortKernels.permutation(a, from, to, pool, threshold);
+      case boolean[] a -> BooleanKernels.permutation(a, from, to, pool, threshold);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link PermutationInterleaver} that walks the cycles of each round in
+   * parallel once the round is large enough.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a         first primitive type array
+   * @param fromA     first array starting index
+   * @param toA       first array ending index (exclusive)
+   * @param b         second primitive type array
+   * @param fromB     second array starting index
+   * @param toB       second array ending index (exclusive)
+   * @param pool      where cycles are walked
+   * @param threshold smallest round, in elements, walked in parallel
+   * @see Interleavers#parallelPermutation(ForkJoinPool, int)
+   */
+  public static void permutation(Object a, int fromA, int toA,
+                                 Object b, int fromB, int toB,
+                                 ForkJoinPool pool, int threshold) {
+    switch (a) {
+      case int[]     x -> IntKernels.permutation(x, fromA, toA, (int[]) b, fromB, toB, pool, threshold);
+      case long[]    x -> LongKernels.permutation(x, fromA, toA, (long[]) b, fromB, toB, pool, threshold);
+      case double[]  x -> DoubleKernels.permutation(x, fromA, toA, (double[]) b, fromB, toB, pool, threshold);
+      case float[]   x -> FloatKernels.permutation(x, fromA, toA, (float[]) b, fromB, toB, pool, threshold);
+      case char[]    x -> CharKernels.permutation(x, fromA, toA, (char[]) b, fromB, toB, pool, threshold);
+      case byte[]    x -> ByteKernels.permutation(x, fromA, toA, (byte[]) b, fromB, toB, pool, threshold);
+      case short[]   x -> ShortKernels.permutation(x, fromA, toA, (short[]) b, fromB, toB, pool, threshold);
+      case boolean[] x -> BooleanKernels.permutation(x, fromA, toA, (boolean[]) b, fromB, toB, pool, threshold);
+      default -> throw notPrimitiveArray();
     }
   }
 
@@ -233,41 +414,43 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @see RecursiveInterleaver
    */
   public static void recursive(Object array, int from, int to){
-    IntBiConsumer swap = swapFunc(array);
-    while (to - from > 1) {
-      final int size = to - from;
-
-      int midpt = size / 2;
-      int k = Integer.highestOneBit(midpt);
-
-      // when the list size isn't a power of 2
-      if (k != midpt) {
-        // rotate the difference out of the way
-        rotate(array, from + k, from + k + midpt, k - midpt);
-      }
-      // continue with interleaving the front 2k of the list
-      int base = 0;
-      int m = k;
-      while (base < 2 * k - 1) {
-        int fb = from + base;
-        // swap all in first half of list (k elements)
-        for (int i = 0; i < m; i++) {
-          swap.accept(fb + i, fb + m + Util.a025480(i));
-        }
-
-        // unscramble back half of list
-        for (int j = 1; j <= m / 4; j <<= 1) {
-          if (j < 2) {
-            swap.accept(fb + m, fb + m + 1);
-          } else {
-            recursive(array, fb + m, fb + m + 2 * j);
-          }
-        }
-        base += m;
-        m /= 2;
-      }
-      // re-interleave the back of this front 2k section
-      from += 2 * k;
+    switch (array) {
+      case int[]     a -> IntKernels.recursive(a, from, to);
+      case long[]    a -> LongKernels.recursive(a, from, to);
+      case double[]  a -> DoubleKernels.recursive(a, from, to);
+      case float[]   a -> FloatKernels.recursive(a, from, to);
+      case char[]    a -> CharKernels.recursive(a, from, to);
+      case byte[]    a -> ByteKernels.recursive(a, from, to);
+      case short[]   a -> ShortKernels.recursive(a, from, to);
+      case boolean[] a -> BooleanKernels.recursive(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link RecursiveInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see RecursiveInterleaver
+   */
+  public static void recursive(Object a, int fromA, int toA,
+                               Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.recursive(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.recursive(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.recursive(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.recursive(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.recursive(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.recursive(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.recursive(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.recursive(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
     }
   }
 
@@ -279,26 +462,43 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @see JosephusInterleaver
    */
   public static void josephus(final Object array, int from, final int to) {
-    IntBiConsumer swap = swapFunc(array);
-    while (to - from > 1) {
-      int midpt = (to - from) / 2;
-      int k = Util.findNextLowestJ2Prime(midpt);
-
-      for (int i = 0; i < k; i++) {
-        swap.accept(from + i, from + midpt + Util.a025480(i));
-      }
-
-      int trailingIdx = 0;
-      for (int i = 0; i < k - 1; i++) {
-        int nextIdx = Util.a025480(k + trailingIdx);
-        swap.accept(from + midpt + trailingIdx, from + midpt + nextIdx);
-        trailingIdx = nextIdx;
-      }
-
-      if (k != midpt) {
-        rotate(array, from + k, from + k + midpt, k - midpt);
-      }
-      from += 2 * k;
+    switch (array) {
+      case int[]     a -> IntKernels.josephus(a, from, to);
+      case long[]    a -> LongKernels.josephus(a, from, to);
+      case double[]  a -> DoubleKernels.josephus(a, from, to);
+      case float[]   a -> FloatKernels.josephus(a, from, to);
+      case char[]    a -> CharKernels.josephus(a, from, to);
+      case byte[]    a -> ByteKernels.josephus(a, from, to);
+      case short[]   a -> ShortKernels.josephus(a, from, to);
+      case boolean[] a -> BooleanKernels.josephus(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link JosephusInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see JosephusInterleaver
+   */
+  public static void josephus(Object a, int fromA, int toA,
+                              Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.josephus(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.josephus(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.josephus(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.josephus(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.josephus(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.josephus(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.josephus(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.josephus(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
     }
   }
 
@@ -310,27 +510,162 @@ public class PrimitiveArrayInShuffleInterleavers {
    * @see ShufflePrimeInterleaver
    */
   public static void shufflePrime(final Object array, int from, final int to) {
-    IntBiConsumer swap = swapFunc(array);
-    while (to - from > 1) {
-      final int size = to - from;
-      int midpt = size / 2;
-      int j2 = Util.findNextLowestJ2Prime(midpt);
-      int k = j2 * 2;
-
-      if (k != size) {
-        rotate(array, from + j2, from + j2 + midpt, j2 - midpt);
-      }
-
-      int idx = 0;
-      int mod = k + 1;  // fyi, mod is a prime number
-      final long u64_c = Long.divideUnsigned(-1L, mod) + 1;
-      for (int i = 0; i < k; i++) {
-        idx = Util.fastmod(2 * idx + 1, u64_c, mod);
-        swap.accept(from + idx, from);
-      }
-
-      from += k;
+    switch (array) {
+      case int[]     a -> IntKernels.shufflePrime(a, from, to);
+      case long[]    a -> LongKernels.shufflePrime(a, from, to);
+      case double[]  a -> DoubleKernels.shufflePrime(a, from, to);
+      case float[]   a -> FloatKernels.shufflePrime(a, from, to);
+      case char[]    a -> CharKernels.shufflePrime(a, from, to);
+      case byte[]    a -> ByteKernels.shufflePrime(a, from, to);
+      case short[]   a -> ShortKernels.shufflePrime(a, from, to);
+      case boolean[] a -> BooleanKernels.shufflePrime(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link ShufflePrimeInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see ShufflePrimeInterleaver
+   */
+  public static void shufflePrime(Object a, int fromA, int toA,
+                                  Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.shufflePrime(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.shufflePrime(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.shufflePrime(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.shufflePrime(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.shufflePrime(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.shufflePrime(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.shufflePrime(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.shufflePrime(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of an in-shuffle {@link DirectInterleaver}.
+   * @param array primitive type array
+   * @param from  starting index
+   * @param to    ending index (exclusive)
+   * @see DirectInterleaver
+   */
+  public static void direct(Object array, int from, int to) {
+    switch (array) {
+      case int[]     a -> IntKernels.direct(a, from, to);
+      case long[]    a -> LongKernels.direct(a, from, to);
+      case double[]  a -> DoubleKernels.direct(a, from, to);
+      case float[]   a -> FloatKernels.direct(a, from, to);
+      case char[]    a -> CharKernels.direct(a, from, to);
+      case byte[]    a -> ByteKernels.direct(a, from, to);
+      case short[]   a -> ShortKernels.direct(a, from, to);
+      case boolean[] a -> BooleanKernels.direct(a, from, to);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /**
+   * Primitive array implementation of a two array in-shuffle
+   * {@link DirectInterleaver}.
+   * Both sections must be the same length and both arrays the same type.
+   * @param a     first primitive type array
+   * @param fromA first array starting index
+   * @param toA   first array ending index (exclusive)
+   * @param b     second primitive type array
+   * @param fromB second array starting index
+   * @param toB   second array ending index (exclusive)
+   * @see DirectInterleaver
+   */
+  public static void direct(Object a, int fromA, int toA,
+                            Object b, int fromB, int toB) {
+    switch (a) {
+      case int[]     x -> IntKernels.direct(x, fromA, toA, (int[]) b, fromB, toB);
+      case long[]    x -> LongKernels.direct(x, fromA, toA, (long[]) b, fromB, toB);
+      case double[]  x -> DoubleKernels.direct(x, fromA, toA, (double[]) b, fromB, toB);
+      case float[]   x -> FloatKernels.direct(x, fromA, toA, (float[]) b, fromB, toB);
+      case char[]    x -> CharKernels.direct(x, fromA, toA, (char[]) b, fromB, toB);
+      case byte[]    x -> ByteKernels.direct(x, fromA, toA, (byte[]) b, fromB, toB);
+      case short[]   x -> ShortKernels.direct(x, fromA, toA, (short[]) b, fromB, toB);
+      case boolean[] x -> BooleanKernels.direct(x, fromA, toA, (boolean[]) b, fromB, toB);
+      default -> throw notPrimitiveArray();
     }
   }
 
+  /*
+   * In-shuffle through a scratch array half as long, see HybridInterleaver.
+   */
+  static void zipHalf(Object array, int from, int to, Object scratch) {
+    switch (array) {
+      case int[]     a -> IntKernels.zipHalf(a, from, to, (int[]) scratch);
+      case long[]    a -> LongKernels.zipHalf(a, from, to, (long[]) scratch);
+      case double[]  a -> DoubleKernels.zipHalf(a, from, to, (double[]) scratch);
+      case float[]   a -> FloatKernels.zipHalf(a, from, to, (float[]) scratch);
+      case char[]    a -> CharKernels.zipHalf(a, from, to, (char[]) scratch);
+      case byte[]    a -> ByteKernels.zipHalf(a, from, to, (byte[]) scratch);
+      case short[]   a -> ShortKernels.zipHalf(a, from, to, (short[]) scratch);
+      case boolean[] a -> BooleanKernels.zipHalf(a, from, to, (boolean[]) scratch);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /*
+   * Small section of a primitive array moved along a path, see SmallShuffles.
+   */
+  static void small(Object array, int from, byte[] path) {
+    switch (array) {
+      case int[]     a -> IntKernels.small(a, from, path);
+      case long[]    a -> LongKernels.small(a, from, path);
+      case double[]  a -> DoubleKernels.small(a, from, path);
+      case float[]   a -> FloatKernels.small(a, from, path);
+      case char[]    a -> CharKernels.small(a, from, path);
+      case byte[]    a -> ByteKernels.small(a, from, path);
+      case short[]   a -> ShortKernels.small(a, from, path);
+      case boolean[] a -> BooleanKernels.small(a, from, path);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /*
+   * Whole doubling cycles of a primitive array, see InterleavePlan.
+   */
+  static void cycles(Object array, int base, int mod, long u64c,
+                     int[] leaders) {
+    switch (array) {
+      case int[]     a -> IntKernels.cycles(a, base, mod, u64c, leaders);
+      case long[]    a -> LongKernels.cycles(a, base, mod, u64c, leaders);
+      case double[]  a -> DoubleKernels.cycles(a, base, mod, u64c, leaders);
+      case float[]   a -> FloatKernels.cycles(a, base, mod, u64c, leaders);
+      case char[]    a -> CharKernels.cycles(a, base, mod, u64c, leaders);
+      case byte[]    a -> ByteKernels.cycles(a, base, mod, u64c, leaders);
+      case short[]   a -> ShortKernels.cycles(a, base, mod, u64c, leaders);
+      case boolean[] a -> BooleanKernels.cycles(a, base, mod, u64c, leaders);
+      default -> throw notPrimitiveArray();
+    }
+  }
+
+  /*
+   * Chunks of doubling cycles of a primitive array walked in lock-step, see
+   * InterleavePlan.
+   */
+  static void lockStep(Object array, int base, int mod,
+                       PermutationInterleaver.Chunks chunks) {
+    switch (array) {
+      case int[]     a -> IntKernels.lockStep(a, base, mod, chunks);
+      case long[]    a -> LongKernels.lockStep(a, base, mod, chunks);
+      case double[]  a -> DoubleKernels.lockStep(a, base, mod, chunks);
+      case float[]   a -> FloatKernels.lockStep(a, base, mod, chunks);
+      case char[]    a -> CharKernels.lockStep(a, base, mod, chunks);
+      case byte[]    a -> ByteKernels.lockStep(a, base, mod, chunks);
+      case short[]   a -> ShortKernels.lockStep(a, base, mod, chunks);
+      case boolean[] a -> BooleanKernels.lockStep(a, base, mod, chunks);
+      default -> throw notPrimitiveArray();
+    }
+  }
 }
@@ -0,0 +1,511 @@
+package net.jnellis.interleave;
+
+import java.nio.Buffer;
+
+/**
+ * In place interleaving of primitive arrays, with the same behavior for each
+ * {@link Shuffle} as the object array methods described in
+ * {@link Interleaver}.
+ * <p>
+ * Every {@link Interleaver} is also a {@code PrimitiveInterleaver} so any of
+ * the implementations in {@link Interleavers} can be used directly on
+ * primitive arrays without boxing.
+ * <pre>
+ * {@code
+ *    int[] samples = {1, 2, 3, 4, 5, 6};
+ *    Interleavers.SHUFFLE.interleave(samples, Shuffle.OUT);
+ *
+ *    // samples is now [1, 4, 2, 5, 3, 6]
+ *
+ *    float[] left = {1f, 2f, 3f}, right = {4f, 5f, 6f};
+ *    Interleavers.SHUFFLE.interleave(left, right, Shuffle.OUT);
+ *
+ *    // left is now [1, 4, 2], right is now [5, 3, 6]
+ * }</pre>
+ * <p>
+ * NIO buffers of any primitive type, heap or direct, can be interleaved too
+ * using absolute indexes, without copying them to an array. Heap buffers
+ * are interleaved as their backing arrays, and every other writable buffer,
+ * including direct buffers and views such as
+ * {@link java.nio.ByteBuffer#asFloatBuffer()}, by shuffle prime cycles over a
+ * memory segment of the buffer like {@link SegmentInterleavers}, whichever
+ * implementation is called.
+ *
+ * @see Interleaver
+ */
+public interface PrimitiveInterleaver {
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(boolean[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(byte[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(char[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(short[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(int[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(long[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(float[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array with the head of the
+   * array.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(double[] array, Shuffle shuffle) {
+    interleave(array, 0, array.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(boolean[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(byte[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(char[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(short[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(int[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(long[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(float[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the midpoint of this array <em>section</em>
+   * with the start of the array <em>section</em>.
+   *
+   * @param array   elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(double[] array, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(boolean[] a, boolean[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(byte[] a, byte[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(char[] a, char[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(short[] a, short[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(int[] a, int[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(long[] a, long[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(float[] a, float[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two arrays.
+   *
+   * @param a       elements of first array to be interleaved in-place.
+   * @param b       elements of second array to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(double[] a, double[] b, Shuffle shuffle) {
+    interleave(a, 0, a.length, b, 0, b.length, shuffle);
+  }
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(boolean[] a, int fromA, int toA,
+                  boolean[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(byte[] a, int fromA, int toA,
+                  byte[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(char[] a, int fromA, int toA,
+                  char[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(short[] a, int fromA, int toA,
+                  short[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(int[] a, int fromA, int toA,
+                  int[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(long[] a, int fromA, int toA,
+                  long[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(float[] a, int fromA, int toA,
+                  float[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of two array sections.
+   *
+   * @param a       elements of first array section to be interleaved in-place.
+   * @param fromA   starting index of first array
+   * @param toA     ending index of first array, exclusive
+   * @param b       elements of second array section to be interleaved in-place.
+   * @param fromB   starting index of second array
+   * @param toB     ending index of second array, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(double[] a, int fromA, int toA,
+                  double[] b, int fromB, int toB,
+                  Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the remaining elements of a buffer, from its
+   * position to its limit. The position and limit are not changed.
+   *
+   * @param buffer  elements to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+   * @see Interleaver#interleave(Object[], Shuffle)
+   */
+  default void interleave(Buffer buffer, Shuffle shuffle) {
+    interleave(buffer, buffer.position(), buffer.limit(), shuffle);
+  }
+
+  /**
+   * Performs interleaving of a section of a buffer given by absolute indexes,
+   * which must be within its limit. The position and limit are not changed.
+   *
+   * @param buffer  elements to be interleaved in-place.
+   * @param from    starting index
+   * @param to      ending index, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+   * @see Interleaver#interleave(Object[], int, int, Shuffle)
+   */
+  void interleave(Buffer buffer, int from, int to, Shuffle shuffle);
+
+  /**
+   * Performs interleaving of the remaining elements of two buffers of the
+   * same element type. Positions and limits are not changed.
+   *
+   * @param a       elements of first buffer to be interleaved in-place.
+   * @param b       elements of second buffer to be interleaved in-place.
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @throws java.nio.ReadOnlyBufferException if either buffer is read-only
+   * @see Interleaver#interleave(Object[], Object[], Shuffle)
+   */
+  default void interleave(Buffer a, Buffer b, Shuffle shuffle) {
+    interleave(a, a.position(), a.limit(), b, b.position(), b.limit(), shuffle);
+  }
+
+  /**
+   * Performs interleaving of sections of two buffers of the same element
+   * type given by absolute indexes. Positions and limits are not changed.
+   *
+   * @param a       elements of first buffer section to be interleaved in-place.
+   * @param fromA   starting index of first buffer
+   * @param toA     ending index of first buffer, exclusive
+   * @param b       elements of second buffer section to be interleaved in-place.
+   * @param fromB   starting index of second buffer
+   * @param toB     ending index of second buffer, exclusive
+   * @param shuffle A descriptor indicating the type of interleave operation.
+   * @throws java.nio.ReadOnlyBufferException if either buffer is read-only
+   * @see Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)
+   */
+  void interleave(Buffer a, int fromA, int toA,
+                  Buffer b, int fromB, int toB,
+                  Shuffle shuffle);
+}
@@ -71,7 +71,7 @@ public final class RecursiveInterleaver extends AbstractInterleaver {
       // when the list size isn't a power of 2, handle the back end first.
       if (k != midpt) {
         // rotate the difference out of the way
-        Collections.rotate(list.subList(k, k + midpt), k - midpt);
+        Util.rotate(list.subList(k, k + midpt), k - midpt);
       }
       // continue with interleaving the front 2k of the list
       int base = 0;
@@ -174,4 +174,15 @@ public final class RecursiveInterleaver extends AbstractInterleaver {
     }
 
   }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    PrimitiveArrayInShuffleInterleavers.recursive(array, from, to);
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    PrimitiveArrayInShuffleInterleavers.recursive(a, fromA, toA, b, fromB, toB);
+  }
 }
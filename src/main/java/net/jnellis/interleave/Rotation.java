@@ -0,0 +1,133 @@
+package net.jnellis.interleave;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Descriptor to identify strategies for rotating (cyclically shifting) a
+ * section of an array or list, which every interleaver except
+ * {@link SequenceInterleaver} does before it swaps.
+ * <p>
+ * Every strategy rotates in-place, without allocating, and gives the same
+ * result as {@link Collections#rotate(List, int)}, they only differ in how
+ * they walk through memory. {@link #BUFFERED} reuses a scratch array of
+ * {@link #BUFFER_LIMIT} elements kept by each thread that rotates, allocated
+ * the first time it's needed. The interleavers all rotate with
+ * {@link #AUTO}, which is all they allocate for rotating, see
+ * {@link Interleavers} for the rest.
+ *
+ * @see Util#rotate(Object[], int, int, int, Rotation)
+ * @see PrimitiveArrayInShuffleInterleavers#rotate(Object, int, int, int, Rotation)
+ */
+public enum Rotation {
+  /**
+   * Follows each cycle of the rotation, moving every element exactly once
+   * but striding through memory by the rotation distance, which gets very
+   * slow once the section no longer fits in cache. This is how every
+   * rotation was done before the other strategies were added.
+   */
+  JUGGLING,
+  /**
+   * Reverses each side of the rotation point and then the whole section.
+   * Every element is moved twice, always sequentially.
+   */
+  REVERSAL,
+  /**
+   * Gries-Mills block swap. Slides the shorter side past as many of its own
+   * lengths of the longer side as fit, which leaves a smaller rotation of
+   * what remains, like the steps of Euclid's algorithm. Sequential, and about
+   * one swap per element.
+   */
+  BLOCK_SWAP,
+  /**
+   * Block swaps until the shorter side is at most {@link #BUFFER_LIMIT}
+   * elements, then copies it to a scratch array, slides the longer side
+   * over with {@link System#arraycopy} and copies the scratch back.
+   */
+  BUFFERED,
+  /**
+   * {@link #REVERSAL} with each reversal split into chunks that run on the
+   * common {@link ForkJoinPool}. Lists are reversed on the calling thread.
+   */
+  PARALLEL,
+  /**
+   * Chooses {@link #PARALLEL} for sections of at least
+   * {@link #PARALLEL_SIZE} elements whose shorter side is longer than
+   * {@link #BUFFER_LIMIT}, when the common pool has more than one thread,
+   * and {@link #BUFFERED} for everything else. See {@code CyclicShiftBench}
+   * for how the strategies compare.
+   */
+  AUTO;
+
+  /**
+   * Largest shorter side that {@link #BUFFERED} copies to its scratch array.
+   */
+  public static final int BUFFER_LIMIT = 1 << 10;
+
+  /**
+   * Smallest section that {@link #AUTO} rotates in parallel.
+   */
+  public static final int PARALLEL_SIZE = 1 << 22;
+
+  /* Number of swaps done by each parallel task */
+  private static final int PARALLEL_CHUNK = 1 << 16;
+
+  /**
+   * Range of swaps to be done by one parallel task.
+   */
+  @FunctionalInterface
+  interface Chunk {
+    void swap(int from, int to);
+  }
+
+  /**
+   * Picks the strategy to use for a rotation, resolving {@link #AUTO}.
+   *
+   * @param size     number of elements in the section
+   * @param distance rotation distance, {@code 0 < distance < size}
+   * @return this strategy, or the one {@link #AUTO} chooses
+   */
+  Rotation resolve(int size, int distance) {
+    if (this != AUTO) {
+      return this;
+    }
+    int shorter = Math.min(distance, size - distance);
+    if (shorter > BUFFER_LIMIT && size >= PARALLEL_SIZE
+        && ForkJoinPool.getCommonPoolParallelism() > 1) {
+      return PARALLEL;
+    }
+    return BUFFERED;
+  }
+
+  /**
+   * Rotation distance as a right rotation in {@code [0, size)}.
+   *
+   * @param distance distance to rotate, negative rotates left
+   * @param size     number of elements in the section, not zero
+   * @return equivalent right rotation
+   */
+  static int normalize(int distance, int size) {
+    int dist = distance % size;
+    return dist < 0 ? dist + size : dist;
+  }
+
+  /**
+   * Splits {@code swaps} into chunks and runs them on the common pool, or all
+   * on the calling thread when there are too few to be worth splitting.
+   *
+   * @param swaps number of swaps
+   * @param chunk does the swaps in a range
+   */
+  static void parallel(int swaps, Chunk chunk) {
+    int chunks = (swaps + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+    if (chunks < 2) {
+      chunk.swap(0, swaps);
+      return;
+    }
+    IntStream.range(0, chunks).parallel().forEach(
+        c -> chunk.swap(c * PARALLEL_CHUNK,
+                        Math.min(swaps, (c + 1) * PARALLEL_CHUNK)));
+  }
+}
@@ -0,0 +1,180 @@
+package net.jnellis.interleave;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.Buffer;
+import java.util.Objects;
+
+/**
+ * Utility class to in-place interleave fixed width elements of a
+ * {@link MemorySegment}, on or off-heap, with {@code long} indexes so that
+ * collections of more than {@code Integer.MAX_VALUE} elements can be
+ * interleaved without any of them being on the java heap.
+ * <p>
+ * Elements can be any number of bytes wide, although 1, 2, 4 and 8 byte
+ * elements are moved fastest. Indexes are element indexes, not byte offsets.
+ *
+ * <pre>
+ * {@code
+ *    try (MemorySession session = MemorySession.openConfined()) {
+ *      MemorySegment samples = MemorySegment.allocateNative(8L << 31, session);
+ *      // ... fill with 2^31 longs
+ *      SegmentInterleavers.shufflePrime(samples, Long.BYTES, Shuffle.OUT);
+ *    }
+ * }</pre>
+ * <p>
+ * Only {@link Interleavers#PERMUTATION} and {@link Interleavers#SHUFFLE} are
+ * available since they need no temporary space and do a fixed amount of work
+ * per element. {@link Interleavers#DIRECT}, the other cycle leader algorithm,
+ * has no {@code long} index version.
+ */
+public final class SegmentInterleavers {
+
+  /**
+   * Utility class, no constructor.
+   */
+  private SegmentInterleavers() {}
+
+  /**
+   * Interleave a whole segment by rotation and permutation.
+   *
+   * @param segment     the elements
+   * @param elementSize width of each element in bytes
+   * @param shuffle     type of shuffle
+   * @see Interleavers#PERMUTATION
+   */
+  public static void permutation(MemorySegment segment, long elementSize,
+                                 Shuffle shuffle) {
+    permutation(segment, elementSize, 0, length(segment, elementSize), shuffle);
+  }
+
+  /**
+   * Interleave a section of a segment by rotation and permutation.
+   *
+   * @param segment     the elements
+   * @param elementSize width of each element in bytes
+   * @param from        index of first element
+   * @param to          index of last element, exclusive
+   * @param shuffle     type of shuffle
+   * @see Interleavers#PERMUTATION
+   */
+  public static void permutation(MemorySegment segment, long elementSize,
+                                 long from, long to, Shuffle shuffle) {
+    Objects.checkFromToIndex(from, to, length(segment, elementSize));
+    LongIndexInterleavers.interleave(new SegmentSwapper(segment, elementSize),
+                                     from, to, shuffle,
+                                     LongIndexInterleavers::permutation);
+  }
+
+  /**
+   * Interleave a whole segment by shuffle prime cycles.
+   *
+   * @param segment     the elements
+   * @param elementSize width of each element in bytes
+   * @param shuffle     type of shuffle
+   * @see Interleavers#SHUFFLE
+   */
+  public static void shufflePrime(MemorySegment segment, long elementSize,
+                                  Shuffle shuffle) {
+    shufflePrime(segment, elementSize, 0, length(segment, elementSize), shuffle);
+  }
+
+  /**
+   * Interleave a section of a segment by shuffle prime cycles.
+   *
+   * @param segment     the elements
+   * @param elementSize width of each element in bytes
+   * @param from        index of first element
+   * @param to          index of last element, exclusive
+   * @param shuffle     type of shuffle
+   * @see Interleavers#SHUFFLE
+   */
+  public static void shufflePrime(MemorySegment segment, long elementSize,
+                                  long from, long to, Shuffle shuffle) {
+    Objects.checkFromToIndex(from, to, length(segment, elementSize));
+    LongIndexInterleavers.interleave(new SegmentSwapper(segment, elementSize),
+                                     from, to, shuffle,
+                                     LongIndexInterleavers::shufflePrime);
+  }
+
+  /**
+   * Interleave a section of one segment with a section of another by shuffle
+   * prime cycles. Sections of different lengths are handled the same as two
+   * arrays, see
+   * {@link Interleaver#interleave(Object[], int, int, Object[], int, int, Shuffle)}.
+   *
+   * @param a           first segment
+   * @param fromA       index of first element of the first section
+   * @param toA         index of last element of the first section, exclusive
+   * @param b           second segment
+   * @param fromB       index of first element of the second section
+   * @param toB         index of last element of the second section, exclusive
+   * @param elementSize width of each element in bytes
+   * @param shuffle     type of shuffle
+   */
+  public static void shufflePrime(MemorySegment a, long fromA, long toA,
+                                  MemorySegment b, long fromB, long toB,
+                                  long elementSize, Shuffle shuffle) {
+    Objects.checkFromToIndex(fromA, toA, length(a, elementSize));
+    Objects.checkFromToIndex(fromB, toB, length(b, elementSize));
+    long sizeB = toB - fromB;
+    long half = Math.min(toA - fromA, sizeB);
+    if (half > 0) {
+      LongSwapper s = new SegmentSwapper(
+          a.asSlice(fromA * elementSize, half * elementSize), half,
+          b.asSlice(fromB * elementSize, sizeB * elementSize), elementSize);
+      LongIndexInterleavers.interleaveTwo(s, half, sizeB, shuffle,
+                                          LongIndexInterleavers::shufflePrime);
+    }
+  }
+
+  /**
+   * Interleave a section of a buffer by shuffle prime cycles, for buffers
+   * without an accessible array.
+   *
+   * @param buffer      the elements
+   * @param elementSize width of each element in bytes
+   * @param from        index of first element
+   * @param to          index of last element, exclusive
+   * @param shuffle     type of shuffle
+   */
+  static void interleave(Buffer buffer, long elementSize,
+                         int from, int to, Shuffle shuffle) {
+    shufflePrime(segment(buffer), elementSize, from, to, shuffle);
+  }
+
+  /**
+   * Interleave sections of two buffers by shuffle prime cycles, for buffers
+   * without an accessible array.
+   *
+   * @param a           first buffer
+   * @param fromA       index of first element of the first section
+   * @param toA         index of last element of the first section, exclusive
+   * @param b           second buffer
+   * @param fromB       index of first element of the second section
+   * @param toB         index of last element of the second section, exclusive
+   * @param elementSize width of each element in bytes
+   * @param shuffle     type of shuffle
+   */
+  static void interleave(Buffer a, int fromA, int toA,
+                         Buffer b, int fromB, int toB,
+                         long elementSize, Shuffle shuffle) {
+    shufflePrime(segment(a), fromA, toA, segment(b), fromB, toB,
+                 elementSize, shuffle);
+  }
+
+  /*
+   * A segment over a buffer from index 0 to its limit. Segments of buffers
+   * start at the position, which absolute indexes ignore.
+   */
+  private static MemorySegment segment(Buffer buffer) {
+    return MemorySegment.ofBuffer(buffer.duplicate().position(0));
+  }
+
+  private static long length(MemorySegment segment, long elementSize) {
+    if (elementSize <= 0) {
+      throw new IllegalArgumentException("Element size must be positive: "
+                                             + elementSize);
+    }
+    return segment.byteSize() / elementSize;
+  }
+}
@@ -0,0 +1,130 @@
+package net.jnellis.interleave;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * {@link LongSwapper} over fixed width elements of a {@link MemorySegment}.
+ * Elements of 1, 2, 4 or 8 bytes are moved as a single value and the held
+ * element is kept in a {@code long}. Any other width is moved by copying
+ * through two small heap segments.
+ * <p>
+ * Segments mapped from files or sliced at odd offsets aren't necessarily
+ * aligned, so the layouts used are byte aligned.
+ * <p>
+ * Two segments can be treated as one, the elements of the first followed by
+ * the elements of the second, to interleave them with each other.
+ */
+final class SegmentSwapper implements LongSwapper {
+
+  private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+  private static final ValueLayout.OfShort SHORT =
+      ValueLayout.JAVA_SHORT.withBitAlignment(8);
+  private static final ValueLayout.OfInt INT =
+      ValueLayout.JAVA_INT.withBitAlignment(8);
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG.withBitAlignment(8);
+
+  private final MemorySegment segment, second;
+  private final long split;
+  private final long width;
+  private final int kind;
+  private long held;
+  private MemorySegment heldRecord, scratch;
+
+  /**
+   * @param segment     the elements
+   * @param elementSize width of each element in bytes
+   */
+  SegmentSwapper(MemorySegment segment, long elementSize) {
+    this(segment, Long.MAX_VALUE, segment, elementSize);
+  }
+
+  /**
+   * @param first       elements from index 0
+   * @param split       number of elements in {@code first}, the index of the
+   *                    first element of {@code second}
+   * @param second      the rest of the elements
+   * @param elementSize width of each element in bytes
+   */
+  SegmentSwapper(MemorySegment first, long split, MemorySegment second,
+                 long elementSize) {
+    this.segment = first;
+    this.split = split;
+    this.second = second;
+    this.width = elementSize;
+    this.kind = elementSize == 1 || elementSize == 2 || elementSize == 4
+                    || elementSize == 8 ? (int) elementSize : 0;
+    if (kind == 0) {
+      heldRecord = MemorySegment.ofArray(new byte[(int) elementSize]);
+      scratch = MemorySegment.ofArray(new byte[(int) elementSize]);
+    }
+  }
+
+  private MemorySegment segment(long i) {
+    return i < split ? segment : second;
+  }
+
+  private long offset(long i) {
+    return (i < split ? i : i - split) * width;
+  }
+
+  private long get(long i) {
+    MemorySegment seg = segment(i);
+    long offset = offset(i);
+    return switch (kind) {
+      case 1 -> seg.get(BYTE, offset);
+      case 2 -> seg.get(SHORT, offset);
+      case 4 -> seg.get(INT, offset);
+      default -> seg.get(LONG, offset);
+    };
+  }
+
+  private void set(long i, long value) {
+    MemorySegment seg = segment(i);
+    long offset = offset(i);
+    switch (kind) {
+      case 1 -> seg.set(BYTE, offset, (byte) value);
+      case 2 -> seg.set(SHORT, offset, (short) value);
+      case 4 -> seg.set(INT, offset, (int) value);
+      default -> seg.set(LONG, offset, value);
+    }
+  }
+
+  @Override
+  public void swap(long i, long j) {
+    if (kind == 0) {
+      MemorySegment.copy(segment(i), offset(i), scratch, 0, width);
+      MemorySegment.copy(segment(j), offset(j), segment(i), offset(i), width);
+      MemorySegment.copy(scratch, 0, segment(j), offset(j), width);
+    } else {
+      long t = get(i);
+      set(i, get(j));
+      set(j, t);
+    }
+  }
+
+  @Override
+  public void hold(long i) {
+    if (kind == 0) {
+      MemorySegment.copy(segment(i), offset(i), heldRecord, 0, width);
+    } else {
+      held = get(i);
+    }
+  }
+
+  @Override
+  public void exchange(long i) {
+    if (kind == 0) {
+      MemorySegment.copy(segment(i), offset(i), scratch, 0, width);
+      MemorySegment.copy(heldRecord, 0, segment(i), offset(i), width);
+      MemorySegment t = heldRecord;
+      heldRecord = scratch;
+      scratch = t;
+    } else {
+      long t = get(i);
+      set(i, held);
+      held = t;
+    }
+  }
+}
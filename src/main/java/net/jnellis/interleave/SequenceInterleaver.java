@@ -184,4 +184,14 @@ public final class SequenceInterleaver extends AbstractInterleaver {
     }
   }
 
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    PrimitiveArrayInShuffleInterleavers.sequence(array, from, to);
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    PrimitiveArrayInShuffleInterleavers.sequence(a, fromA, toA, b, fromB, toB);
+  }
 }
@@ -1,6 +1,5 @@
 package net.jnellis.interleave;
 
-import java.util.Collections;
 import java.util.List;
 
 import static net.jnellis.interleave.Util.set;
@@ -31,7 +30,7 @@ public class ShufflePrimeInterleaver extends AbstractInterleaver {
       if (k != size) {
         // rotate unhandled elements out of the way before interleaving because
         // the cycle leader bounces around both halves of the list.
-        Collections.rotate(list.subList(j2, j2 + midpt), j2 - midpt);
+        Util.rotate(list.subList(j2, j2 + midpt), j2 - midpt);
       }
 
       // interleave this section.
@@ -65,6 +64,19 @@ public class ShufflePrimeInterleaver extends AbstractInterleaver {
     }
   }
 
+  /**
+   * The one cycle of a shuffle prime section split into chunks for
+   * {@link PermutationInterleaver#lockStep}, as one based indexes.
+   *
+   * @param k Shuffle prime
+   * @return chunks of the cycle
+   */
+  static PermutationInterleaver.Chunks chunks(int k) {
+    return PermutationInterleaver.Chunks.of(k + 1,
+                                            PermutationInterleaver.LOCKSTEP_CHUNK,
+                                            new int[]{1}, new int[]{k});
+  }
+
   protected void interleave(final Object[] array, int from, final int to) {
     while (to - from > 1) {
       final int size = to - from;
@@ -77,8 +89,15 @@ public class ShufflePrimeInterleaver extends AbstractInterleaver {
       }
 
       int _from = from;
-      cycleLeader(k, array[from],
-                  (i, obj) -> set(array, _from + i, obj)); // setter
+      if (k >= PermutationInterleaver.LOCKSTEP_THRESHOLD) {
+        // index 2i + 1 is one based index 2(i + 1), a doubling cycle
+        PermutationInterleaver.lockStep(k + 1, chunks(k),
+                                        i -> array[_from + i],
+                                        (i, obj) -> set(array, _from + i, obj));
+      } else {
+        cycleLeader(k, array[from],
+                    (i, obj) -> set(array, _from + i, obj)); // setter
+      }
 
       from += k;
     }
@@ -117,11 +136,22 @@ public class ShufflePrimeInterleaver extends AbstractInterleaver {
     if (j2 != size) {
       Util.rotate(a, fromA + j2, toA, b, fromB, fromB + j2, j2 - size);
       // NOTE: There will always exist a j2 big enough leave 'a' interleaved.
-      interleave(b, fromB + k - size, size);
+      interleave(b, fromB + k - size, toB);
     }
 
     cycleLeader(k, a[fromA],
                 (int i, T obj) -> i < size ? set(a, fromA + i, obj)
                                            : set(b, fromB + i - size, obj));
   }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    PrimitiveArrayInShuffleInterleavers.shufflePrime(array, from, to);
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    PrimitiveArrayInShuffleInterleavers.shufflePrime(a, fromA, toA, b, fromB, toB);
+  }
 }
@@ -3,18 +3,64 @@ package net.jnellis.interleave;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Simple interleaving of elements by creating a new collection on the heap,
  * then adding alternating elements to it. Finalizes by copying the elements
  * back to the original collection(s).
+ * <p>
+ * Both passes over arrays only read what the other pass wrote, so an instance
+ * from {@link Interleavers#parallelSimple(ForkJoinPool, int)} splits each of
+ * them into chunks of {@link #PARALLEL_CHUNK} elements that are copied at the
+ * same time. Chunks start at multiples of the chunk size, so threads only
+ * share the cache line at either end of a chunk. Lists are always interleaved
+ * on the calling thread.
  */
 public class SimpleInterleaver extends AbstractInterleaver{
+
+  /**
+   * Default smallest section, in elements, copied in parallel.
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+  /**
+   * Most elements copied by one parallel task, a power of two.
+   */
+  public static final int PARALLEL_CHUNK = 1 << 15;
+
+  /* null when sequential */
+  private final ForkJoinPool pool;
+  private final int threshold;
+
   /**
    * No-arg constructor provided for use by {@link Interleavers} which creates
    * single instances. Use {@link Interleavers#SIMPLE}
    */
-  public SimpleInterleaver() {}
+  public SimpleInterleaver() {
+    this(null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Parallel instance, use
+   * {@link Interleavers#parallelSimple(ForkJoinPool, int)}.
+   *
+   * @param pool      where chunks are copied, null to copy them on the
+   *                  calling thread
+   * @param threshold smallest section, in elements, copied in parallel
+   */
+  SimpleInterleaver(ForkJoinPool pool, int threshold) {
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /*
+   * True if a section of this many elements should be copied in parallel.
+   */
+  private boolean parallel(int size) {
+    return pool != null && size >= threshold;
+  }
 
   @Override
   public void interleave(List<?> list) {
@@ -35,6 +81,17 @@ public class SimpleInterleaver extends AbstractInterleaver{
   public void interleave(Object[] array, int from, int to ) {
     int halfSize = (to - from)/2;
     Object[] temp = new Object[halfSize<<1];
+    if (parallel(temp.length)) {
+      forEachChunk(pool, from, from + temp.length, (lo, hi) ->
+          System.arraycopy(array, lo, temp, lo - from, hi - lo));
+      forEachChunk(pool, from, from + temp.length, (lo, hi) -> {
+        for (int i = lo, k = (lo - from) >> 1; i < hi; i += 2, k++) {
+          array[i] = temp[halfSize + k];
+          array[i + 1] = temp[k];
+        }
+      });
+      return;
+    }
     // copy first to prime caches
     System.arraycopy(array,from,temp,0,temp.length);
     // write back interleaving
@@ -67,6 +124,17 @@ public class SimpleInterleaver extends AbstractInterleaver{
     assert toA - fromA == toB - fromB : "Lists should be equal sizes at start.";
     int size = toA - fromA;
     T[] temp = (T[])new Object[size << 1];
+    if (parallel(temp.length)) {
+      forEachChunk(pool, 0, temp.length, (lo, hi) -> {
+        for (int i = lo, k = lo >> 1; i < hi; i += 2, k++) {
+          temp[i] = b[fromB + k];
+          temp[i + 1] = a[fromA + k];
+        }
+      });
+      forEachChunk(pool, 0, temp.length, (lo, hi) ->
+          copyBack(temp, lo, hi, a, fromA, b, fromB, size));
+      return;
+    }
     for (int i = 0, k = 0; k < size; i += 2, k++) {
       temp[i] = b[fromB + k];
       temp[i + 1] = a[fromA + k];
@@ -75,4 +143,108 @@ public class SimpleInterleaver extends AbstractInterleaver{
     System.arraycopy(temp, 0, a, fromA, size);
     System.arraycopy(temp, size, b, fromB, size);
   }
+
+  @Override
+  protected void interleavePrimitive(Object array, int from, int to) {
+    if (pool == null) {
+      PrimitiveArrayInShuffleInterleavers.simple(array, from, to);
+    } else {
+      PrimitiveArrayInShuffleInterleavers.simple(array, from, to,
+                                                 pool, threshold);
+    }
+  }
+
+  @Override
+  protected void interleavePrimitive(Object a, int fromA, int toA,
+                                     Object b, int fromB, int toB) {
+    if (pool == null) {
+      PrimitiveArrayInShuffleInterleavers.simple(a, fromA, toA, b, fromB, toB);
+    } else {
+      PrimitiveArrayInShuffleInterleavers.simple(a, fromA, toA, b, fromB, toB,
+                                                 pool, threshold);
+    }
+  }
+
+  /**
+   * Copies {@code temp[lo..hi)} of a two array interleave back, the first
+   * {@code size} elements of {@code temp} go to {@code a} and the rest to
+   * {@code b}.
+   *
+   * @param temp  interleaved elements of both arrays
+   * @param lo    first index of temp to copy
+   * @param hi    last index of temp to copy, exclusive
+   * @param a     first array
+   * @param fromA first array starting index
+   * @param b     second array
+   * @param fromB second array starting index
+   * @param size  length of each array section
+   */
+  static void copyBack(Object temp, int lo, int hi,
+                       Object a, int fromA, Object b, int fromB, int size) {
+    if (lo < size) {
+      System.arraycopy(temp, lo, a, fromA + lo, Math.min(hi, size) - lo);
+    }
+    if (hi > size) {
+      int start = Math.max(lo, size);
+      System.arraycopy(temp, start, b, fromB + start - size, hi - start);
+    }
+  }
+
+  /**
+   * Copies a range of indexes one chunk at a time.
+   */
+  @FunctionalInterface
+  interface Range {
+    /**
+     * Copies one chunk.
+     *
+     * @param lo first index
+     * @param hi last index, exclusive
+     */
+    void copy(int lo, int hi);
+  }
+
+  /**
+   * Runs {@code range} over {@code [from, to)} in a pool, a chunk per task,
+   * and waits for them all. Chunks end at multiples of
+   * {@link #PARALLEL_CHUNK}, moved up one when {@code from} is odd so that
+   * every chunk starts a pair.
+   *
+   * @param pool  where to copy
+   * @param from  first index
+   * @param to    last index, exclusive
+   * @param range copies one chunk
+   */
+  static void forEachChunk(ForkJoinPool pool, int from, int to, Range range) {
+    pool.invoke(new Chunk(from, to, from & 1, range));
+  }
+
+  /*
+   * Splits a range at a chunk boundary near its middle until it is one chunk.
+   */
+  private static final class Chunk extends RecursiveAction {
+    private final int lo, hi, parity;
+    private final Range range;
+
+    Chunk(int lo, int hi, int parity, Range range) {
+      this.lo = lo;
+      this.hi = hi;
+      this.parity = parity;
+      this.range = range;
+    }
+
+    @Override
+    protected void compute() {
+      int mid = (((lo + hi) >>> 1) & -PARALLEL_CHUNK) + parity;
+      if (mid <= lo) {
+        mid += PARALLEL_CHUNK;
+      }
+      if (mid <= lo || mid >= hi) {
+        range.copy(lo, hi);
+      } else {
+        invokeAll(new Chunk(lo, mid, parity, range),
+                  new Chunk(mid, hi, parity, range));
+      }
+    }
+  }
 }
@@ -0,0 +1,110 @@
+package net.jnellis.interleave;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed in-shuffles of every size below {@link #LIMIT}.
+ * <p>
+ * At a few dozen elements, finding shuffle primes or powers of 3, rotating
+ * and computing cycle indexes costs far more than moving the elements. The
+ * in-shuffle and folding in-shuffle of each small size are fixed
+ * permutations, so their cycles are worked out once, when this class loads,
+ * and written down as paths of indexes. Moving elements along a path is all
+ * that is left to do, the same for every algorithm. Out-shuffles are the
+ * in-shuffles of one less element, one element further on.
+ * <p>
+ * A path lists each cycle of the permutation, apart from elements that stay
+ * put, as the indexes it visits followed by {@code -1}. The element at each
+ * index is replaced by the one at the next index, and the last by the first.
+ *
+ * @see AbstractInterleaver
+ */
+final class SmallShuffles {
+
+  /**
+   * Sizes below this are shuffled from a table.
+   */
+  static final int LIMIT = 64;
+
+  private static final byte[][] PATHS = new byte[LIMIT][];
+  private static final byte[][] FOLDING_PATHS = new byte[LIMIT][];
+
+  static {
+    for (int n = 0; n < LIMIT; n++) {
+      PATHS[n] = compute(n, false);
+      FOLDING_PATHS[n] = compute(n, true);
+    }
+  }
+
+  private SmallShuffles() {}
+
+  /**
+   * Path of the in-shuffle, or folding in-shuffle, of a size below
+   * {@link #LIMIT}.
+   *
+   * @param size    number of elements
+   * @param folding whether the second half is taken in reverse
+   * @return the cycles of the shuffle
+   */
+  static byte[] path(int size, boolean folding) {
+    return folding ? FOLDING_PATHS[size] : PATHS[size];
+  }
+
+  /**
+   * Moves the elements of an array section along a path.
+   *
+   * @param a    the array
+   * @param from index of the first element of the section
+   * @param path cycles of the shuffle
+   */
+  static void interleave(Object[] a, int from, byte[] path) {
+    for (int p = 0; p < path.length; p++) {
+      int j = from + path[p];
+      Object first = a[j];
+      for (int next; (next = path[++p]) >= 0; ) {
+        a[j] = a[from + next];
+        j = from + next;
+      }
+      a[j] = first;
+    }
+  }
+
+  /*
+   * Works out the cycles of a shuffle by shuffling its indexes.
+   */
+  private static byte[] compute(int n, boolean folding) {
+    int[] index = new int[n];
+    for (int i = 0; i < n; i++) {
+      index[i] = i;
+    }
+    int half = n / 2;
+    if (folding) {
+      for (int i = half, j = n - 1; i < j; i++, j--) {
+        int t = index[i];
+        index[i] = index[j];
+        index[j] = t;
+      }
+    }
+    // source of the element that ends up at each index
+    int[] source = index.clone();
+    for (int k = 0; k < half; k++) {
+      source[2 * k] = index[half + k];
+      source[2 * k + 1] = index[k];
+    }
+
+    byte[] path = new byte[2 * n];
+    int length = 0;
+    boolean[] seen = new boolean[n];
+    for (int start = 0; start < n; start++) {
+      if (seen[start] || source[start] == start) {
+        continue;
+      }
+      for (int j = start; !seen[j]; j = source[j]) {
+        seen[j] = true;
+        path[length++] = (byte) j;
+      }
+      path[length++] = -1;
+    }
+    return Arrays.copyOf(path, length);
+  }
+}
@@ -0,0 +1,156 @@
+package net.jnellis.interleave;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * In-shuffle zip of the two halves of a {@code byte[]}, {@code char[]} or
+ * {@code short[]} section a {@code long} word at a time (SWAR, SIMD within a
+ * register).
+ * <p>
+ * Four elements from each half are spread apart with {@link Long#expand} so
+ * that one lands in the even lanes and the other in the odd lanes of a word,
+ * and the two are or'ed together. Bytes are read and written through a
+ * {@code long} view of the array itself. There is no such view of a
+ * {@code char[]} or {@code short[]}, so those are staged through byte arrays
+ * in chunks with bulk buffer copies.
+ * <p>
+ * As with {@link VectorKernels} only the first half of the section is
+ * copied, the zipped output always stays behind the second half elements
+ * still to be read.
+ */
+final class SwarKernels {
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+  private static final long ODD_BYTES = ~EVEN_BYTES;
+  private static final long EVEN_SHORTS = 0x0000FFFF0000FFFFL;
+  private static final long ODD_SHORTS = ~EVEN_SHORTS;
+
+  /**
+   * Number of 16 bit elements from each half staged at a time.
+   */
+  private static final int CHUNK = 1024;
+
+  private SwarKernels() {}
+
+  /**
+   * Word at a time in-shuffle zip of a {@code byte[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(byte[] a, int from, int to) {
+    final int halfSize = (to - from) / 2;
+    if (halfSize < Long.BYTES) {
+      ByteKernels.simple(a, from, to);
+      return;
+    }
+    byte[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    int k = 0;
+    for (int bound = halfSize & -Long.BYTES; k < bound; k += Long.BYTES) {
+      long x = (long) LONGS.get(a, from + halfSize + k);
+      long y = (long) LONGS.get(temp, k);
+      LONGS.set(a, from + 2 * k,
+                Long.expand(x, EVEN_BYTES) | Long.expand(y, ODD_BYTES));
+      LONGS.set(a, from + 2 * k + Long.BYTES,
+                Long.expand(x >>> 32, EVEN_BYTES) | Long.expand(y >>> 32, ODD_BYTES));
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  /**
+   * Word at a time in-shuffle zip of a {@code char[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(char[] a, int from, int to) {
+    final int halfSize = (to - from) / 2;
+    if (halfSize < 4) {
+      CharKernels.simple(a, from, to);
+      return;
+    }
+    char[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    byte[] lo = new byte[CHUNK * 2], hi = new byte[CHUNK * 2], out = new byte[CHUNK * 4];
+    CharBuffer loView = view(lo).asCharBuffer();
+    CharBuffer hiView = view(hi).asCharBuffer();
+    CharBuffer outView = view(out).asCharBuffer();
+    int k = 0;
+    for (int len; (len = Math.min(CHUNK, halfSize - k) & -4) > 0; k += len) {
+      loView.clear().put(temp, k, len);
+      hiView.clear().put(a, from + halfSize + k, len);
+      zipShorts(lo, hi, out, len * 2);
+      outView.clear().get(a, from + 2 * k, 2 * len);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  /**
+   * Word at a time in-shuffle zip of a {@code short[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(short[] a, int from, int to) {
+    final int halfSize = (to - from) / 2;
+    if (halfSize < 4) {
+      ShortKernels.simple(a, from, to);
+      return;
+    }
+    short[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    byte[] lo = new byte[CHUNK * 2], hi = new byte[CHUNK * 2], out = new byte[CHUNK * 4];
+    ShortBuffer loView = view(lo).asShortBuffer();
+    ShortBuffer hiView = view(hi).asShortBuffer();
+    ShortBuffer outView = view(out).asShortBuffer();
+    int k = 0;
+    for (int len; (len = Math.min(CHUNK, halfSize - k) & -4) > 0; k += len) {
+      loView.clear().put(temp, k, len);
+      hiView.clear().put(a, from + halfSize + k, len);
+      zipShorts(lo, hi, out, len * 2);
+      outView.clear().get(a, from + 2 * k, 2 * len);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  private static ByteBuffer view(byte[] bytes) {
+    return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /*
+   * Zips staged 16 bit elements, hi into the even lanes and lo into the odd
+   * lanes of out. The length in bytes is a multiple of 8.
+   */
+  private static void zipShorts(byte[] lo, byte[] hi, byte[] out, int bytes) {
+    for (int j = 0; j < bytes; j += Long.BYTES) {
+      long x = (long) LONGS.get(hi, j);
+      long y = (long) LONGS.get(lo, j);
+      LONGS.set(out, 2 * j,
+                Long.expand(x, EVEN_SHORTS) | Long.expand(y, ODD_SHORTS));
+      LONGS.set(out, 2 * j + Long.BYTES,
+                Long.expand(x >>> 32, EVEN_SHORTS) | Long.expand(y >>> 32, ODD_SHORTS));
+    }
+  }
+}
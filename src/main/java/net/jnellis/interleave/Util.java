@@ -1,7 +1,11 @@
 package net.jnellis.interleave;
 
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Some static utility functions used by interleaving algorithms.
@@ -12,9 +16,23 @@ public final class Util {
       19683, 59049, 177147, 531441, 1594323, 4782969, 14348907, 43046721,
       129140163, 387420489, 1162261467};
 
+  /* All powers of 3 (64-bit signed) */
+  static final long[] POW3_LONG = {1, 3, 9, 27, 81, 243, 729, 2187, 6561,
+      19683, 59049, 177147, 531441, 1594323, 4782969, 14348907, 43046721,
+      129140163, 387420489, 1162261467, 3486784401L, 10460353203L,
+      31381059609L, 94143178827L, 282429536481L, 847288609443L, 2541865828329L,
+      7625597484987L, 22876792454961L, 68630377364883L, 205891132094649L,
+      617673396283947L, 1853020188851841L, 5559060566555523L,
+      16677181699666569L, 50031545098999707L, 150094635296999121L,
+      450283905890997363L, 1350851717672992089L, 4052555153018976267L};
+
   /* Approximate value of log(2)/log(3) = 323/512 */
   private static final int LN2_DIV_LN3_NUMERATOR = 323;
 
+  /* Buffer for BUFFERED rotations, one per thread so they don't allocate */
+  private static final ThreadLocal<Object[]> SCRATCH =
+      ThreadLocal.withInitial(() -> new Object[Rotation.BUFFER_LIMIT]);
+
   private Util() {}
 
   /**
@@ -84,16 +102,32 @@ public final class Util {
    * @param <T>      type of element in lists
    */
   public static <T> void rotate(List<T> a, List<T> b, int distance) {
-    int dist = distance;
+    rotate(a, b, distance, Rotation.AUTO);
+  }
+
+  /**
+   * Rotate, in-place, across two lists with the given strategy.
+   *
+   * @param a        first list
+   * @param b        second list
+   * @param distance distance to rotate
+   * @param rotation rotation strategy
+   * @param <T>      type of element in lists
+   * @see #rotate(List, List, int)
+   */
+  public static <T> void rotate(List<T> a, List<T> b, int distance,
+                                Rotation rotation) {
     int aSize = a.size();
     int size = aSize + b.size();
     if (size == 0)
       return;
-    dist = dist % size;
-    if (dist < 0)
-      dist += size;
+    int dist = Rotation.normalize(distance, size);
     if (dist == 0)
       return;
+    if (rotation.resolve(size, dist) != Rotation.JUGGLING) {
+      rotate(new Concatenation<>(a, b), dist, rotation);
+      return;
+    }
 
     int nMoved = 0;
     for (int cycleStart = 0; nMoved != size; cycleStart++) {
@@ -114,6 +148,135 @@ public final class Util {
     }
   }
 
+  /**
+   * Rotate elements in a list like {@link Collections#rotate(List, int)},
+   * choosing the strategy by size.
+   *
+   * @param list     list to rotate
+   * @param distance distance to rotate
+   * @param <T>      type of element in list
+   * @see Rotation#AUTO
+   */
+  public static <T> void rotate(List<T> list, int distance) {
+    rotate(list, distance, Rotation.AUTO);
+  }
+
+  /**
+   * Rotate elements in a list like {@link Collections#rotate(List, int)} with
+   * the given strategy. Lists without random access are rotated by
+   * {@link Collections#rotate(List, int)} for every strategy but
+   * {@link Rotation#REVERSAL} and {@link Rotation#PARALLEL}.
+   *
+   * @param list     list to rotate
+   * @param distance distance to rotate
+   * @param rotation rotation strategy
+   * @param <T>      type of element in list
+   */
+  public static <T> void rotate(List<T> list, int distance, Rotation rotation) {
+    int size = list.size();
+    if (size == 0)
+      return;
+    int dist = Rotation.normalize(distance, size);
+    if (dist == 0)
+      return;
+    Rotation r = rotation.resolve(size, dist);
+    if (r == Rotation.REVERSAL || r == Rotation.PARALLEL) {
+      Collections.reverse(list.subList(0, size - dist));
+      Collections.reverse(list.subList(size - dist, size));
+      Collections.reverse(list);
+    } else if (r == Rotation.JUGGLING || !(list instanceof RandomAccess)) {
+      Collections.rotate(list, dist);
+    } else {
+      blockSwap(list, 0, size - dist, dist,
+                r == Rotation.BUFFERED ? Rotation.BUFFER_LIMIT : 0);
+    }
+  }
+
+  /*
+   * Gries-Mills block swap of the l elements at i with the r elements after
+   * them, the same as for arrays below.
+   */
+  private static <T> void blockSwap(List<T> list, int i, int l, int r, int limit) {
+    while (Math.min(l, r) > limit) {
+      if (l <= r) {
+        int n = r - r % l;
+        for (int k = 0; k < n; k++)
+          Collections.swap(list, i + k, i + l + k);
+        i += n;
+        r -= n;
+      } else {
+        int n = l - l % r;
+        for (int k = l - 1; k >= l - n; k--)
+          Collections.swap(list, i + k, i + r + k);
+        l -= n;
+      }
+    }
+    if (l < r) {
+      if (l == 0)
+        return;
+      Object[] temp = SCRATCH.get();
+      for (int k = 0; k < l; k++)
+        temp[k] = list.get(i + k);
+      for (int k = 0; k < r; k++)
+        list.set(i + k, list.get(i + l + k));
+      writeBack(list, i + r, temp, l);
+    } else {
+      if (r == 0)
+        return;
+      Object[] temp = SCRATCH.get();
+      for (int k = 0; k < r; k++)
+        temp[k] = list.get(i + l + k);
+      for (int k = l - 1; k >= 0; k--)
+        list.set(i + r + k, list.get(i + k));
+      writeBack(list, i, temp, r);
+    }
+  }
+
+  /*
+   * Copies len elements of the scratch array into the list at 'at', clearing
+   * them so the scratch doesn't hold on to anything.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> void writeBack(List<T> list, int at, Object[] temp,
+                                    int len) {
+    for (int k = 0; k < len; k++) {
+      list.set(at + k, (T) temp[k]);
+      temp[k] = null;
+    }
+  }
+
+  /*
+   * Read/write view of two lists one after the other, so the list rotation
+   * strategies can rotate across both.
+   */
+  private static final class Concatenation<T> extends AbstractList<T>
+      implements RandomAccess {
+    private final List<T> a, b;
+
+    Concatenation(List<T> a, List<T> b) {
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    public T get(int index) {
+      int aSize = a.size();
+      return index < aSize ? a.get(index) : b.get(index - aSize);
+    }
+
+    @Override
+    public T set(int index, T element) {
+      int aSize = a.size();
+      return index < aSize ? a.set(index, element)
+                           : b.set(index - aSize, element);
+    }
+
+    @Override
+    public int size() {
+      return a.size() + b.size();
+    }
+  }
+
   /**
    * Rotate elements in an array similar to
    * {@link Collections#rotate(List, int)}
@@ -129,7 +292,7 @@ public final class Util {
 
   /**
    * Rotate elements in an array similar to
-   * {@link Collections#rotate(List, int)}
+   * {@link Collections#rotate(List, int)}, choosing the strategy by size.
    *
    * @param array    array to rotate
    * @param from     starting index to rotate
@@ -137,17 +300,37 @@ public final class Util {
    * @param distance distance to rotate
    * @param <T>      array element type
    * @see Collections#rotate(List, int)
+   * @see Rotation#AUTO
    */
   public static <T> void rotate(T[] array, int from, int to, int distance) {
-    int dist = distance;
+    rotate(array, from, to, distance, Rotation.AUTO);
+  }
+
+  /**
+   * Rotate elements in an array similar to
+   * {@link Collections#rotate(List, int)} with the given strategy.
+   *
+   * @param array    array to rotate
+   * @param from     starting index to rotate
+   * @param to       ending index to rotate, exclusive
+   * @param distance distance to rotate
+   * @param rotation rotation strategy
+   * @param <T>      array element type
+   * @see Collections#rotate(List, int)
+   */
+  public static <T> void rotate(T[] array, int from, int to, int distance,
+                                Rotation rotation) {
     int size = to - from;
     if (size == 0)
       return;
-    dist = dist % size;
-    if (dist < 0)
-      dist += size;
+    int dist = Rotation.normalize(distance, size);
     if (dist == 0)
       return;
+    Rotation r = rotation.resolve(size, dist);
+    if (r != Rotation.JUGGLING) {
+      rotateConcatenated(array, from, size, array, from, size, dist, r);
+      return;
+    }
 
     int nMoved = 0;
     for (int cycleStart = 0; nMoved != size; cycleStart++) {
@@ -190,21 +373,266 @@ public final class Util {
                                 int fromB,
                                 int toB,
                                 int distance) {
-    int dist = distance;
+    rotate(a, fromA, toA, b, fromB, toB, distance, Rotation.AUTO);
+  }
+
+  /**
+   * Rotate, in-place, across two arrays with the given strategy.
+   *
+   * @param a        First array
+   * @param fromA    start index of first array
+   * @param toA      end index of first array, exclusive
+   * @param b        Second array
+   * @param fromB    start index of second array
+   * @param toB      end index of second array, exclusive
+   * @param distance distance to rotate
+   * @param rotation rotation strategy
+   * @param <T>      array element type
+   * @see #rotate(Object[], int, int, Object[], int, int, int)
+   */
+  public static <T> void rotate(T[] a,
+                                int fromA,
+                                int toA,
+                                T[] b,
+                                int fromB,
+                                int toB,
+                                int distance,
+                                Rotation rotation) {
     int aSize = toA - fromA;
     int size = aSize + (toB - fromB);
     if (size == 0)
       return;
-    dist = dist % size;
-    if (dist < 0)
-      dist += size;
+    int dist = Rotation.normalize(distance, size);
     if (dist == 0)
       return;
+    Rotation r = rotation.resolve(size, dist);
+    rotateConcatenated(a, fromA, aSize, b, fromB, size, dist, r);
+  }
 
+  /*
+   * The sequential strategies work on the aSize elements of 'a' followed by
+   * the rest of the size elements in 'b', one array section being the case
+   * where all of them are in 'a'. Each helper splits its work where it
+   * crosses from 'a' into 'b' so the inner loops are plain array accesses.
+   */
+  private static void rotateConcatenated(Object[] a, int fromA, int aSize,
+                                         Object[] b, int fromB, int size,
+                                         int dist, Rotation rotation) {
+    int l = size - dist;
+    switch (rotation) {
+      case REVERSAL -> {
+        reversePairs(a, fromA, aSize, b, fromB, 0, l, l / 2);
+        reversePairs(a, fromA, aSize, b, fromB, l, size, dist / 2);
+        reversePairs(a, fromA, aSize, b, fromB, 0, size, size / 2);
+      }
+      case PARALLEL -> {
+        parallelReverse(a, fromA, aSize, b, fromB, 0, l);
+        parallelReverse(a, fromA, aSize, b, fromB, l, size);
+        parallelReverse(a, fromA, aSize, b, fromB, 0, size);
+      }
+      case JUGGLING -> juggle(a, fromA, aSize, b, fromB, size, dist);
+      case BLOCK_SWAP -> blockSwap(a, fromA, aSize, b, fromB, l, dist, 0);
+      case BUFFERED -> blockSwap(a, fromA, aSize, b, fromB, l, dist,
+                                 Rotation.BUFFER_LIMIT);
+      default -> throw new IllegalArgumentException(rotation.name());
+    }
+  }
+
+  /*
+   * Swaps element lo + t with element hi - 1 - t for each t below pairs.
+   */
+  private static void reversePairs(Object[] a, int fromA, int aSize,
+                                   Object[] b, int fromB,
+                                   int lo, int hi, int pairs) {
+    while (pairs > 0) {
+      int run = pairs;
+      if (lo < aSize)
+        run = Math.min(run, aSize - lo);
+      if (hi > aSize)
+        run = Math.min(run, hi - aSize);
+      Object[] x = lo < aSize ? a : b;
+      int xi = lo < aSize ? fromA + lo : fromB + lo - aSize;
+      Object[] y = hi > aSize ? b : a;
+      int yi = hi > aSize ? fromB + hi - 1 - aSize : fromA + hi - 1;
+      for (int t = 0; t < run; t++) {
+        swap(x, xi + t, y, yi - t);
+      }
+      lo += run;
+      hi -= run;
+      pairs -= run;
+    }
+  }
+
+  private static void parallelReverse(Object[] a, int fromA, int aSize,
+                                      Object[] b, int fromB, int lo, int hi) {
+    Rotation.parallel((hi - lo) / 2, (t0, t1) ->
+        reversePairs(a, fromA, aSize, b, fromB, lo + t0, hi - t0, t1 - t0));
+  }
+
+  /*
+   * Swaps element i + t with element j + t for increasing t below len. When
+   * the two overlap this slides the j - i elements at i past the rest.
+   */
+  private static void swapBlocks(Object[] a, int fromA, int aSize,
+                                 Object[] b, int fromB,
+                                 int i, int j, int len) {
+    while (len > 0) {
+      int run = len;
+      if (i < aSize)
+        run = Math.min(run, aSize - i);
+      if (j < aSize)
+        run = Math.min(run, aSize - j);
+      Object[] x = i < aSize ? a : b;
+      int xi = i < aSize ? fromA + i : fromB + i - aSize;
+      Object[] y = j < aSize ? a : b;
+      int yj = j < aSize ? fromA + j : fromB + j - aSize;
+      for (int t = 0; t < run; t++) {
+        swap(x, xi + t, y, yj + t);
+      }
+      i += run;
+      j += run;
+      len -= run;
+    }
+  }
+
+  /*
+   * Same as swapBlocks for decreasing t, sliding the elements at j back
+   * past the rest instead.
+   */
+  private static void swapBlocksBackward(Object[] a, int fromA, int aSize,
+                                         Object[] b, int fromB,
+                                         int i, int j, int len) {
+    while (len > 0) {
+      int run = len, iEnd = i + len, jEnd = j + len;
+      if (iEnd > aSize)
+        run = Math.min(run, iEnd - aSize);
+      if (jEnd > aSize)
+        run = Math.min(run, jEnd - aSize);
+      int s = iEnd - run, d = jEnd - run;
+      Object[] x = s < aSize ? a : b;
+      int xi = s < aSize ? fromA + s : fromB + s - aSize;
+      Object[] y = d < aSize ? a : b;
+      int yj = d < aSize ? fromA + d : fromB + d - aSize;
+      for (int t = run - 1; t >= 0; t--) {
+        swap(x, xi + t, y, yj + t);
+      }
+      len -= run;
+    }
+  }
+
+  /*
+   * Like System.arraycopy within the concatenated sections, copies len
+   * elements starting at src to dst, overlapping or not.
+   */
+  private static void move(Object[] a, int fromA, int aSize,
+                           Object[] b, int fromB,
+                           int src, int dst, int len) {
+    if (dst < src) {
+      while (len > 0) {
+        int run = len;
+        if (src < aSize)
+          run = Math.min(run, aSize - src);
+        if (dst < aSize)
+          run = Math.min(run, aSize - dst);
+        System.arraycopy(src < aSize ? a : b,
+                         src < aSize ? fromA + src : fromB + src - aSize,
+                         dst < aSize ? a : b,
+                         dst < aSize ? fromA + dst : fromB + dst - aSize, run);
+        src += run;
+        dst += run;
+        len -= run;
+      }
+    } else {
+      while (len > 0) {
+        int run = len, srcEnd = src + len, dstEnd = dst + len;
+        if (srcEnd > aSize)
+          run = Math.min(run, srcEnd - aSize);
+        if (dstEnd > aSize)
+          run = Math.min(run, dstEnd - aSize);
+        int s = srcEnd - run, d = dstEnd - run;
+        System.arraycopy(s < aSize ? a : b,
+                         s < aSize ? fromA + s : fromB + s - aSize,
+                         d < aSize ? a : b,
+                         d < aSize ? fromA + d : fromB + d - aSize, run);
+        len -= run;
+      }
+    }
+  }
+
+  /*
+   * Copies len elements starting at i into temp, or back out of it.
+   */
+  private static void transfer(Object[] a, int fromA, int aSize,
+                               Object[] b, int fromB,
+                               int i, Object[] temp, int len, boolean out) {
+    int inA = Math.max(0, Math.min(len, aSize - i));
+    if (inA > 0) {
+      if (out)
+        System.arraycopy(a, fromA + i, temp, 0, inA);
+      else
+        System.arraycopy(temp, 0, a, fromA + i, inA);
+    }
+    if (len > inA) {
+      int j = fromB + i + inA - aSize;
+      if (out)
+        System.arraycopy(b, j, temp, inA, len - inA);
+      else
+        System.arraycopy(temp, inA, b, j, len - inA);
+    }
+  }
+
+  /*
+   * Gries-Mills block swap of the first l elements with the r elements
+   * after them. The shorter side is slid past as many of its own lengths of
+   * the longer side as fit, leaving a smaller rotation of the remainder, until
+   * it is no more than limit elements and goes through the scratch array.
+   */
+  private static void blockSwap(Object[] a, int fromA, int aSize,
+                                Object[] b, int fromB,
+                                int l, int r, int limit) {
+    int i = 0;
+    while (Math.min(l, r) > limit) {
+      if (l <= r) {
+        int n = r - r % l;
+        swapBlocks(a, fromA, aSize, b, fromB, i, i + l, n);
+        i += n;
+        r -= n;
+      } else {
+        int n = l - l % r;
+        swapBlocksBackward(a, fromA, aSize, b, fromB, i + l - n, i + l - n + r, n);
+        l -= n;
+      }
+    }
+    if (l < r) {
+      if (l == 0)
+        return;
+      Object[] temp = SCRATCH.get();
+      transfer(a, fromA, aSize, b, fromB, i, temp, l, true);
+      move(a, fromA, aSize, b, fromB, i + l, i, r);
+      transfer(a, fromA, aSize, b, fromB, i + r, temp, l, false);
+      Arrays.fill(temp, 0, l, null);
+    } else {
+      if (r == 0)
+        return;
+      Object[] temp = SCRATCH.get();
+      transfer(a, fromA, aSize, b, fromB, i + l, temp, r, true);
+      move(a, fromA, aSize, b, fromB, i, i + r, l);
+      transfer(a, fromA, aSize, b, fromB, i, temp, r, false);
+      Arrays.fill(temp, 0, r, null);
+    }
+  }
+
+  /*
+   * Juggling rotation right by dist, following each cycle from one section
+   * into the other.
+   */
+  private static void juggle(Object[] a, int fromA, int aSize,
+                             Object[] b, int fromB,
+                             int size, int dist) {
     int nMoved = 0;
     for (int cycleStart = 0; nMoved != size; cycleStart++) {
-      T displaced = cycleStart >= aSize ? b[fromB + cycleStart - aSize]
-                                        : a[fromA + cycleStart];
+      Object displaced = cycleStart >= aSize ? b[fromB + cycleStart - aSize]
+                                             : a[fromA + cycleStart];
       int i = cycleStart;
       do {
         i += dist;
@@ -212,12 +640,12 @@ public final class Util {
           i -= size;
         if (i >= aSize) {
           int idx = fromB + i - aSize;
-          T temp = b[idx];
+          Object temp = b[idx];
           b[idx] = displaced;
           displaced = temp;
         } else {
           int idx = fromA + i;
-          T temp = a[idx];
+          Object temp = a[idx];
           a[idx] = displaced;
           displaced = temp;
         }
@@ -241,6 +669,16 @@ public final class Util {
     return n >> (Integer.numberOfTrailingZeros(~n) + 1);
   }
 
+  /**
+   * 64-bit version of {@link #a025480(int)}.
+   *
+   * @param n index on the left side to swap
+   * @return index on the right side to swap (plus any midpoint offset)
+   */
+  public static long a025480(long n) {
+    return n >> (Long.numberOfTrailingZeros(~n) + 1);
+  }
+
   /**
    * Fast log base 2 for integers
    *
@@ -252,6 +690,16 @@ public final class Util {
     return i == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(i);
   }
 
+  /**
+   * Fast log base 2 for longs
+   *
+   * @param i value
+   * @return the base 2 logarithm of i
+   */
+  public static int ilog2(long i) {
+    //noinspection MagicNumber
+    return i == 0 ? 0 : 63 - Long.numberOfLeadingZeros(i);
+  }
 
   /**
    * Lemire's <a href="https://arxiv.org/abs/1902.01961">
@@ -283,6 +731,43 @@ public final class Util {
     return (int) (highbits);//- (( pd - 1) & ( n >> 31)));
   }
 
+  /**
+   * 64-bit version of {@link #fastmod(int, long, int)}, for unsigned
+   * dividends and positive divisors up to {@code Long.MAX_VALUE}. The
+   * multiplicative inverse is 128 bits, split into a high and low
+   * {@code long} by {@link #fastmodConstant(long)}.
+   *
+   * @param n   the dividend, unsigned
+   * @param cHi high 64 bits of the multiplicative inverse of the divisor
+   * @param cLo low 64 bits of the multiplicative inverse of the divisor
+   * @param d   the divisor, positive and not a power of 2
+   * @return remainder of n % d
+   */
+  public static long fastmod(long n, long cHi, long cLo, long d) {
+    // lowbits = c * n, mod 2^128
+    long lo = cLo * n;
+    long hi = Math.unsignedMultiplyHigh(cLo, n) + cHi * n;
+    // (lowbits * d) >> 128
+    long mid = hi * d;
+    long sum = mid + Math.unsignedMultiplyHigh(lo, d);
+    long carry = Long.compareUnsigned(sum, mid) < 0 ? 1 : 0;
+    return Math.unsignedMultiplyHigh(hi, d) + carry;
+  }
+
+  /**
+   * Multiplicative inverse of a divisor for
+   * {@link #fastmod(long, long, long, long)}, {@code (2^128 - 1) / d + 1}.
+   *
+   * @param d the divisor, positive and not a power of 2
+   * @return high and low 64 bits of the inverse, in that order
+   */
+  public static long[] fastmodConstant(long d) {
+    BigInteger c = BigInteger.ONE.shiftLeft(128)
+                                 .subtract(BigInteger.ONE)
+                                 .divide(BigInteger.valueOf(d))
+                                 .add(BigInteger.ONE);
+    return new long[]{c.shiftRight(64).longValue(), c.longValue()};
+  }
 
   /**
    * Fast log base 3 for integers
@@ -303,26 +788,43 @@ public final class Util {
     return (i < POW3[t]) ? t - 1 : t;
   }
 
+  /**
+   * Fast log base 3 for longs
+   *
+   * @param i value
+   * @return the base 3 logarithm of i
+   * @see #ilog3(int)
+   */
+  public static int ilog3(long i) {
+    int t = ((ilog2(i) + 1) * LN2_DIV_LN3_NUMERATOR) >>> 9;
+    return (i < POW3_LONG[t]) ? t - 1 : t;
+  }
+
   /**
    * Determines if {@code n} is a <a href="https://oeis.org/A163782">
-   * Josephus2_prime</a>
+   * Josephus2_prime</a>, by testing that 2n+1 is a prime with 2 as a
+   * primitive root rather than walking the a025480 cycle.
    *
-   * @param n constraint on n is that 2n+1 is prime
+   * @param n number to test
    * @return true if n is a J2 prime
    */
   public static boolean isJ2Prime(int n) {
-    int count = 0, leader = 0;
-//    if (n % 4 == 1 || n % 4 == 2) {
-      do {
-        leader = Util.a025480(leader + n);
-        count++;
-      } while (leader != 0);
-//    }
-    return count == n;
+    return Primes.isJ2Prime(n);
   }
 
   /**
-   * Descending brute force test for Josephus_2 prime numbers
+   * 64-bit version of {@link #isJ2Prime(int)}
+   *
+   * @param n number to test
+   * @return true if n is a J2 prime
+   */
+  public static boolean isJ2Prime(long n) {
+    return Primes.isJ2Prime(n);
+  }
+
+  /**
+   * Descending search for Josephus_2 prime numbers. Recent results are
+   * remembered, so interleaving the same size again doesn't search again.
    *
    * @param n Starting number to test
    * @return first J2 prime found less than or equal to {@code n}
@@ -332,12 +834,17 @@ public final class Util {
     // josehpus and shuffle interleavers to pass through
     // to a one final swap condition when the size left
     // less than 4 elements. When n is 1, 1 is returned.
-    do {
-      if((n % 4 == 1 || n % 4 == 2) && isJ2Prime(n)){
-        return n;
-      }
-    } while (n-- > 2);
-    return 0;
+    return (int) Primes.findNextLowestJ2Prime(n);
+  }
+
+  /**
+   * 64-bit version of {@link #findNextLowestJ2Prime(int)}
+   *
+   * @param n Starting number to test
+   * @return first J2 prime found less than or equal to {@code n}
+   */
+  public static long findNextLowestJ2Prime(long n) {
+    return Primes.findNextLowestJ2Prime(n);
   }
 
   /**
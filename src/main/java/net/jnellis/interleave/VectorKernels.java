@@ -0,0 +1,190 @@
+package net.jnellis.interleave;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * In-shuffle zip of the two halves of an array section using the
+ * <a href="https://openjdk.org/jeps/426">Vector API</a>.
+ * <p>
+ * Like {@link SimpleInterleaver} a temporary array is used, but only for the
+ * first half of the section. The zipped output is written from the front of
+ * the section and always stays behind the second half elements still to be
+ * read, so those are loaded straight from the array. A vector of lanes is
+ * loaded from each half, and lane rearranges and blends write out two
+ * interleaved vectors at a time. Any tail shorter
+ * than a vector is written with scalar code, and so is the whole section when
+ * the preferred species for a type holds fewer than two lanes.
+ * <p>
+ * Needs the {@code jdk.incubator.vector} module at runtime, which is only
+ * checked for by {@link PrimitiveArrayInShuffleInterleavers#vector}.
+ */
+final class VectorKernels {
+
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+  private static final VectorShuffle<Integer> INTS_LO = zipLow(INTS);
+  private static final VectorShuffle<Integer> INTS_HI = zipHigh(INTS);
+  private static final VectorMask<Integer> INTS_ODD = oddLanes(INTS);
+  private static final VectorShuffle<Long> LONGS_LO = zipLow(LONGS);
+  private static final VectorShuffle<Long> LONGS_HI = zipHigh(LONGS);
+  private static final VectorMask<Long> LONGS_ODD = oddLanes(LONGS);
+  private static final VectorShuffle<Float> FLOATS_LO = zipLow(FLOATS);
+  private static final VectorShuffle<Float> FLOATS_HI = zipHigh(FLOATS);
+  private static final VectorMask<Float> FLOATS_ODD = oddLanes(FLOATS);
+  private static final VectorShuffle<Double> DOUBLES_LO = zipLow(DOUBLES);
+  private static final VectorShuffle<Double> DOUBLES_HI = zipHigh(DOUBLES);
+  private static final VectorMask<Double> DOUBLES_ODD = oddLanes(DOUBLES);
+
+  private VectorKernels() {}
+
+  /*
+   * Lane i of a zipped vector comes from lane i/2 of one of the halves, so
+   * both halves get the same rearrange and the results are blended. Even
+   * lanes come from x, the second half of the section, and odd lanes from y,
+   * the first half, which is the in-shuffle order. The low shuffle zips the
+   * low half of the lanes of each vector, the high shuffle the high half.
+   */
+  private static <E> VectorShuffle<E> zipLow(VectorSpecies<E> species) {
+    return VectorShuffle.fromOp(species, i -> i >> 1);
+  }
+
+  private static <E> VectorShuffle<E> zipHigh(VectorSpecies<E> species) {
+    int half = species.length() >> 1;
+    return VectorShuffle.fromOp(species, i -> half + (i >> 1));
+  }
+
+  private static <E> VectorMask<E> oddLanes(VectorSpecies<E> species) {
+    boolean[] odd = new boolean[species.length()];
+    for (int i = 1; i < odd.length; i += 2) {
+      odd[i] = true;
+    }
+    return VectorMask.fromArray(species, odd, 0);
+  }
+
+  /**
+   * Vectorized in-shuffle zip of an {@code int[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(int[] a, int from, int to) {
+    final int vlen = INTS.length();
+    final int halfSize = (to - from) / 2;
+    if (vlen < 2 || halfSize < vlen) {
+      IntKernels.simple(a, from, to);
+      return;
+    }
+    int[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    int k = 0;
+    for (int bound = INTS.loopBound(halfSize); k < bound; k += vlen) {
+      IntVector x = IntVector.fromArray(INTS, a, from + halfSize + k);
+      IntVector y = IntVector.fromArray(INTS, temp, k);
+      x.rearrange(INTS_LO).blend(y.rearrange(INTS_LO), INTS_ODD).intoArray(a, from + 2 * k);
+      x.rearrange(INTS_HI).blend(y.rearrange(INTS_HI), INTS_ODD).intoArray(a, from + 2 * k + vlen);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  /**
+   * Vectorized in-shuffle zip of a {@code long[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(long[] a, int from, int to) {
+    final int vlen = LONGS.length();
+    final int halfSize = (to - from) / 2;
+    if (vlen < 2 || halfSize < vlen) {
+      LongKernels.simple(a, from, to);
+      return;
+    }
+    long[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    int k = 0;
+    for (int bound = LONGS.loopBound(halfSize); k < bound; k += vlen) {
+      LongVector x = LongVector.fromArray(LONGS, a, from + halfSize + k);
+      LongVector y = LongVector.fromArray(LONGS, temp, k);
+      x.rearrange(LONGS_LO).blend(y.rearrange(LONGS_LO), LONGS_ODD).intoArray(a, from + 2 * k);
+      x.rearrange(LONGS_HI).blend(y.rearrange(LONGS_HI), LONGS_ODD).intoArray(a, from + 2 * k + vlen);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  /**
+   * Vectorized in-shuffle zip of a {@code float[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(float[] a, int from, int to) {
+    final int vlen = FLOATS.length();
+    final int halfSize = (to - from) / 2;
+    if (vlen < 2 || halfSize < vlen) {
+      FloatKernels.simple(a, from, to);
+      return;
+    }
+    float[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    int k = 0;
+    for (int bound = FLOATS.loopBound(halfSize); k < bound; k += vlen) {
+      FloatVector x = FloatVector.fromArray(FLOATS, a, from + halfSize + k);
+      FloatVector y = FloatVector.fromArray(FLOATS, temp, k);
+      x.rearrange(FLOATS_LO).blend(y.rearrange(FLOATS_LO), FLOATS_ODD).intoArray(a, from + 2 * k);
+      x.rearrange(FLOATS_HI).blend(y.rearrange(FLOATS_HI), FLOATS_ODD).intoArray(a, from + 2 * k + vlen);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+
+  /**
+   * Vectorized in-shuffle zip of a {@code double[]} section.
+   *
+   * @param a    the array
+   * @param from starting index
+   * @param to   ending index (exclusive)
+   * @see SimpleInterleaver
+   */
+  static void zip(double[] a, int from, int to) {
+    final int vlen = DOUBLES.length();
+    final int halfSize = (to - from) / 2;
+    if (vlen < 2 || halfSize < vlen) {
+      DoubleKernels.simple(a, from, to);
+      return;
+    }
+    double[] temp = Arrays.copyOfRange(a, from, from + halfSize);
+    int k = 0;
+    for (int bound = DOUBLES.loopBound(halfSize); k < bound; k += vlen) {
+      DoubleVector x = DoubleVector.fromArray(DOUBLES, a, from + halfSize + k);
+      DoubleVector y = DoubleVector.fromArray(DOUBLES, temp, k);
+      x.rearrange(DOUBLES_LO).blend(y.rearrange(DOUBLES_LO), DOUBLES_ODD).intoArray(a, from + 2 * k);
+      x.rearrange(DOUBLES_HI).blend(y.rearrange(DOUBLES_HI), DOUBLES_ODD).intoArray(a, from + 2 * k + vlen);
+    }
+    for (int i = from + 2 * k; k < halfSize; i += 2, k++) {
+      a[i] = a[from + halfSize + k];
+      a[i + 1] = temp[k];
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package net.jnellis.interleave
+
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * {@link BatchInterleavers} gives the same results as interleaving each
+ * record on its own.
+ */
+class BatchInterleaverTest extends InterleaversBase {
+
+  @Shared
+  @AutoCleanup("shutdown")
+  def pool = new ForkJoinPool(4)
+
+  @Shared
+  int[] offsets = [1, 1, 2, 5, 9, 40, 41, 141, 1141, 1144]
+
+  @Unroll("#featureName[#iterationIndex] #shuffle pool: #withPool")
+  def "records of a flat array"() {
+    given:
+    int size = offsets[-1] + 3
+    Integer[] expected = (0..<size).toArray(new Integer[0])
+    Integer[] objects = expected.clone()
+    long[] longs = expected as long[]
+    (0..<offsets.length - 1).each {
+      Interleavers.SHUFFLE.interleave(expected, offsets[it], offsets[it + 1], shuffle)
+    }
+    when:
+    BatchInterleavers.interleave(objects, offsets, shuffle, withPool ? pool : null, 8)
+    BatchInterleavers.interleave(longs, offsets, shuffle, withPool ? pool : null, 8)
+    then:
+    objects == expected
+    longs == expected as long[]
+    where:
+    [shuffle, withPool] << [Shuffle.values(), [false, true]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #shuffle pool: #withPool")
+  def "sections of separate arrays"() {
+    given:
+    Integer[] objects = (0..<30).toArray(new Integer[0])
+    short[] shorts = (0..<17) as short[]
+    byte[] bytes = (0..<64) as byte[]
+    Object[] arrays = [objects, shorts, bytes, objects]
+    int[] from = [0, 3, 1, 20]
+    int[] to = [11, 17, 64, 30]
+    def expected = [objects.clone(), shorts.clone(), bytes.clone()]
+    Interleavers.SHUFFLE.interleave(expected[0], 0, 11, shuffle)
+    Interleavers.SHUFFLE.interleave(expected[1], 3, 17, shuffle)
+    Interleavers.SHUFFLE.interleave(expected[2], 1, 64, shuffle)
+    Interleavers.SHUFFLE.interleave(expected[0], 20, 30, shuffle)
+    when:
+    BatchInterleavers.interleave(arrays, from, to, shuffle, withPool ? pool : null, 8)
+    then:
+    objects == expected[0]
+    shorts == expected[1]
+    bytes == expected[2]
+    where:
+    [shuffle, withPool] << [Shuffle.values(), [false, true]].combinations()
+  }
+
+  def "bad batches are rejected before anything is shuffled"() {
+    given:
+    int[] ints = 0..<10
+    when:
+    BatchInterleavers.interleave(ints, table as int[], Shuffle.IN)
+    then:
+    thrown(exception)
+    ints == (0..<10) as int[]
+    where:
+    table         | exception
+    [0, 4, 2]     | IllegalArgumentException
+    [0, 4, 11]    | IndexOutOfBoundsException
+    [-1, 4]       | IndexOutOfBoundsException
+  }
+
+  def "only arrays can be shuffled"() {
+    when:
+    BatchInterleavers.interleave([new int[4], "not an array"] as Object[],
+                                 [0, 0] as int[], [4, 2] as int[], Shuffle.IN)
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,83 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.Unroll
+
+/**
+ * Segmented big array interleaving with {@code long} indexes, see
+ * {@link BigArrayInterleavers}.
+ */
+class BigArrayInterleaverTest extends InterleaversBase {
+
+  @Shared
+  def inPlace = [Interleavers.SEQUENCE, Interleavers.RECURSIVE,
+                 Interleavers.PERMUTATION, Interleavers.SHUFFLE,
+                 Interleavers.JOSEPHUS]
+
+  static BigArray<Integer> big(List<Integer> elements, int shift) {
+    def big = new BigArray<Integer>(elements.size(), shift)
+    big.setAll { elements[it as int] }
+    return big
+  }
+
+  static List<Integer> list(BigArray<Integer> big) {
+    (0L..<big.length()).collect { big.get(it) }
+  }
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName size #size #shuffle")
+  def "big arrays shuffle like arrays"() {
+    given: "segments of 8 elements, so most sections cross a few"
+    Integer[] expected = [-1] + (0..<size) + [-2]
+    def big = big(expected as List, 3)
+    Interleavers.SIMPLE.interleave(expected, 1, size + 1, shuffle)
+    when:
+    BigArrayInterleavers.interleave(big, 1, size + 1, interleaver, shuffle)
+    then:
+    list(big) == expected as List
+    where:
+    [interleaver, size, shuffle] << [inPlace, [0, 1, 2, 3, 10, 27, 28, 129, 1001],
+                                     Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName #shuffle #sizeA and #sizeB")
+  def "two big arrays, like two arrays"() {
+    given:
+    Integer[] refA = (0..<sizeA).toList(), refB = (1000..<1000 + sizeB).toList()
+    def a = big(refA as List, 2), b = big([-1] + (refB as List), 4)
+    Interleavers.SIMPLE.interleave(refA, refB, shuffle)
+    when:
+    BigArrayInterleavers.interleave(a, 0, sizeA, b, 1, sizeB + 1,
+                                    interleaver, shuffle)
+    then:
+    list(a) == refA as List
+    list(b) == [-1] + (refB as List)
+    where:
+    [interleaver, shuffle, sizeA, sizeB] << [inPlace, Shuffle.values(),
+                                             [1, 5, 100], [1, 6, 101]].combinations()
+  }
+
+  def "segments"() {
+    given:
+    def big = new BigArray<Long>(100, 4)
+    big.setAll { it }
+    expect:
+    big.length() == 100
+    big.segmentLength() == 16
+    big.get(99) == 99L
+    big.set(17, -1L) == 17L && big.get(17) == -1L
+  }
+
+  def "bad arguments"() {
+    when:
+    BigArrayInterleavers.interleave(new BigArray<Object>(10), from, to,
+                                    interleaver, Shuffle.IN)
+    then:
+    thrown(exception)
+    where:
+    interleaver          | from | to | exception
+    Interleavers.SIMPLE  | 0    | 10 | IllegalArgumentException
+    Interleavers.DIRECT  | 0    | 10 | IllegalArgumentException
+    Interleavers.SHUFFLE | 0    | 11 | IndexOutOfBoundsException
+    Interleavers.SHUFFLE | 5    | 4  | IndexOutOfBoundsException
+  }
+}
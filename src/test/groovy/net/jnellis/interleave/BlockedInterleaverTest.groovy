@@ -0,0 +1,88 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * {@link BlockedInterleaver} with tiny tiles gives the same results as the
+ * interleaver it wraps.
+ */
+class BlockedInterleaverTest extends InterleaversBase {
+
+  @Shared
+  def inPlace = [Interleavers.SEQUENCE, Interleavers.RECURSIVE,
+                 Interleavers.PERMUTATION, Interleavers.SHUFFLE,
+                 Interleavers.JOSEPHUS]
+
+  @TempDir
+  Path dir
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName size #size #shuffle tile #tileBytes")
+  def "blocked interleavers shuffle like their tiles"() {
+    given:
+    def blocked = Interleavers.blocked(interleaver, tileBytes)
+    List<Integer> expected = (0..<size).toList()
+    interleaver.interleave(expected, shuffle)
+    Integer[] objects = [-1] + (0..<size) + [-2]
+    long[] longs = objects as long[]
+    when:
+    blocked.interleave(objects, 1, size + 1, shuffle)
+    blocked.interleave(longs, 1, size + 1, shuffle)
+    then:
+    objects as List == [-1] + expected + [-2]
+    longs == ([-1] + expected + [-2]) as long[]
+    where:
+    [interleaver, size, shuffle, tileBytes] << [
+        inPlace, [2, 9, 100, 1001], Shuffle.values(), [16, 100]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #shuffle #sizeA and #sizeB")
+  def "two arrays split into one shuffle each"() {
+    given:
+    def blocked = Interleavers.blocked(Interleavers.PERMUTATION, 32)
+    Integer[] refA = (0..<sizeA).toList(), refB = (1000..<1000 + sizeB).toList()
+    Integer[] a = refA.clone(), b = refB.clone()
+    int[] ia = refA as int[], ib = refB as int[]
+    Interleavers.SIMPLE.interleave(refA, refB, shuffle)
+    when:
+    blocked.interleave(a, b, shuffle)
+    blocked.interleave(ia, ib, shuffle)
+    then:
+    a == refA && b == refB
+    ia == refA as int[] && ib == refB as int[]
+    where:
+    [shuffle, sizeA, sizeB] << [Shuffle.values(), [1, 50, 333], [1, 51, 400]].combinations()
+  }
+
+  def "level 2 cache size from sysfs"() {
+    given:
+    cache("index0", "1", "Data", "48K")
+    cache("index1", "1", "Instruction", "32K")
+    cache("index2", "2", "Unified", "2048K")
+    cache("index3", "3", "Unified", "32M")
+    expect:
+    BlockedInterleaver.cacheBytes(dir, 2) == 2048L << 10
+    BlockedInterleaver.cacheBytes(dir, 3) == 32L << 20
+    BlockedInterleaver.cacheBytes(dir, 4) == 0
+    BlockedInterleaver.cacheBytes(dir.resolve("missing"), 2) == 0
+    BlockedInterleaver.TILE_BYTES > 0
+  }
+
+  def "tiles must have a size"() {
+    when:
+    Interleavers.blocked(Interleavers.SHUFFLE, 0)
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  private void cache(String index, String level, String type, String size) {
+    def d = Files.createDirectories(dir.resolve(index))
+    Files.writeString(d.resolve("level"), level + "\n")
+    Files.writeString(d.resolve("type"), type + "\n")
+    Files.writeString(d.resolve("size"), size + "\n")
+  }
+}
@@ -0,0 +1,118 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.FloatBuffer
+import java.nio.IntBuffer
+import java.nio.ReadOnlyBufferException
+
+/**
+ * Interleaving of NIO buffers through the {@link PrimitiveInterleaver}
+ * methods, heap buffers through their arrays and everything else through a
+ * memory segment.
+ */
+class BufferInterleaverTest extends InterleaversBase {
+
+  @Shared
+  def algorithms = [
+      "a025480"    : Interleavers.SEQUENCE,
+      "permutation": Interleavers.PERMUTATION,
+      "shuffle"    : Interleavers.SHUFFLE,
+      "simple"     : Interleavers.SIMPLE
+  ]
+
+  @Shared
+  def buffers = [
+      "heap"        : { int n -> IntBuffer.allocate(n) },
+      "heap offset" : { int n -> IntBuffer.wrap(new int[n + 3], 3, n).slice() },
+      "direct"      : { int n -> ByteBuffer.allocateDirect(n * 4).order(ByteOrder.nativeOrder()).asIntBuffer() },
+      "heap view"   : { int n -> ByteBuffer.allocate(n * 4).asIntBuffer() },
+      "swapped view": { int n -> ByteBuffer.allocateDirect(n * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer() }
+  ]
+
+  def inputFor(Shuffle shuffle, int max) {
+    switch (shuffle) {
+      case Shuffle.IN: return evensThenOdds(max)
+      case Shuffle.OUT: return oddsThenEvens(max)
+      case Shuffle.IN_FOLDING: return evensThenFoldedOdds(max)
+      case Shuffle.OUT_FOLDING: return oddsThenFoldedEvens(max)
+    }
+  }
+
+  IntBuffer fill(IntBuffer buffer, List values, int at = 0) {
+    values.eachWithIndex { v, i -> buffer.put(at + i, v as int) }
+    buffer
+  }
+
+  List contents(IntBuffer buffer, int from, int to) {
+    (from..<to).collect { buffer.get(it) }
+  }
+
+  @Unroll("#featureName[#iterationIndex] #kind buffer, length of #max, #algo #shuffle")
+  def "one buffer, every shuffle"() {
+    given: "a section after some padding, with the position left at 1"
+    def buffer = fill(buffers[kind](max + 2), [-1, -1] + inputFor(shuffle, max))
+    buffer.position(1)
+    algorithms[algo].interleave(buffer, 2, max + 2, shuffle)
+    expect:
+    buffer.position() == 1
+    contents(buffer, 0, 2) == [-1, -1]
+    verifySequential(contents(buffer, 2, max + 2))
+    where:
+    [max, kind, algo, shuffle] << [[2, 7, 28, 1001], buffers.keySet(),
+                                   algorithms.keySet(), Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #kindA and #kindB buffers, #shuffle")
+  def "two buffers, remaining elements"() {
+    given:
+    def input = inputFor(shuffle, 2 * max)
+    def a = fill(buffers[kindA](max + 1), input.subList(0, max), 1).position(1)
+    def b = fill(buffers[kindB](max), input.subList(max, 2 * max))
+    Interleavers.SIMPLE.interleave(a, b, shuffle)
+    expect:
+    verifySequential(contents(a, 1, max + 1) + contents(b, 0, max))
+    where:
+    [max, kindA, kindB, shuffle] << [[1, 10, 333], ["heap", "direct"], ["heap", "swapped view"],
+                                     Shuffle.values()].combinations()
+  }
+
+  def "float views of a byte buffer, like audio channels"() {
+    given:
+    def bytes = ByteBuffer.allocateDirect(32).order(ByteOrder.LITTLE_ENDIAN)
+    FloatBuffer left = bytes.slice(0, 16).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer()
+    FloatBuffer right = bytes.slice(16, 16).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer()
+    left.put(0, [1f, 2f, 3f, 4f] as float[])
+    right.put(0, [-1f, -2f, -3f, -4f] as float[])
+    Interleavers.SHUFFLE.interleave(left, right, Shuffle.OUT)
+    def all = new float[8]
+    bytes.asFloatBuffer().get(all)
+    expect:
+    all == [1f, -1f, 2f, -2f, 3f, -3f, 4f, -4f] as float[]
+  }
+
+  def "read-only, mixed and out of range buffers"() {
+    when:
+    switch (problem) {
+      case "read-only":
+        Interleavers.SIMPLE.interleave(IntBuffer.allocate(4).asReadOnlyBuffer(), Shuffle.IN)
+        break
+      case "mixed":
+        Interleavers.SIMPLE.interleave(IntBuffer.allocate(4), FloatBuffer.allocate(4), Shuffle.IN)
+        break
+      case "past the limit":
+        Interleavers.SIMPLE.interleave(IntBuffer.allocate(4).limit(2), 0, 3, Shuffle.IN)
+        break
+    }
+    then:
+    thrown(exception)
+    where:
+    problem          | exception
+    "read-only"      | ReadOnlyBufferException
+    "mixed"          | IllegalArgumentException
+    "past the limit" | IndexOutOfBoundsException
+  }
+}
@@ -0,0 +1,124 @@
+package net.jnellis.interleave
+
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Streaming two channels into one and back, see {@link ChannelInterleavers}.
+ */
+class ChannelInterleaverTest extends InterleaversBase {
+
+  @TempDir
+  Path dir
+
+  Path writeInts(String name, List values) {
+    def buffer = ByteBuffer.allocate(values.size() * Integer.BYTES)
+    values.each { buffer.putInt(it as int) }
+    def file = dir.resolve(name)
+    Files.write(file, buffer.array())
+    file
+  }
+
+  List readInts(Path file) {
+    def buffer = ByteBuffer.wrap(Files.readAllBytes(file))
+    (0..<buffer.capacity().intdiv(Integer.BYTES)).collect { buffer.getInt() }
+  }
+
+  /* Halves that interleave to 1, 2, 3, ... for the shuffle */
+  List halves(Shuffle shuffle, int max) {
+    def lead = (1..max).findAll { it % 2 == 1 }
+    def follow = (1..max).findAll { it % 2 == 0 }
+    def first = shuffle.out ? lead : follow
+    def second = shuffle.out ? follow : lead
+    [first, shuffle.folding ? second.reverse() : second]
+  }
+
+  @Unroll("#featureName[#iterationIndex] #shuffle #max records, #bufferSize byte buffers")
+  def "interleaves two files and splits them back"() {
+    given:
+    def (first, second) = halves(shuffle, max)
+    def a = writeInts("a", first)
+    def b = writeInts("b", second)
+    def out = dir.resolve("out")
+    when:
+    FileChannel.open(a).withCloseable { ca ->
+      FileChannel.open(b).withCloseable { cb ->
+        FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE).withCloseable { co ->
+          ChannelInterleavers.interleave(ca, cb, co, Integer.BYTES, shuffle, bufferSize)
+        }
+      }
+    }
+    ChannelInterleavers.deinterleave(out, dir.resolve("a2"), dir.resolve("b2"),
+                                     Integer.BYTES, shuffle)
+    then:
+    readInts(out) == (1..max).toList()
+    readInts(dir.resolve("a2")) == first
+    readInts(dir.resolve("b2")) == second
+    where:
+    [shuffle, max, bufferSize] << [Shuffle.values(), [1, 2, 7, 100, 1001],
+                                   [4, 12, 64, 1 << 16]].combinations()
+  }
+
+  def "the rest of the longer source follows"() {
+    given:
+    def a = writeInts("a", [1, 3, 5, 7, 8, 9])
+    def b = writeInts("b", [2, 4, 6])
+    def out = dir.resolve("out")
+    when:
+    ChannelInterleavers.interleave(a, b, out, Integer.BYTES, Shuffle.OUT)
+    then:
+    verifySequential(readInts(out))
+  }
+
+  def "streams that can't seek"() {
+    given:
+    def (first, second) = halves(Shuffle.IN, 10_000)
+    def a = Files.readAllBytes(writeInts("a", first))
+    def b = Files.readAllBytes(writeInts("b", second))
+    def out = new ByteArrayOutputStream()
+    ChannelInterleavers.interleave(Channels.newChannel(new ByteArrayInputStream(a)),
+                                   Channels.newChannel(new ByteArrayInputStream(b)),
+                                   Channels.newChannel(out), Integer.BYTES,
+                                   Shuffle.IN, 100)
+    expect:
+    verifySequential(readInts(Files.write(dir.resolve("out"), out.toByteArray())))
+  }
+
+  def "bad records and channels"() {
+    given:
+    def odd = dir.resolve("odd")
+    Files.write(odd, new byte[7])
+    def even = writeInts("even", [1, 2])
+    def out = dir.resolve("out")
+    def stream = { Channels.newChannel(new ByteArrayInputStream(new byte[8])) }
+    when:
+    switch (problem) {
+      case "partial record":
+        ChannelInterleavers.interleave(odd, even, out, 4, Shuffle.IN)
+        break
+      case "partial record folded":
+        ChannelInterleavers.interleave(even, odd, out, 4, Shuffle.IN_FOLDING)
+        break
+      case "record size":
+        ChannelInterleavers.interleave(even, even, out, 0, Shuffle.IN)
+        break
+      case "folding without seeking":
+        ChannelInterleavers.interleave(stream(), stream(),
+                                       Channels.newChannel(new ByteArrayOutputStream()),
+                                       4, Shuffle.OUT_FOLDING)
+        break
+    }
+    then:
+    thrown(IllegalArgumentException)
+    where:
+    problem << ["partial record", "partial record folded", "record size",
+                "folding without seeking"]
+  }
+}
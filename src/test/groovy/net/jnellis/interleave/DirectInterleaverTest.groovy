@@ -0,0 +1,87 @@
+package net.jnellis.interleave
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * {@link DirectInterleaver} finds a leader for every cycle of the in-shuffle
+ * from the factors of 2n + 1, and walks each cycle once.
+ */
+class DirectInterleaverTest extends Specification {
+
+  def "prime factors of odd numbers"() {
+    expect:
+    DirectInterleaver.primeFactors(m) as List == factors
+    where:
+    m                 | factors
+    1                 | []
+    3                 | [3]
+    9                 | [3]
+    45                | [3, 5]
+    (1 << 30) - 1     | [3, 7, 11, 31, 151, 331]
+    Integer.MAX_VALUE | [Integer.MAX_VALUE]
+  }
+
+  def "order of 2"() {
+    expect:
+    DirectInterleaver.order(d, phi, [2, 3, 5, 7, 11] as int[]) == order
+    where:
+    d   | phi | order
+    3   | 2   | 2
+    7   | 6   | 3
+    9   | 6   | 6
+    11  | 10  | 10
+    15  | 8   | 4
+    121 | 110 | 110
+  }
+
+  @Unroll("#featureName[#iterationIndex] n #n")
+  def "leaders' cycles cover every index once"() {
+    given:
+    int mod = 2 * n + 1
+    int[] seen = new int[mod]
+    def leaders = []
+    when:
+    def cursor = new DirectInterleaver.Leaders(n)
+    for (int leader = cursor.next(); leader != 0; leader = cursor.next()) {
+      leaders << leader
+      int i = leader
+      do {
+        seen[i]++
+        i = DirectInterleaver.twice(i, mod)
+      } while (i != leader)
+    }
+    then:
+    seen[0] == 0
+    seen[1..<mod].every { it == 1 }
+    leaders.size() == cycles
+    where:
+    n   | cycles
+    1   | 1
+    3   | 2
+    4   | 2
+    7   | 4
+    10  | 5
+    40  | 4
+    511 | 106
+  }
+
+  def "every element moves once"() {
+    given:
+    def moves = 0
+    def list = new ArrayList<Integer>((0..<1000).toList()) {
+      @Override
+      Integer set(int index, Integer element) {
+        moves++
+        super.set(index, element)
+      }
+    }
+    def expected = (0..<1000).toList()
+    Interleavers.SIMPLE.interleave(expected, Shuffle.IN)
+    when:
+    Interleavers.DIRECT.interleave(list, Shuffle.IN)
+    then:
+    list == expected
+    moves == 1000
+  }
+}
@@ -0,0 +1,78 @@
+package net.jnellis.interleave
+
+import spock.lang.Unroll
+
+/**
+ * {@link HybridInterleaver} gives the same results whatever scratch space
+ * it has.
+ */
+class HybridInterleaverTest extends InterleaversBase {
+
+  @Unroll("#featureName[#iterationIndex] size #size #shuffle budget #budget")
+  def "any budget shuffles like SIMPLE"() {
+    given:
+    def hybrid = Interleavers.hybrid(budget as long)
+    Integer[] expected = [-1] + (0..<size) + [-2]
+    Interleavers.SIMPLE.interleave(expected, 1, size + 1, shuffle)
+    Integer[] objects = [-1] + (0..<size) + [-2]
+    short[] shorts = objects as short[]
+    when:
+    hybrid.interleave(objects, 1, size + 1, shuffle)
+    hybrid.interleave(shorts, 1, size + 1, shuffle)
+    then:
+    objects == expected
+    shorts == expected as short[]
+    where:
+    [size, shuffle, budget] << [[2, 9, 100, 1001], Shuffle.values(),
+                                [0, 7, 40, 400, 1 << 20]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] scratch #scratch.class.simpleName")
+  def "a caller's scratch array"() {
+    given:
+    def hybrid = Interleavers.hybrid(scratch)
+    Integer[] expected = (0..<1000).toList()
+    Interleavers.SIMPLE.interleave(expected, Shuffle.OUT)
+    Integer[] objects = (0..<1000).toList()
+    int[] ints = objects as int[]
+    when:
+    hybrid.interleave(objects, Shuffle.OUT)
+    hybrid.interleave(ints, Shuffle.OUT)
+    then:
+    objects == expected
+    ints == expected as int[]
+    scratch instanceof Object[] ? (scratch as List).every { it == null } : true
+    where:
+    scratch << [new Object[30], new Integer[30], new int[30], new long[3],
+                new byte[1]]
+  }
+
+  @Unroll("#featureName[#iterationIndex] #shuffle #sizeA and #sizeB")
+  def "two arrays"() {
+    given:
+    def hybrid = Interleavers.hybrid(64L)
+    Integer[] refA = (0..<sizeA).toList(), refB = (1000..<1000 + sizeB).toList()
+    Integer[] a = refA.clone(), b = refB.clone()
+    double[] da = refA as double[], db = refB as double[]
+    Interleavers.SIMPLE.interleave(refA, refB, shuffle)
+    when:
+    hybrid.interleave(a, b, shuffle)
+    hybrid.interleave(da, db, shuffle)
+    then:
+    a == refA && b == refB
+    da == refA as double[] && db == refB as double[]
+    where:
+    [shuffle, sizeA, sizeB] << [Shuffle.values(), [1, 50, 333], [1, 51, 400]].combinations()
+  }
+
+  def "bad budgets and scratch arrays"() {
+    when:
+    Interleavers.hybrid(-1L)
+    then:
+    thrown(IllegalArgumentException)
+    when:
+    Interleavers.hybrid("not an array")
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
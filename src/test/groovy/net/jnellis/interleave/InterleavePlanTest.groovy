@@ -0,0 +1,73 @@
+package net.jnellis.interleave
+
+import spock.lang.Unroll
+
+/**
+ * {@link InterleavePlan} gives the same results as the interleaver it was
+ * compiled from, for lists, arrays and primitive arrays.
+ */
+class InterleavePlanTest extends InterleaversBase {
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName size #size #shuffle")
+  def "plans shuffle like their interleaver"() {
+    given:
+    def plan = InterleavePlan.of(size, shuffle, interleaver)
+    List<Integer> expected = (0..<size).toList()
+    interleaver.interleave(expected, shuffle)
+    List<Integer> list = (0..<size).toList()
+    Integer[] objects = [-1, -2] + (0..<size) + [-3]
+    double[] doubles = objects as double[]
+    when:
+    plan.interleave(list)
+    plan.interleave(objects, 2)
+    plan.interleave(doubles, 2)
+    then:
+    list == expected
+    objects as List == [-1, -2] + expected + [-3]
+    doubles == ([-1, -2] + expected + [-3]) as double[]
+    where:
+    [interleaver, size, shuffle] << [
+        [Interleavers.PERMUTATION, Interleavers.SHUFFLE, Interleavers.JOSEPHUS],
+        [0, 1, 2, 3, 4, 9, 28, 81, 1000],
+        Shuffle.values()].combinations()
+  }
+
+  def "plans are cached"() {
+    expect:
+    InterleavePlan.of(500, Shuffle.IN, Interleavers.SHUFFLE)
+        .is(InterleavePlan.of(500, Shuffle.IN, Interleavers.JOSEPHUS))
+    !InterleavePlan.of(500, Shuffle.IN, Interleavers.SHUFFLE)
+        .is(InterleavePlan.of(500, Shuffle.OUT, Interleavers.SHUFFLE))
+  }
+
+  def "the least recently used plan is evicted"() {
+    given:
+    def first = InterleavePlan.of(100_001, Shuffle.IN, Interleavers.PERMUTATION)
+    when:
+    (1..InterleavePlan.CACHE_SIZE).each {
+      InterleavePlan.of(200_000 + it, Shuffle.IN, Interleavers.PERMUTATION)
+    }
+    then:
+    !first.is(InterleavePlan.of(100_001, Shuffle.IN, Interleavers.PERMUTATION))
+  }
+
+  def "plans run only on their own size"() {
+    given:
+    def plan = InterleavePlan.of(10, Shuffle.IN, Interleavers.PERMUTATION)
+    when:
+    plan.interleave((0..<11).toList())
+    then:
+    thrown(IllegalArgumentException)
+    when:
+    plan.interleave(new int[12], 3)
+    then:
+    thrown(IndexOutOfBoundsException)
+  }
+
+  def "only cycle leader interleavers have plans"() {
+    when:
+    InterleavePlan.of(10, Shuffle.IN, Interleavers.SIMPLE)
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,84 @@
+package net.jnellis.interleave
+
+import spock.lang.Unroll
+
+import java.util.concurrent.CancellationException
+
+/**
+ * {@link InterleaveTask} stepped with any budget ends up where its
+ * {@link InterleavePlan} would.
+ */
+class InterleaveTaskTest extends InterleaversBase {
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName size #size #shuffle budget #budget")
+  def "tasks shuffle like their plan"() {
+    given:
+    def plan = InterleavePlan.of(size, shuffle, interleaver)
+    List<Integer> expected = (0..<size).toList()
+    plan.interleave(expected)
+    List<Integer> list = (0..<size).toList()
+    Integer[] objects = [-1, -2] + (0..<size) + [-3]
+    long[] longs = objects as long[]
+    when:
+    [plan.task(list), plan.task(objects, 2), plan.task(longs, 2)].each {
+      while (!it.step(budget)) {
+        assert it.progress() < 1.0
+      }
+      assert it.isDone()
+      assert it.moved() == it.total()
+    }
+    then:
+    list == expected
+    objects as List == [-1, -2] + expected + [-3]
+    longs == ([-1, -2] + expected + [-3]) as long[]
+    where:
+    [interleaver, size, shuffle, budget] << [
+        [Interleavers.PERMUTATION, Interleavers.SHUFFLE],
+        [0, 1, 2, 9, 28, 1000],
+        Shuffle.values(),
+        [1, 7, 1000]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName budget #budget")
+  def "a step moves no more than its budget"() {
+    given:
+    def task = InterleavePlan.of(1000, Shuffle.IN, interleaver)
+                             .task(new int[1000], 0)
+    when:
+    task.step(budget)
+    then:
+    task.moved() <= Math.max(2, budget)
+    task.moved() >= budget - 1
+    where:
+    [interleaver, budget] << [
+        [Interleavers.PERMUTATION, Interleavers.SHUFFLE],
+        [1, 2, 3, 7, 999]].combinations()
+  }
+
+  def "a cancelled task won't step"() {
+    given:
+    def task = InterleavePlan.of(100, Shuffle.IN, Interleavers.SHUFFLE)
+                             .task(new int[100], 0)
+    when:
+    task.step(10)
+    task.cancel()
+    task.step(10)
+    then:
+    task.isCancelled()
+    !task.isDone()
+    thrown(CancellationException)
+  }
+
+  def "tasks run only on their own size"() {
+    given:
+    def plan = InterleavePlan.of(10, Shuffle.IN, Interleavers.PERMUTATION)
+    when:
+    plan.task((0..<11).toList())
+    then:
+    thrown(IllegalArgumentException)
+    when:
+    plan.task(new int[12], 3)
+    then:
+    thrown(IndexOutOfBoundsException)
+  }
+}
@@ -70,6 +70,39 @@ class InterleaverUtilitiesTest extends Specification {
     -5  | [1, 2, 3, 4, 5, 6, 7] as Integer[] || [2, 3, 4, 5, 6]
   }
 
+  @Unroll("#featureName[#iterationIndex] #rotation #n elements #m places")
+  def "every rotation strategy rotates like Collections.rotate"() {
+    given: "one section, and the same split across two arrays and lists"
+    def expected = (0..<n).toList()
+    Collections.rotate(expected, m)
+    int split = n.intdiv(3)
+    Integer[] array = [-1] + (0..<n) + [-1]
+    int[] ints = [-1] + (0..<n) + [-1]
+    Integer[] a = [-1] + (0..<split)
+    Integer[] b = (split..<n) + [-2]
+    def list = (0..<n).toList()
+    def listA = (0..<split).toList()
+    def listB = (split..<n).toList()
+
+    when:
+    Util.rotate(array, 1, n + 1, m, rotation)
+    PrimitiveArrayInShuffleInterleavers.rotate(ints, 1, n + 1, m, rotation)
+    Util.rotate(a, 1, split + 1, b, 0, n - split, m, rotation)
+    Util.rotate(list, m, rotation)
+    Util.rotate(listA, listB, m, rotation)
+
+    then:
+    array.toList() == [-1] + expected + [-1]
+    ints.toList() == [-1] + expected + [-1]
+    a.toList() + b.toList() == [-1] + expected + [-2]
+    list == expected
+    listA + listB == expected
+
+    where:
+    [rotation, n, m] << [Rotation.values(), [7, 1000, 2500],
+                         [-3, 1, 1100, -1337]].combinations()
+  }
+
   def expectedLog3 = (i) -> (int) (Math.log((double) i) / Math.log(3))
 
   def "test ilog3"() {
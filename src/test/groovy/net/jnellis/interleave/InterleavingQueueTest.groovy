@@ -0,0 +1,105 @@
+package net.jnellis.interleave
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+/**
+ * Two streams merged in strict alternation by {@link InterleavingQueue}.
+ */
+class InterleavingQueueTest extends Specification {
+
+  def "in-shuffles start with b, out-shuffles with a"() {
+    given:
+    def q = new InterleavingQueue<String>(4, shuffle)
+    ["a1", "a2"].each { q.offerA(it) }
+    ["b1", "b2"].each { q.offerB(it) }
+    expect:
+    (0..<4).collect { q.poll() } == expected
+    q.poll() == null
+    where:
+    shuffle     | expected
+    Shuffle.IN  | ["b1", "a1", "b2", "a2"]
+    Shuffle.OUT | ["a1", "b1", "a2", "b2"]
+  }
+
+  def "the consumer waits on the stream whose turn it is"() {
+    given:
+    def q = new InterleavingQueue<Integer>(4, Shuffle.OUT)
+    Integer[] batch = new Integer[8]
+    when:
+    (1..3).each { q.offerB(it) }
+    then:
+    q.size() == 0
+    q.poll() == null
+    q.drainTo(batch, 8) == 0
+    when:
+    q.offerA(10)
+    q.offerA(20)
+    then:
+    q.size() == 4
+    q.drainTo(batch, 3) == 3
+    batch[0..2] == [10, 1, 20]
+    q.poll() == 2
+    q.poll() == null
+  }
+
+  def "full streams refuse offers"() {
+    given:
+    def q = new InterleavingQueue<Integer>(3, Shuffle.IN)
+    expect:
+    q.capacity() == 4
+    (1..4).every { q.offerA(it) }
+    !q.offerA(5)
+    q.offerB(1)
+  }
+
+  @Timeout(30)
+  @Unroll("#featureName #shuffle drain #drain")
+  def "two producer threads come out interleaved"() {
+    given:
+    int count = 100_000
+    def q = new InterleavingQueue<Integer>(16, shuffle)
+    def producers = [0, 1].collect { stream ->
+      Thread.start {
+        for (int i = 0; i < count; i++) {
+          Integer v = 2 * i + stream
+          while (!(stream == 0 ? q.offerA(v) : q.offerB(v))) {
+            Thread.yield()
+          }
+        }
+      }
+    }
+    List<Integer> taken = []
+    Integer[] batch = new Integer[7]
+    when:
+    while (taken.size() < 2 * count) {
+      if (drain) {
+        int n = q.drainTo(batch, batch.length)
+        n ? taken.addAll(batch[0..<n]) : Thread.yield()
+      } else {
+        Integer v = q.poll()
+        v != null ? taken << v : Thread.yield()
+      }
+    }
+    producers*.join()
+    then: "a's are evens, b's are odds"
+    int first = shuffle.out ? 0 : 1
+    (0..<2 * count).every { taken[it] == 2 * (it >> 1) + ((it & 1) ^ first) }
+    where:
+    [shuffle, drain] << [[Shuffle.IN, Shuffle.OUT], [false, true]].combinations()
+  }
+
+  def "bad capacities and folding shuffles"() {
+    when:
+    new InterleavingQueue<Object>(capacity, shuffle)
+    then:
+    thrown(IllegalArgumentException)
+    where:
+    capacity | shuffle
+    0        | Shuffle.IN
+    1 << 31  | Shuffle.IN
+    4        | Shuffle.IN_FOLDING
+    4        | Shuffle.OUT_FOLDING
+  }
+}
@@ -0,0 +1,60 @@
+package net.jnellis.interleave
+
+import spock.lang.Unroll
+
+/**
+ * Cycles walked four chunks at a time by
+ * {@link PermutationInterleaver#lockStep} give the same results as walking
+ * them one at a time.
+ */
+class LockStepTest extends InterleaversBase {
+
+  @Unroll("#featureName[#iterationIndex] round of #size in chunks of #chunk")
+  def "permutation rounds"() {
+    given:
+    def c = PermutationInterleaver.Constants.from(size)
+    def expected = (0..<size).toList()
+    def list = new ArrayList(expected)
+    Interleavers.PERMUTATION.interleave(expected, Shuffle.IN)
+    when:
+    PermutationInterleaver.lockStep(c.mod(),
+                                    PermutationInterleaver.Chunks.from(c, chunk),
+                                    list.&get, list.&set)
+    then:
+    list == expected
+    where:
+    [size, chunk] << [[8, 26, 80, 728, 6560], [1, 3, 5, 64]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] shuffle prime #k in chunks of #chunk")
+  def "shuffle prime cycles"() {
+    given:
+    def expected = (0..<k).toList()
+    def list = new ArrayList(expected)
+    Interleavers.SHUFFLE.interleave(expected, Shuffle.IN)
+    when:
+    PermutationInterleaver.lockStep(k + 1,
+                                    PermutationInterleaver.Chunks.of(k + 1, chunk, [1] as int[], [k] as int[]),
+                                    list.&get, list.&set)
+    then:
+    list == expected
+    where:
+    [k, chunk] << [[4, 10, 28, 2 * Util.findNextLowestJ2Prime(5000)], [1, 3, 7, 64]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #interleaver.class.simpleName #shuffle")
+  def "arrays past the lock-step threshold"() {
+    given:
+    int size = PermutationInterleaver.LOCKSTEP_THRESHOLD * 2 + 11
+    int[] expected = new int[size]
+    Arrays.setAll(expected, { it })
+    int[] ints = expected.clone()
+    Interleavers.SIMPLE.interleave(expected, shuffle)
+    when:
+    interleaver.interleave(ints, shuffle)
+    then:
+    ints == expected
+    where:
+    [interleaver, shuffle] << [[Interleavers.PERMUTATION, Interleavers.SHUFFLE], Shuffle.values()].combinations()
+  }
+}
@@ -0,0 +1,143 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * In place interleaving of files, see {@link MappedFileInterleavers}.
+ */
+class MappedFileInterleaverTest extends InterleaversBase {
+
+  @TempDir
+  Path dir
+
+  @Shared
+  def algorithms = [
+      "permutation": MappedFileInterleavers::permutation,
+      "shuffle"    : MappedFileInterleavers::shufflePrime
+  ]
+
+  @Shared
+  def inShuffles = [
+      "permutation": LongIndexInterleavers::permutation as LongIndexInterleavers.InShuffle,
+      "shuffle"    : LongIndexInterleavers::shufflePrime as LongIndexInterleavers.InShuffle
+  ]
+
+  /**
+   * Stands in for the process being killed after a number of operations.
+   */
+  static class Killed extends RuntimeException {}
+
+  /* Retries before a resume that never gets anywhere fails the test */
+  static final int MAX_DEATHS = 30
+
+  static class Killer implements LongSwapper {
+    final LongSwapper s
+    long left
+
+    Killer(LongSwapper s, long left) {
+      this.s = s
+      this.left = left
+    }
+
+    void tick() {
+      if (left-- == 0) throw new Killed()
+    }
+
+    void swap(long i, long j) { tick(); s.swap(i, j) }
+
+    void hold(long i) { tick(); s.hold(i) }
+
+    void exchange(long i) { tick(); s.exchange(i) }
+  }
+
+  Path writeLongs(List values) {
+    def buffer = ByteBuffer.allocate(values.size() * Long.BYTES)
+    values.each { buffer.putLong(it as long) }
+    def file = dir.resolve("records.bin")
+    Files.write(file, buffer.array())
+    file
+  }
+
+  List readLongs(Path file) {
+    def buffer = ByteBuffer.wrap(Files.readAllBytes(file))
+    (0..<buffer.capacity().intdiv(Long.BYTES)).collect { buffer.getLong() as int }
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #max")
+  def "interleaves a whole file"() {
+    given:
+    def file = writeLongs(evensThenOdds(max))
+    algorithms[algo](file, Long.BYTES, Shuffle.IN)
+    expect:
+    verifySequential(readLongs(file))
+    !Files.exists(MappedFileInterleavers.journalFor(file))
+    where:
+    [max, algo] << [[2, 27, 1001, 100_000], algorithms.keySet()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo killed every #kill operations")
+  def "resumes after being killed"() {
+    given: "small checkpoints and a run that dies over and over"
+    def max = 10_001
+    def file = writeLongs(evensThenOdds(max))
+    def journal = MappedFileInterleavers.journalFor(file)
+    int deaths = 0
+    boolean done = false
+    while (!done && deaths < MAX_DEATHS) {
+      // replayed operations count against the budget too, so each attempt
+      // gets twice the last one to get past the last checkpoint
+      long budget = (long) kill << deaths
+      try {
+        MappedFileInterleavers.interleave(
+            file, journal, Long.BYTES, 0, max, Shuffle.IN, algo,
+            { s, from, to -> inShuffles[algo].interleave(new Killer(s, budget), from, to) }
+                as LongIndexInterleavers.InShuffle, 64)
+        done = true
+      } catch (Killed ignored) {
+        deaths++
+      }
+    }
+    expect:
+    done
+    deaths > 0
+    verifySequential(readLongs(file))
+    !Files.exists(journal)
+    where:
+    [algo, kill] << [algorithms.keySet(), [500, 4321]].combinations()
+  }
+
+  def "refuses a journal for something else"() {
+    given: "a journal left by a killed permutation"
+    def file = writeLongs(evensThenOdds(1000))
+    def journal = MappedFileInterleavers.journalFor(file)
+    try {
+      MappedFileInterleavers.interleave(
+          file, journal, Long.BYTES, 0, 1000, Shuffle.IN, "permutation",
+          { s, from, to -> LongIndexInterleavers.permutation(new Killer(s, 300), from, to) }
+              as LongIndexInterleavers.InShuffle, 16)
+    } catch (Killed ignored) {
+    }
+    when:
+    MappedFileInterleavers.shufflePrime(file, Long.BYTES, Shuffle.IN)
+    then:
+    Files.exists(journal)
+    thrown(IllegalStateException)
+  }
+
+  def "bad record sizes"() {
+    given:
+    def file = writeLongs(evensThenOdds(10))
+    when:
+    MappedFileInterleavers.permutation(file, size, Shuffle.IN)
+    then:
+    thrown(IllegalArgumentException)
+    where:
+    size << [0, 3]
+  }
+}
@@ -13,6 +13,7 @@ class OneArrayInterleaverTest extends InterleaversBase {
       "recursive"  : Interleavers.RECURSIVE::interleave,
       "josephus"   : Interleavers.JOSEPHUS::interleave,
       "shuffle"    : Interleavers.SHUFFLE::interleave,
+      "direct"     : Interleavers.DIRECT::interleave,
       "simple"   : Interleavers.SIMPLE::interleave
   ]
 
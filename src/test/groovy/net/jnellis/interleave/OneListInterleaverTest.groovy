@@ -12,6 +12,7 @@ class OneListInterleaverTest extends InterleaversBase {
       "recursive"  : Interleavers.RECURSIVE::interleave,
       "josephus"   : Interleavers.JOSEPHUS::interleave,
       "shuffle"    : Interleavers.SHUFFLE::interleave,
+      "direct"     : Interleavers.DIRECT::interleave,
       "simple"   : Interleavers.SIMPLE::interleave
   ]
 
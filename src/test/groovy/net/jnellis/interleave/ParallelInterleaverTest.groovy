@@ -0,0 +1,82 @@
+package net.jnellis.interleave
+
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * {@link Interleavers#parallel(Interleaver, ForkJoinPool, int)} gives the
+ * same results as {@link Interleavers#SIMPLE} for every in-place algorithm,
+ * with a threshold low enough that sections are split many times.
+ */
+class ParallelInterleaverTest extends InterleaversBase {
+
+  @Shared
+  @AutoCleanup("shutdown")
+  def pool = new ForkJoinPool(4)
+
+  @Shared
+  def algorithms = [Interleavers.SEQUENCE, Interleavers.PERMUTATION,
+                    Interleavers.RECURSIVE, Interleavers.JOSEPHUS,
+                    Interleavers.SHUFFLE]
+
+  @Unroll("#featureName[#iterationIndex] length of #max #shuffle")
+  def "object and primitive arrays"() {
+    given:
+    Integer[] expected = (0..<max).toArray(new Integer[0])
+    Interleavers.SIMPLE.interleave(expected, shuffle)
+    expect:
+    algorithms.every { algorithm ->
+      def parallel = Interleavers.parallel(algorithm, pool, 16)
+      Integer[] objects = (0..<max).toArray(new Integer[0])
+      long[] longs = objects as long[]
+      parallel.interleave(objects, shuffle)
+      parallel.interleave(longs, shuffle)
+      objects == expected && longs == expected as long[]
+    }
+    where:
+    [max, shuffle] << [[2, 5, 28, 1001, 30_000], Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] lengths of #sizeA and #sizeB #shuffle")
+  def "two arrays"() {
+    given:
+    Integer[] a = (0..<sizeA).toArray(new Integer[0])
+    Integer[] b = (sizeA..<(sizeA + sizeB)).toArray(new Integer[0])
+    Integer[] expectedA = a.clone(), expectedB = b.clone()
+    Interleavers.SIMPLE.interleave(expectedA, expectedB, shuffle)
+    expect:
+    algorithms.every { algorithm ->
+      def parallel = Interleavers.parallel(algorithm, pool, 16)
+      Integer[] a2 = a.clone(), b2 = b.clone()
+      int[] ca = a as int[], cb = b as int[]
+      parallel.interleave(a2, b2, shuffle)
+      parallel.interleave(ca, cb, shuffle)
+      a2 == expectedA && b2 == expectedB &&
+          ca == expectedA as int[] && cb == expectedB as int[]
+    }
+    where:
+    [sizeA, sizeB, shuffle] << [[1, 14, 1_500], [1, 14, 1_501], Shuffle.values()].combinations()
+  }
+
+  def "lists are interleaved by the wrapped algorithm"() {
+    given:
+    def list = (0..<100).toList()
+    def expected = new ArrayList(list)
+    Interleavers.SIMPLE.interleave(expected, Shuffle.OUT)
+    when:
+    Interleavers.parallel(Interleavers.SHUFFLE, pool, 4)
+                .interleave(list, Shuffle.OUT)
+    then:
+    list == expected
+  }
+
+  def "only in-place algorithms can be split"() {
+    when:
+    Interleavers.parallel({ list, shuffle -> } as Interleaver)
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
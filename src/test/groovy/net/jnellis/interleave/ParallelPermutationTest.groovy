@@ -0,0 +1,66 @@
+package net.jnellis.interleave
+
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * {@link Interleavers#parallelPermutation(ForkJoinPool, int)} gives the same
+ * results as {@link Interleavers#PERMUTATION}, with a threshold low enough
+ * that every round is parallel.
+ */
+class ParallelPermutationTest extends InterleaversBase {
+
+  @Shared
+  @AutoCleanup("shutdown")
+  def pool = new ForkJoinPool(4)
+
+  @Shared
+  def parallel = Interleavers.parallelPermutation(pool, 4)
+
+  @Unroll("#featureName[#iterationIndex] length of #max #shuffle")
+  def "object and primitive arrays"() {
+    given:
+    Integer[] expected = (0..<max).toArray(new Integer[0])
+    Integer[] objects = expected.clone()
+    int[] ints = expected as int[]
+    Interleavers.PERMUTATION.interleave(expected, shuffle)
+    parallel.interleave(objects, shuffle)
+    parallel.interleave(ints, shuffle)
+    expect:
+    objects == expected
+    ints == expected as int[]
+    where:
+    [max, shuffle] << [[2, 5, 28, 1001, 300_000], Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] lengths of #sizeA and #sizeB #shuffle")
+  def "two arrays"() {
+    given:
+    Integer[] a = (0..<sizeA).toArray(new Integer[0])
+    Integer[] b = (sizeA..<(sizeA + sizeB)).toArray(new Integer[0])
+    Integer[] a2 = a.clone(), b2 = b.clone()
+    double[] da = a as double[], db = b as double[]
+    Interleavers.PERMUTATION.interleave(a, b, shuffle)
+    parallel.interleave(a2, b2, shuffle)
+    parallel.interleave(da, db, shuffle)
+    expect:
+    a2 == a && b2 == b
+    da == a as double[] && db == b as double[]
+    where:
+    [sizeA, sizeB, shuffle] << [[1, 14, 150_000], [1, 14, 150_001], Shuffle.values()].combinations()
+  }
+
+  def "chunks cover every index of a round once"() {
+    given:
+    def c = PermutationInterleaver.Constants.from(size)
+    def chunks = PermutationInterleaver.Chunks.from(c)
+    expect:
+    chunks.steps().sum() == c.mod() - 1
+    chunks.steps().every { it <= PermutationInterleaver.PARALLEL_CHUNK }
+    where:
+    size << [4, 80, 59048, 531440, 1594322]
+  }
+}
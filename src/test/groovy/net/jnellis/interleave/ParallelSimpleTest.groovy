@@ -0,0 +1,74 @@
+package net.jnellis.interleave
+
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * {@link Interleavers#parallelSimple(ForkJoinPool, int)} gives the same
+ * results as {@link Interleavers#SIMPLE}, with a threshold low enough that
+ * every section is copied in parallel.
+ */
+class ParallelSimpleTest extends InterleaversBase {
+
+  @Shared
+  @AutoCleanup("shutdown")
+  def pool = new ForkJoinPool(4)
+
+  @Shared
+  def parallel = Interleavers.parallelSimple(pool, 4)
+
+  @Unroll("#featureName[#iterationIndex] length of #max from #from #shuffle")
+  def "object and primitive arrays"() {
+    given:
+    Integer[] expected = (0..<max).toArray(new Integer[0])
+    Integer[] objects = expected.clone()
+    short[] shorts = expected as short[]
+    Interleavers.SIMPLE.interleave(expected, from, max, shuffle)
+    parallel.interleave(objects, from, max, shuffle)
+    parallel.interleave(shorts, from, max, shuffle)
+    expect:
+    objects == expected
+    shorts == expected as short[]
+    where:
+    [max, from, shuffle] << [[5, 28, 1001, 100_000], [0, 1], Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] lengths of #sizeA and #sizeB #shuffle")
+  def "two arrays"() {
+    given:
+    Integer[] a = (0..<sizeA).toArray(new Integer[0])
+    Integer[] b = (sizeA..<(sizeA + sizeB)).toArray(new Integer[0])
+    Integer[] a2 = a.clone(), b2 = b.clone()
+    float[] fa = a as float[], fb = b as float[]
+    Interleavers.SIMPLE.interleave(a, b, shuffle)
+    parallel.interleave(a2, b2, shuffle)
+    parallel.interleave(fa, fb, shuffle)
+    expect:
+    a2 == a && b2 == b
+    fa == a as float[] && fb == b as float[]
+    where:
+    [sizeA, sizeB, shuffle] << [[1, 14, 70_000], [1, 14, 70_001], Shuffle.values()].combinations()
+  }
+
+  def "chunks cover a range once, starting at pairs"() {
+    given:
+    def chunks = Collections.synchronizedList([])
+    when:
+    SimpleInterleaver.forEachChunk(pool, from, to, { lo, hi -> chunks << [lo, hi] } as SimpleInterleaver.Range)
+    chunks.sort { it[0] }
+    then:
+    chunks.first()[0] == from
+    chunks.last()[1] == to
+    chunks.collate(2, 1, false).every { it[0][1] == it[1][0] }
+    chunks.every { ((it[0] - from) & 1) == 0 && it[1] - it[0] <= SimpleInterleaver.PARALLEL_CHUNK }
+    where:
+    from | to
+    0    | 10
+    0    | 1 << 17
+    1    | (1 << 17) + 1
+    7    | 300_007
+  }
+}
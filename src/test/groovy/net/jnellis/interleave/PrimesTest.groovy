@@ -0,0 +1,89 @@
+package net.jnellis.interleave
+
+import spock.lang.Specification
+
+/**
+ * {@link Primes} agrees with walking the a025480 cycle and with
+ * {@link BigInteger}, including past the range of {@code int}.
+ */
+class PrimesTest extends Specification {
+
+  static boolean walk(long n) {
+    long count = 0, leader = 0
+    do {
+      leader = Util.a025480(leader + n)
+      count++
+    } while (leader != 0)
+    count == n
+  }
+
+  def "J2 primes are the ones with a single a025480 cycle"() {
+    expect:
+    (1..20000).every { Primes.isJ2Prime(it) == walk(it) }
+    !Primes.isJ2Prime(0)
+    !Primes.isJ2Prime(-5)
+  }
+
+  def "large J2 primes"() {
+    expect:
+    (2_000_000..2_000_050).every { Primes.isJ2Prime(it) == walk(it) }
+    Util.findNextLowestJ2Prime(Integer.MAX_VALUE) == 2147483645
+    Util.findNextLowestJ2Prime(1L << 40) == 1099511627765L
+  }
+
+  def "the same search answers the same whether remembered or not"() {
+    expect:
+    (2..3000).every {
+      Util.findNextLowestJ2Prime(it) == Util.findNextLowestJ2Prime(it)
+    }
+  }
+
+  def "the generated table is in the jar's resources and reads back"() {
+    given:
+    def table = Primes.getResourceAsStream(Primes.TABLE).withCloseable {
+      Primes.Table.read(new BufferedInputStream(it))
+    }
+    expect:
+    table.limit() == 1 << 19
+    table.j2()[0] == 1
+    table.j2()[-1] <= table.limit()
+    (table.j2() as List) == (table.j2() as List).toSorted()
+    table.j2()[-3..-1].every { walk(it) }
+  }
+
+  def "lookups either side of the table's limit"() {
+    given:
+    int limit = 1 << 19
+    def j2 = (limit - 200..limit + 10).findAll { it % 4 in [1, 2] && walk(it) }
+    expect:
+    j2.size() > 1
+    (limit - 10..limit + 10).every { n ->
+      Util.findNextLowestJ2Prime(n) == j2.findAll { it <= n }.max()
+    }
+  }
+
+  def "primality agrees with BigInteger"() {
+    given:
+    def random = new Random(24)
+    def numbers = (0..<5000).collect { random.nextLong() >>> (1 + random.nextInt(62)) }
+    numbers += [2047L, 1373653L, 25326001L, 3215031751L, 4759123141L,
+                341550071728321L, 3825123056546413051L, Long.MAX_VALUE]
+    expect:
+    numbers.every {
+      Primes.isPrime(it) == BigInteger.valueOf(it).isProbablePrime(50)
+    }
+  }
+
+  def "odd prime factors"() {
+    expect:
+    Primes.oddPrimeFactors(n) as List == factors
+    where:
+    n                              | factors
+    1                              | []
+    1024                           | []
+    90                             | [3, 5]
+    2147483647L * 2147483629L      | [2147483629L, 2147483647L]
+    3L * 1000003L * 2147483647L    | [3L, 1000003L, 2147483647L]
+    Long.MAX_VALUE                 | [7L, 73L, 127L, 337L, 92737L, 649657L]
+  }
+}
@@ -16,11 +16,14 @@ class PrimitiveOneArrayInterleaverTest extends InterleaversBase {
   @Shared
   def interleavers = [
       "simple" : PrimitiveArrayInShuffleInterleavers::simple,
+      "vector" : PrimitiveArrayInShuffleInterleavers::vector,
+      "swar" : PrimitiveArrayInShuffleInterleavers::swar,
       "sequence": PrimitiveArrayInShuffleInterleavers::sequence,
       "permutation": PrimitiveArrayInShuffleInterleavers::permutation,
       "recursive": PrimitiveArrayInShuffleInterleavers::recursive,
       "josephus": PrimitiveArrayInShuffleInterleavers::josephus,
-      "shuffle": PrimitiveArrayInShuffleInterleavers::shufflePrime
+      "shuffle": PrimitiveArrayInShuffleInterleavers::shufflePrime,
+      "direct": PrimitiveArrayInShuffleInterleavers::direct
   ]
 
   def paramCombinations() {
@@ -47,5 +50,88 @@ class PrimitiveOneArrayInterleaverTest extends InterleaversBase {
     parity = getParity(max)
   }
 
- 
+  @Unroll("#featureName[#iterationIndex] (#parity, length of #max) #type")
+  def "primitive one array vector in-shuffle, wide types"() {
+    given:
+    def arr = evensThenOdds(max).asType(type)
+    PrimitiveArrayInShuffleInterleavers.vector(arr, 0, arr.length)
+    expect:
+    verifySequential(arr.collect { it as int } as int[])
+    where:
+    [max, type] << [[2, 3, 7, 16, 33, 129, 1000, 1001, 999999],
+                    [long[].class, float[].class, double[].class]].combinations()
+    parity = getParity(max)
+  }
+
+  @Unroll("#featureName[#iterationIndex] (length of #max) #type")
+  def "primitive one array swar in-shuffle, narrow types"() {
+    given: "random contents, so compare with the simple interleaver"
+    def random = new Random(max)
+    def arr = (0..<max).collect { random.nextInt() }.asType(type)
+    def expected = arr.clone()
+    PrimitiveArrayInShuffleInterleavers.simple(expected, 0, expected.length)
+    PrimitiveArrayInShuffleInterleavers.swar(arr, 0, arr.length)
+    expect:
+    arr == expected
+    where:
+    [max, type] << [[2, 3, 7, 16, 17, 33, 129, 1000, 1001, 4097, 999999],
+                    [byte[].class, char[].class, short[].class]].combinations()
+  }
+
+  @Shared
+  def algorithms = [
+      "a025480"    : Interleavers.SEQUENCE,
+      "permutation": Interleavers.PERMUTATION,
+      "recursive"  : Interleavers.RECURSIVE,
+      "josephus"   : Interleavers.JOSEPHUS,
+      "shuffle"    : Interleavers.SHUFFLE,
+      "direct"     : Interleavers.DIRECT,
+      "simple"     : Interleavers.SIMPLE
+  ]
+
+  def inputFor(Shuffle shuffle, int max) {
+    def input = [(Shuffle.IN)         : { evensThenOdds(max) },
+                 (Shuffle.OUT)        : { oddsThenEvens(max) },
+                 (Shuffle.IN_FOLDING) : { evensThenFoldedOdds(max) },
+                 (Shuffle.OUT_FOLDING): { oddsThenFoldedEvens(max) }]
+    return input[shuffle]() as int[]
+  }
+
+  @Unroll("#featureName[#iterationIndex] (#parity, length of #max) #algo #shuffle")
+  def "primitive one array, every shuffle"() {
+    given:
+    int[] arr = inputFor(shuffle, max)
+    if (max < 10000) println arr
+    algorithms[algo].interleave(arr, shuffle)
+    if (max < 10000) println arr
+    expect:
+    verifySequential(arr)
+    where:
+    [max, algo, shuffle] << [maxes, algorithms.keySet(), Shuffle.values()].combinations()
+    parity = getParity(max)
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #type")
+  def "primitive one array, every primitive type"() {
+    given:
+    def arr = [1, 2, 3, 4, 5, 6].asType(type)
+    algorithms[algo].interleave(arr, Shuffle.IN)
+    expect:
+    arr == [4, 1, 5, 2, 6, 3].asType(type)
+    where:
+    [algo, type] << [algorithms.keySet(),
+                     [byte[].class, char[].class, short[].class, int[].class,
+                      long[].class, float[].class, double[].class]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo")
+  def "primitive one array, booleans"() {
+    given:
+    boolean[] arr = [true, true, true, false, false, false]
+    algorithms[algo].interleave(arr, Shuffle.OUT_FOLDING)
+    expect:
+    arr == [true, false, true, false, true, false] as boolean[]
+    where:
+    algo << algorithms.keySet()
+  }
 }
\ No newline at end of file
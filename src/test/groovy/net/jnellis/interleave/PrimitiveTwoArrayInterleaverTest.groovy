@@ -0,0 +1,115 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.Unroll
+
+/**
+ * Two primitive array interleaving through the {@link PrimitiveInterleaver}
+ * methods. See the note on two list/array tests in
+ * {@link TwoArrayInterleaverTest}, the same applies here.
+ */
+class PrimitiveTwoArrayInterleaverTest extends InterleaversBase {
+
+  @Shared
+  def algorithms = [
+      "a025480"    : Interleavers.SEQUENCE,
+      "permutation": Interleavers.PERMUTATION,
+      "recursive"  : Interleavers.RECURSIVE,
+      "josephus"   : Interleavers.JOSEPHUS,
+      "shuffle"    : Interleavers.SHUFFLE,
+      "direct"     : Interleavers.DIRECT,
+      "simple"     : Interleavers.SIMPLE
+  ]
+
+  /*
+   * First and second arrays for each shuffle, with the larger list on the
+   * evens side when max is odd.
+   */
+  def inputsFor(Shuffle shuffle, int max, boolean largerEvens) {
+    init(max)
+    if (largerEvens) {
+      odds.removeLast()
+      evens.add(-1)
+    }
+    switch (shuffle) {
+      case Shuffle.IN: return [evens as int[], odds as int[]]
+      case Shuffle.OUT: return [odds as int[], evens as int[]]
+      case Shuffle.IN_FOLDING: return [evens as int[], odds.reverse() as int[]]
+      case Shuffle.OUT_FOLDING: return [odds as int[], evens.reverse() as int[]]
+    }
+  }
+
+  @Unroll("#featureName[#iterationIndex] (#parity, length of both arrays is #max) #algo #shuffle")
+  def "primitive two array, every shuffle"() {
+    given:
+    def (int[] a, int[] b) = inputsFor(shuffle, max, false)
+    expect:
+    twoCollectionTest(algorithms[algo]::interleave, max, a, b, shuffle)
+    if (parity === "odd") {
+      def (int[] c, int[] d) = inputsFor(shuffle, max, true)
+      twoCollectionTest(algorithms[algo]::interleave, max, c, d, shuffle)
+    }
+    where:
+    [max, algo, shuffle] << [maxes, algorithms.keySet(), Shuffle.values()].combinations()
+    parity = getParity(max)
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo")
+  def "primitive two array, separate channels"() {
+    given:
+    float[] left = [1f, 2f, 3f, 4f]
+    float[] right = [-1f, -2f, -3f, -4f]
+    algorithms[algo].interleave(left, right, Shuffle.OUT)
+    expect:
+    left == [1f, -1f, 2f, -2f] as float[]
+    right == [3f, -3f, 4f, -4f] as float[]
+    where:
+    algo << algorithms.keySet()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #shuffle #max")
+  def "primitive two array sections"() {
+    given: "sections that don't start at zero, surrounded by padding"
+    def (int[] a, int[] b) = inputsFor(shuffle, max, false)
+    int[] paddedA = [-1, -1] + (a as List) + [-1]
+    int[] paddedB = [-2] + (b as List) + [-2, -2, -2]
+    algorithms[algo].interleave(paddedA, 2, 2 + a.length,
+                                paddedB, 1, 1 + b.length, shuffle)
+    expect:
+    (paddedA[0..1] + paddedA[-1..-1]) == [-1, -1, -1]
+    (paddedB[0..0] + paddedB[-3..-1]) == [-2, -2, -2, -2]
+    verifySequential(paddedA[2..<(2 + a.length)] as int[],
+                     paddedB[1..<(1 + b.length)] as int[])
+    where:
+    [max, algo, shuffle] << [[4, 10, 18, 27, 33, 242, 1001],
+                             algorithms.keySet(), Shuffle.values()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #type")
+  def "primitive two array, every primitive type"() {
+    given:
+    def a = [1, 2, 3].asType(type)
+    def b = [4, 5, 6].asType(type)
+    algorithms[algo].interleave(a, b, Shuffle.IN)
+    expect:
+    a == [4, 1, 5].asType(type)
+    b == [2, 6, 3].asType(type)
+    where:
+    [algo, type] << [algorithms.keySet(),
+                     [byte[].class, char[].class, short[].class, int[].class,
+                      long[].class, float[].class, double[].class]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo")
+  def "primitive two array, booleans"() {
+    given:
+    boolean[] a = [true, true, true]
+    boolean[] b = [false, false, false]
+    algorithms[algo].interleave(a, b, Shuffle.OUT_FOLDING)
+    expect:
+    a == [true, false, true] as boolean[]
+    b == [false, true, false] as boolean[]
+    where:
+    algo << algorithms.keySet()
+  }
+}
@@ -0,0 +1,146 @@
+package net.jnellis.interleave
+
+import spock.lang.Shared
+import spock.lang.Unroll
+
+import java.lang.foreign.MemorySegment
+import java.lang.foreign.MemorySession
+import java.lang.foreign.ValueLayout
+
+/**
+ * Memory segment interleaving with {@code long} indexes, see
+ * {@link SegmentInterleavers}.
+ */
+class SegmentInterleaverTest extends InterleaversBase {
+
+  @Shared
+  def algorithms = [
+      "permutation": SegmentInterleavers::permutation,
+      "shuffle"    : SegmentInterleavers::shufflePrime
+  ]
+
+  def inputFor(Shuffle shuffle, int max) {
+    switch (shuffle) {
+      case Shuffle.IN: return evensThenOdds(max)
+      case Shuffle.OUT: return oddsThenEvens(max)
+      case Shuffle.IN_FOLDING: return evensThenFoldedOdds(max)
+      case Shuffle.OUT_FOLDING: return oddsThenFoldedEvens(max)
+    }
+  }
+
+  @Unroll("#featureName[#iterationIndex] (#parity, length of #max) #algo #shuffle")
+  def "heap segment of longs, every shuffle"() {
+    given:
+    long[] arr = inputFor(shuffle, max) as long[]
+    algorithms[algo](MemorySegment.ofArray(arr), Long.BYTES, shuffle)
+    expect:
+    verifySequential(arr.collect { it as int } as int[])
+    where:
+    [max, algo, shuffle] << [[2, 3, 4, 5, 10, 27, 28, 129, 242, 1001, 999999],
+                             algorithms.keySet(), Shuffle.values()].combinations()
+    parity = getParity(max)
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #max")
+  def "sections of a segment"() {
+    given: "a section that doesn't start at zero, surrounded by padding"
+    int[] arr = [-1, -1] + evensThenOdds(max) + [-1]
+    algorithms[algo](MemorySegment.ofArray(arr), Integer.BYTES,
+                     2L, 2L + max, Shuffle.IN)
+    expect:
+    (arr[0..1] + arr[-1..-1]) == [-1, -1, -1]
+    verifySequential(arr[2..<(2 + max)] as int[])
+    where:
+    [max, algo] << [[4, 10, 33, 1001], algorithms.keySet()].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo #width byte elements")
+  def "elements of any width"() {
+    given: "records numbered in their first byte, the rest filled with the same"
+    def order = evensThenOdds(max)
+    byte[] bytes = new byte[max * width]
+    order.eachWithIndex { v, i ->
+      Arrays.fill(bytes, i * width, (i + 1) * width, v as byte)
+    }
+    algorithms[algo](MemorySegment.ofArray(bytes), width, Shuffle.IN)
+    expect:
+    (0..<max).every { i ->
+      (0..<width).every { j -> bytes[i * width + j] == (i + 1) as byte }
+    }
+    where:
+    [max, algo, width] << [[10, 101], algorithms.keySet(),
+                           [1, 2, 3, 4, 8, 12]].combinations()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #algo")
+  def "native segment"() {
+    given:
+    def order = evensThenOdds(100_001)
+    def results = []
+    MemorySession.openConfined().withCloseable { session ->
+      def segment = MemorySegment.allocateNative(order.size() * 8L, session)
+      order.eachWithIndex { v, i -> segment.setAtIndex(ValueLayout.JAVA_LONG, i, v as long) }
+      algorithms[algo](segment, Long.BYTES, Shuffle.IN)
+      order.indices.each { i -> results << (segment.getAtIndex(ValueLayout.JAVA_LONG, i) as int) }
+    }
+    expect:
+    verifySequential(results as int[])
+    where:
+    algo << algorithms.keySet()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #shuffle #sizeA and #sizeB")
+  def "two segments, like two arrays"() {
+    given:
+    long[] a = (0..<sizeA).collect { it } as long[]
+    long[] b = (0..<sizeB).collect { 1000 + it } as long[]
+    Long[] refA = a as Long[], refB = b as Long[]
+    Interleavers.SIMPLE.interleave(refA, refB, shuffle)
+    long[] padded = [-1L] + (b as List) + [-1L] as long[]
+    SegmentInterleavers.shufflePrime(MemorySegment.ofArray(a), 0, sizeA,
+                                     MemorySegment.ofArray(padded), 1, sizeB + 1,
+                                     Long.BYTES, shuffle)
+    expect:
+    a as List == refA as List
+    padded[1..sizeB] == refB as List
+    padded[0] == -1L && padded[-1] == -1L
+    where:
+    [shuffle, sizeA, sizeB] << [Shuffle.values(), [1, 5, 100], [1, 5, 6, 101]].combinations()
+  }
+
+  def "bad element sizes and sections"() {
+    given:
+    def segment = MemorySegment.ofArray(new long[10])
+    when:
+    SegmentInterleavers.permutation(segment, size, from, to, Shuffle.IN)
+    then:
+    thrown(exception)
+    where:
+    size | from | to | exception
+    0    | 0    | 10 | IllegalArgumentException
+    8    | 0    | 11 | IndexOutOfBoundsException
+    8    | 5    | 4  | IndexOutOfBoundsException
+  }
+
+  def "64 bit number theory agrees with the 32 bit versions"() {
+    expect:
+    (1..100000).every { Util.ilog3(it as long) == Util.ilog3(it as int) }
+    (2..3000).every { Util.findNextLowestJ2Prime(it as long) == Util.findNextLowestJ2Prime(it as int) }
+    (1..<40).every {
+      Util.ilog3(Util.POW3_LONG[it]) == it && Util.ilog3(Util.POW3_LONG[it] - 1) == it - 1
+    }
+    Util.ilog3(Long.MAX_VALUE) == 39
+  }
+
+  def "64 bit fastmod"() {
+    given:
+    def rnd = new Random(42)
+    expect:
+    (0..<100000).every {
+      long d = Math.abs(rnd.nextLong()) | 1L
+      long n = rnd.nextLong()
+      long[] c = Util.fastmodConstant(d)
+      Util.fastmod(n, c[0], c[1], d) == Long.remainderUnsigned(n, d)
+    }
+  }
+}
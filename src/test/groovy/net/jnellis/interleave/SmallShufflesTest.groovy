@@ -0,0 +1,67 @@
+package net.jnellis.interleave
+
+import spock.lang.Unroll
+
+/**
+ * The tables of {@link SmallShuffles} shuffle arrays the same as
+ * {@link Interleavers#SIMPLE} shuffles lists, which never use them, and so
+ * do the algorithms they take the place of.
+ */
+class SmallShufflesTest extends InterleaversBase {
+
+  @Unroll("#featureName[#iterationIndex] #shuffle")
+  def "every size below the limit"() {
+    expect:
+    (0..SmallShuffles.LIMIT).every { size ->
+      List<Integer> expected = (0..<size).toList()
+      Interleavers.SIMPLE.interleave(expected, shuffle)
+      Integer[] objects = [-1] + (0..<size) + [-2]
+      int[] ints = objects as int[]
+      Interleavers.SIMPLE.interleave(objects, 1, size + 1, shuffle)
+      Interleavers.SIMPLE.interleave(ints, 1, size + 1, shuffle)
+      objects as List == [-1] + expected + [-2] &&
+          ints == ([-1] + expected + [-2]) as int[]
+    }
+    where:
+    shuffle << Shuffle.values()
+  }
+
+  @Unroll("#featureName[#iterationIndex] #method")
+  def "the algorithms still shuffle every size below the limit"() {
+    // the tables stand in for them on arrays, so call them directly to
+    // keep their small size cases covered, n < 4 and the first 3^k and J2
+    // prime boundaries
+    expect:
+    (0..SmallShuffles.LIMIT).every { size ->
+      List<Integer> expected = (0..<size).toList()
+      Interleavers.SIMPLE.interleave(expected, Shuffle.IN)
+      Integer[] objects = [-1] + (0..<size) + [-2]
+      int[] ints = objects as int[]
+      interleaver.interleave(objects, 1, size + 1)
+      PrimitiveArrayInShuffleInterleavers."$method"(ints, 1, size + 1)
+      objects as List == [-1] + expected + [-2] &&
+          ints == ([-1] + expected + [-2]) as int[]
+    }
+    where:
+    interleaver              | method
+    Interleavers.SEQUENCE    | "sequence"
+    Interleavers.PERMUTATION | "permutation"
+    Interleavers.RECURSIVE   | "recursive"
+    Interleavers.JOSEPHUS    | "josephus"
+    Interleavers.SHUFFLE     | "shufflePrime"
+    Interleavers.DIRECT      | "direct"
+  }
+
+  def "paths only list elements that move"() {
+    expect:
+    SmallShuffles.path(size, folding).length == length
+    where:
+    size | folding | length
+    0    | false   | 0
+    1    | false   | 0
+    2    | false   | 3
+    3    | false   | 3
+    3    | true    | 4
+    4    | false   | 5
+  }
+}
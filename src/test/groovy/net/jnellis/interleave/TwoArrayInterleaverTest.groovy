@@ -20,6 +20,7 @@ class TwoArrayInterleaverTest extends InterleaversBase {
       "recursive"  : Interleavers.RECURSIVE::interleave,
       "josephus"   : Interleavers.JOSEPHUS::interleave,
       "shuffle"    : Interleavers.SHUFFLE::interleave,
+      "direct"     : Interleavers.DIRECT::interleave,
       "simple"   : Interleavers.SIMPLE::interleave
   ]
 
@@ -172,4 +173,22 @@ class TwoArrayInterleaverTest extends InterleaversBase {
     parity = (max % 2) == 0 ? "even" : "odd"
   }
 
-}
\ No newline at end of file
+  @Unroll("#featureName[#iterationIndex] #algo #shuffle #max")
+  def "Two array sections that don't start at zero"() {
+    given:
+    init(max)
+    def a = shuffle.out ? odds : evens
+    def b = shuffle.out ? evens : odds
+    if (shuffle.folding) Collections.reverse(b)
+    Object[] paddedA = [-1, -1] + a + [-1]
+    Object[] paddedB = [-2] + b + [-2, -2, -2]
+    interleavers[algo](paddedA, 2, 2 + a.size(), paddedB, 1, 1 + b.size(), shuffle)
+    expect:
+    (paddedA[0..1] + paddedA[-1..-1]) == [-1, -1, -1]
+    (paddedB[0..0] + paddedB[-3..-1]) == [-2, -2, -2, -2]
+    verifySequential(paddedA[2..<(2 + a.size())], paddedB[1..<(1 + b.size())])
+    where:
+    [max, algo, shuffle] << [[4, 10, 18, 27, 33, 242, 1001],
+                             interleavers.keySet(), Shuffle.values()].combinations()
+  }
+}
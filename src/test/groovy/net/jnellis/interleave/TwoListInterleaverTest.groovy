@@ -21,6 +21,7 @@ class TwoListInterleaverTest extends InterleaversBase {
       "recursive"  : Interleavers.RECURSIVE::interleave,
       "josephus"   : Interleavers.JOSEPHUS::interleave,
       "shuffle"    : Interleavers.SHUFFLE::interleave,
+      "direct"     : Interleavers.DIRECT::interleave,
       "simple"   : Interleavers.SIMPLE::interleave
   ]
 